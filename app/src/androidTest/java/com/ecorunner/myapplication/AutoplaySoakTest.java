@@ -0,0 +1,56 @@
+package com.ecorunner.myapplication;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Lets the AutoPilot play from the level select screen through all nine levels and on into
+ * endless mode, rendering every frame into an off-screen bitmap. Metrics (frame times, memory,
+ * progression) are logged under AUTOPLAY_SOAK once per simulated minute. The session is 20
+ * simulated minutes by default; pass the instrumentation argument soakMinutes for hours.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AutoplaySoakTest {
+    private static final String TAG = "AUTOPLAY_SOAK";
+    private static final int TICK_MS = 16;
+    private static final int TICKS_PER_MINUTE = 60000 / TICK_MS;
+    // All nine levels take about nine minutes of play; leave room for a few retries.
+    private static final int MINUTES_TO_CLEAR_ALL = 15;
+
+    @Test
+    public void autopilotProgressesThroughLevels() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        String arg = InstrumentationRegistry.getArguments().getString("soakMinutes");
+        int minutes = arg != null ? Integer.parseInt(arg) : 20;
+
+        Rect screen = new Rect(0, 0, 1920, 1080);
+        Game game = new Game(context, screen, new BitmapHolder(screen.width(), screen.height()),
+                context.getResources());
+        game.setAutoplay(true);
+
+        for (int minute = 1; minute <= minutes; minute++) {
+            for (int tick = 0; tick < TICKS_PER_MINUTE; tick++) {
+                game.update((long) TICK_MS);
+                game.draw();
+            }
+            Metrics metrics = game.getMetrics();
+            Log.i(TAG, "minute " + minute + " " + metrics.summary());
+            if (minute == MINUTES_TO_CLEAR_ALL) {
+                assertEquals("autopilot stalled before the last level", 9, metrics.getHighestLevel());
+            }
+        }
+        Metrics metrics = game.getMetrics();
+        assertTrue("autopilot lost more runs than it completed",
+                metrics.getRunsLost() <= metrics.getLevelsCompleted());
+        game.release();
+    }
+}
@@ -0,0 +1,32 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.view.Surface;
+import android.view.SurfaceHolder;
+
+// Hands Game a canvas over a plain bitmap instead of a window surface.
+class BitmapHolder implements SurfaceHolder {
+    private final Bitmap bitmap;
+    private final Canvas canvas;
+
+    BitmapHolder(int width, int height) {
+        bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        canvas = new Canvas(bitmap);
+    }
+
+    @Override public void addCallback(Callback callback) { }
+    @Override public void removeCallback(Callback callback) { }
+    @Override public boolean isCreating() { return false; }
+    @Override public void setType(int type) { }
+    @Override public void setFixedSize(int width, int height) { }
+    @Override public void setSizeFromLayout() { }
+    @Override public void setFormat(int format) { }
+    @Override public void setKeepScreenOn(boolean screenOn) { }
+    @Override public Canvas lockCanvas() { return canvas; }
+    @Override public Canvas lockCanvas(Rect dirty) { return canvas; }
+    @Override public void unlockCanvasAndPost(Canvas canvas) { }
+    @Override public Rect getSurfaceFrame() { return new Rect(0, 0, bitmap.getWidth(), bitmap.getHeight()); }
+    @Override public Surface getSurface() { return null; }
+}
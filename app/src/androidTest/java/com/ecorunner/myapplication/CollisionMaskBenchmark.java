@@ -0,0 +1,65 @@
+package com.ecorunner.myapplication;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Per-frame cost of the player-vs-obstacle test with and without the alpha-mask narrow phase,
+ * over a full pass of an obstacle across the player, plus the one-off cost of building each
+ * mask. Results are logged under the COLLISION_BENCH tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CollisionMaskBenchmark {
+    private static final String TAG = "COLLISION_BENCH";
+    private static final int SIZE = 230;
+    private static final int PASSES = 2000;
+    private static final int[] OBSTACLES = {
+            R.drawable.trashpilesl1, R.drawable.garbageheapsl2, R.drawable.litterl3,
+            R.drawable.piggybankl4, R.drawable.cuttingtreesl5, R.drawable.smogl6,
+            R.drawable.floodl7, R.drawable.solarpanell8, R.drawable.firel9 };
+
+    @Test
+    public void collisionCostPerFrame() {
+        Resources res = InstrumentationRegistry.getInstrumentation().getTargetContext().getResources();
+        for (int id : OBSTACLES) {
+            Bitmap bmp = Assets.getUnscaled(res, id);
+            long buildStart = System.nanoTime();
+            CollisionMask mask = CollisionMask.fromBitmap(bmp, SIZE, SIZE);
+            long buildNs = System.nanoTime() - buildStart;
+
+            long boxNs = run(null);
+            long maskNs = run(mask);
+            Log.i(TAG, res.getResourceEntryName(id) + ": build " + buildNs / 1000 + " us, box "
+                    + boxNs + " ns/frame, mask " + maskNs + " ns/frame, "
+                    + 100 * mask.countSolid() / (SIZE * SIZE) + "% solid");
+            assertTrue(maskNs > 0);
+        }
+    }
+
+    // Slides the obstacle right to left across the 10x50 player box at game speed and
+    // returns the mean time of one frame's test.
+    private long run(CollisionMask mask) {
+        int hits = 0;
+        long start = System.nanoTime();
+        for (int p = 0; p < PASSES; p++) {
+            for (int x = 700; x > 100; x -= 30) {
+                if (x < 410 && x + SIZE > 400
+                        && CollisionMask.overlaps(null, 400, 900, 10, 50, mask, x, 780, SIZE, SIZE)) {
+                    hits++;
+                }
+            }
+        }
+        long frames = PASSES * 20L;
+        assertTrue(hits >= 0);
+        return (System.nanoTime() - start) / frames;
+    }
+}
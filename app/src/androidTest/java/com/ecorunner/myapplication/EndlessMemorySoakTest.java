@@ -0,0 +1,68 @@
+package com.ecorunner.myapplication;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.os.Debug;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs an endless-mode session (60 simulated minutes by default; pass the instrumentation
+ * argument soakMinutes to change it) through Game.update and Game.draw into an off-screen
+ * bitmap, sampling Java heap and native heap once per simulated minute. After a warm-up that
+ * lets every level's art get decoded once, both must stay flat.
+ */
+@RunWith(AndroidJUnit4.class)
+public class EndlessMemorySoakTest {
+    private static final String TAG = "ENDLESS_SOAK";
+    private static final int TICK_MS = 16;
+    private static final int TICKS_PER_MINUTE = 60000 / TICK_MS;
+    private static final int WARMUP_MINUTES = 5;
+    private static final long MAX_HEAP_GROWTH = 4L * 1024 * 1024;
+    private static final long MAX_NATIVE_GROWTH = 8L * 1024 * 1024;
+
+    @Test
+    public void endlessSessionMemoryStaysFlat() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        String arg = InstrumentationRegistry.getArguments().getString("soakMinutes");
+        int minutes = arg != null ? Integer.parseInt(arg) : 60;
+
+        Rect screen = new Rect(0, 0, 1920, 1080);
+        Game game = new Game(context, screen, new BitmapHolder(screen.width(), screen.height()),
+                context.getResources());
+        game.startEndlessRun();
+        // Keep the run alive for the whole session; this test is about memory, not skill.
+        game.getSimulation().activateShield(Long.MAX_VALUE);
+
+        long baseHeap = 0, baseNative = 0;
+        for (int minute = 1; minute <= minutes; minute++) {
+            for (int tick = 0; tick < TICKS_PER_MINUTE; tick++) {
+                game.update((long) TICK_MS);
+                game.draw();
+            }
+            assertEquals(Game.GameState.RUNNING, game.getState());
+
+            Runtime rt = Runtime.getRuntime();
+            rt.gc();
+            long heap = rt.totalMemory() - rt.freeMemory();
+            long nativeHeap = Debug.getNativeHeapAllocatedSize();
+            Log.i(TAG, "minute " + minute + " score=" + game.getSimulation().getScore()
+                    + " heap=" + heap / 1024 + "KB native=" + nativeHeap / 1024 + "KB");
+            if (minute == Math.min(WARMUP_MINUTES, minutes)) {
+                baseHeap = heap;
+                baseNative = nativeHeap;
+            } else if (minute > WARMUP_MINUTES) {
+                assertTrue("Java heap grew at minute " + minute, heap - baseHeap < MAX_HEAP_GROWTH);
+                assertTrue("Native heap grew at minute " + minute, nativeHeap - baseNative < MAX_NATIVE_GROWTH);
+            }
+        }
+        game.release();
+    }
+}
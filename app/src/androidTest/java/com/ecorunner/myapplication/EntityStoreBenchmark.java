@@ -0,0 +1,102 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the EntityStore update pass against the per-object layout Sprite used before it
+ * (own Rect and Paints per sprite, hitbox rebuilt separately by setX and setY). Results are
+ * logged under the ENTITY_BENCH tag; run on a device with the screen on and nothing else busy.
+ */
+@RunWith(AndroidJUnit4.class)
+public class EntityStoreBenchmark {
+    private static final String TAG = "ENTITY_BENCH";
+    private static final int WARMUP = 20000;
+    private static final int TICKS = 200000;
+
+    // Pre-store Sprite state and update path, kept here only as the baseline.
+    private static class LegacySprite {
+        Rect hitbox;
+        int width, height;
+        double x, y, vx, vy, ax, ay;
+        boolean affectedByGrav = true;
+        Paint noAliasPaint = new Paint();
+        Paint borderPaint = new Paint();
+        Paint vectorPaint = new Paint();
+
+        LegacySprite(Rect hitbox) {
+            this.hitbox = hitbox;
+            width = hitbox.width();
+            height = hitbox.height();
+            x = hitbox.left;
+            y = hitbox.top;
+            vectorPaint.setColor(Color.GREEN);
+        }
+
+        void update() {
+            vx += ax;
+            vy += ay;
+            if (affectedByGrav) vy += 4;
+            setX(x + vx);
+            setY(y + vy);
+        }
+
+        void setX(double nx) {
+            x = nx;
+            hitbox.set((int) x, (int) y, (int) x + width, (int) y + height);
+        }
+
+        void setY(double ny) {
+            y = ny;
+            hitbox.set((int) x, (int) y, (int) x + width, (int) y + height);
+        }
+    }
+
+    @Test
+    public void compareUpdatePasses() {
+        for (int n : new int[]{1, 10, 100}) {
+            long legacy = runLegacy(n);
+            long store = runStore(n);
+            Log.i(TAG, n + " entities: legacy " + legacy + " ns/tick, store " + store + " ns/tick");
+            assertTrue(legacy > 0 && store > 0);
+        }
+    }
+
+    private long runLegacy(int n) {
+        LegacySprite[] sprites = new LegacySprite[n];
+        for (int i = 0; i < n; i++) {
+            sprites[i] = new LegacySprite(new Rect(i, 0, i + 230, 230));
+            sprites[i].vx = -30;
+        }
+        for (int t = 0; t < WARMUP; t++) {
+            for (LegacySprite s : sprites) s.update();
+        }
+        long start = System.nanoTime();
+        for (int t = 0; t < TICKS; t++) {
+            for (LegacySprite s : sprites) s.update();
+        }
+        return (System.nanoTime() - start) / TICKS;
+    }
+
+    private long runStore(int n) {
+        EntityStore store = new EntityStore(n);
+        for (int i = 0; i < n; i++) {
+            int id = store.create(i, 0, 230, 230);
+            store.setGravity(id, true);
+            store.setVx(id, -30);
+        }
+        for (int t = 0; t < WARMUP; t++) store.integrateAll();
+        long start = System.nanoTime();
+        for (int t = 0; t < TICKS; t++) store.integrateAll();
+        return (System.nanoTime() - start) / TICKS;
+    }
+}
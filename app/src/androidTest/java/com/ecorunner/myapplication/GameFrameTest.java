@@ -0,0 +1,68 @@
+package com.ecorunner.myapplication;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.graphics.Rect;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Records the frame Game composes in each state and checks what gets drawn and in what order,
+ * without looking at pixels.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GameFrameTest {
+    private static final int TICK_MS = 16;
+
+    @Test
+    public void framesPerState() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        Rect screen = new Rect(0, 0, 1920, 1080);
+        Game game = new Game(context, screen, new BitmapHolder(screen.width(), screen.height()),
+                context.getResources());
+        RecordingRenderer frame = new RecordingRenderer();
+
+        // Level select: cleared to black, a title, then a thumbnail or placeholder and a label per level.
+        game.render(frame);
+        assertEquals(Game.GameState.START, game.getState());
+        assertEquals(RecordingRenderer.CLEAR, frame.getOp(0));
+        assertEquals(Color.BLACK, frame.getColor(0));
+        assertEquals("SELECT LEVEL", frame.getText(1));
+        assertEquals(LevelThumbnails.LEVEL_COUNT,
+                frame.count(RecordingRenderer.BITMAP) + frame.count(RecordingRenderer.RECT));
+        assertEquals(LevelThumbnails.LEVEL_COUNT + 1, frame.count(RecordingRenderer.TEXT));
+
+        // Running: scenery and sprites first, then the score, level text and pause button on top.
+        game.setAutoplay(true);
+        game.update((long) TICK_MS);
+        assertEquals(Game.GameState.RUNNING, game.getState());
+        frame.reset();
+        game.render(frame);
+        int firstText = frame.indexOf(RecordingRenderer.TEXT, 0);
+        assertTrue(firstText > 0);
+        assertTrue(frame.indexOf(RecordingRenderer.BITMAP, 0) < firstText);
+        assertTrue(frame.getText(firstText).startsWith("Score"));
+        assertEquals(RecordingRenderer.BITMAP, frame.getOp(frame.getCount() - 1));
+        assertEquals(-1, frame.indexOf(RecordingRenderer.CIRCLE, 0));
+
+        // End screens add the banner and one button after the game.
+        for (int i = 0; i < 180000 / TICK_MS && game.getState() == Game.GameState.RUNNING; i++) {
+            game.update((long) TICK_MS);
+        }
+        Game.GameState end = game.getState();
+        assertTrue(end == Game.GameState.LEVEL_COMPLETE || end == Game.GameState.LOST);
+        frame.reset();
+        game.render(frame);
+        int n = frame.getCount();
+        assertEquals(RecordingRenderer.BITMAP, frame.getOp(n - 1));
+        assertEquals(RecordingRenderer.BITMAP, frame.getOp(n - 2));
+        assertNotEquals(frame.getBitmapId(n - 1), frame.getBitmapId(n - 2));
+        game.release();
+    }
+}
@@ -0,0 +1,58 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+// Immutable description of an animation: frames, how many simulation ticks each one is shown
+// for, and what happens after the last frame. Clips hold no playback state, so any number of
+// sprites can reference the same clip (and its bitmaps) through their own Animator.
+public class AnimationClip {
+    public enum LoopMode { ONCE, LOOP, PING_PONG }
+
+    private final Bitmap[] frames;
+    private final Rect[] regions;   // Source rect per frame, or null to draw the whole bitmap.
+    private final int[] frameTicks;
+    private final LoopMode loopMode;
+
+    public AnimationClip(Bitmap[] frames, Rect[] regions, int[] frameTicks, LoopMode loopMode) {
+        if (frames.length == 0 || frames.length != frameTicks.length
+                || (regions != null && regions.length != frames.length)) {
+            throw new IllegalArgumentException("Clip needs one duration (and region) per frame");
+        }
+        this.frames = frames;
+        this.regions = regions;
+        this.frameTicks = frameTicks;
+        this.loopMode = loopMode;
+    }
+
+    // Convenience for clips where every frame is a whole bitmap shown for the same number of ticks.
+    public AnimationClip(Bitmap[] frames, int ticksPerFrame, LoopMode loopMode) {
+        this(frames, null, uniform(frames.length, ticksPerFrame), loopMode);
+    }
+
+    private static int[] uniform(int count, int ticks) {
+        int[] t = new int[count];
+        for (int i = 0; i < count; i++) t[i] = Math.max(1, ticks);
+        return t;
+    }
+
+    public int getFrameCount() {
+        return frames.length;
+    }
+
+    public Bitmap getFrame(int index) {
+        return frames[index];
+    }
+
+    public Rect getRegion(int index) {
+        return regions == null ? null : regions[index];
+    }
+
+    public int getFrameTicks(int index) {
+        return frameTicks[index];
+    }
+
+    public LoopMode getLoopMode() {
+        return loopMode;
+    }
+}
@@ -0,0 +1,70 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+// Per-sprite playback state for an AnimationClip. Advanced once per simulation tick from
+// Sprite.update, so animations freeze while the game is paused and never drift from game time.
+public class Animator {
+    private AnimationClip clip;
+    private int frameIndex;
+    private int ticksLeft;
+    private int direction = 1; // -1 while a PING_PONG clip plays backwards.
+    private boolean finished;
+
+    public Animator(AnimationClip clip) {
+        play(clip);
+    }
+
+    // Starts a clip from its first frame. Replaying the current clip restarts it.
+    public void play(AnimationClip clip) {
+        this.clip = clip;
+        frameIndex = 0;
+        ticksLeft = clip.getFrameTicks(0);
+        direction = 1;
+        finished = false;
+    }
+
+    public void tick() {
+        if (finished || --ticksLeft > 0) return;
+        int last = clip.getFrameCount() - 1;
+        int next = frameIndex + direction;
+        if (next > last || next < 0) {
+            switch (clip.getLoopMode()) {
+                case ONCE:
+                    finished = true;
+                    return;
+                case LOOP:
+                    next = 0;
+                    break;
+                case PING_PONG:
+                    direction = -direction;
+                    next = last == 0 ? 0 : frameIndex + direction;
+                    break;
+            }
+        }
+        frameIndex = next;
+        ticksLeft = clip.getFrameTicks(frameIndex);
+    }
+
+    public Bitmap getFrame() {
+        return clip.getFrame(frameIndex);
+    }
+
+    public Rect getRegion() {
+        return clip.getRegion(frameIndex);
+    }
+
+    public AnimationClip getClip() {
+        return clip;
+    }
+
+    public int getFrameIndex() {
+        return frameIndex;
+    }
+
+    // Only ONCE clips ever finish; they hold their last frame afterwards.
+    public boolean isFinished() {
+        return finished;
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecorunner.myapplication;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import java.util.HashMap;
+
+// Process-wide cache of decoded resource bitmaps, so sprites that show the same art
+// (animation frames, repeated obstacles) share one bitmap instead of decoding their own.
+public class Assets {
+    // Density-scaled decodes, matching BitmapFactory.decodeResource(res, id).
+    private static final HashMap<Integer, Bitmap> scaled = new HashMap<>();
+    // Decodes at the file's pixel size (inScaled = false), as Game loads level art.
+    private static final HashMap<Integer, Bitmap> unscaled = new HashMap<>();
+    private static final BitmapFactory.Options unscaledOptions = new BitmapFactory.Options();
+    // Collision masks of unscaled decodes, keyed by resource id and the size they are drawn at.
+    private static final HashMap<Long, CollisionMask> masks = new HashMap<>();
+
+    static {
+        unscaledOptions.inScaled = false;
+    }
+
+    public static Bitmap get(Resources resources, int resId) {
+        return load(scaled, resources, resId, null);
+    }
+
+    public static Bitmap getUnscaled(Resources resources, int resId) {
+        return load(unscaled, resources, resId, unscaledOptions);
+    }
+
+    // Decodes outside the lock, like getMask, so a decode on one thread (the asset warmer, a
+    // level setup) does not stall lookups of bitmaps that are already cached. If two threads
+    // decode the same resource at once, the first to publish wins and the other copy is dropped.
+    private static Bitmap load(HashMap<Integer, Bitmap> cache, Resources resources, int resId,
+            BitmapFactory.Options options) {
+        synchronized (Assets.class) {
+            Bitmap bmp = cache.get(resId);
+            if (bmp != null) return bmp;
+        }
+        StallWatchdog.noteBlocking("decode");
+        Bitmap bmp = options == null ? BitmapFactory.decodeResource(resources, resId)
+                : BitmapFactory.decodeResource(resources, resId, options);
+        if (bmp == null) return null;
+        synchronized (Assets.class) {
+            Bitmap existing = cache.putIfAbsent(resId, bmp);
+            if (existing == null) return bmp;
+            bmp.recycle();
+            return existing;
+        }
+    }
+
+    // Builds the mask outside the lock so a first request does not stall other lookups.
+    public static CollisionMask getMask(Resources resources, int resId, int width, int height) {
+        long key = ((long) resId << 32) | ((long) width << 16) | height;
+        synchronized (Assets.class) {
+            CollisionMask mask = masks.get(key);
+            if (mask != null) return mask;
+        }
+        Bitmap bmp = getUnscaled(resources, resId);
+        if (bmp == null) return null;
+        CollisionMask mask = CollisionMask.fromBitmap(bmp, width, height);
+        synchronized (Assets.class) {
+            CollisionMask existing = masks.putIfAbsent(key, mask);
+            return existing != null ? existing : mask;
+        }
+    }
+}
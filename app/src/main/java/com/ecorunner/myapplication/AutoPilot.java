@@ -0,0 +1,52 @@
+package com.ecorunner.myapplication;
+
+// Plays the game by itself, for unattended soak and performance runs. Each tick it simulates
+// the next HORIZON_TICKS with the player's real jump physics, once staying on the ground and
+// once jumping now, against the obstacle moving at its current speed. It jumps when staying
+// put would hit the obstacle and jumping now would not. Eco-shields are run into, not over.
+public class AutoPilot {
+    private static final int HORIZON_TICKS = 40;
+    // Extra pixels around the obstacle box, so rounding never turns a plan into a hit.
+    private static final int MARGIN = 4;
+
+    private int jumps = 0;
+
+    // Player box and vertical speed; groundBottom is where the player's feet rest.
+    // Obstacle box and horizontal speed; pickup is true for eco-shields.
+    public boolean shouldJump(double px, double py, int pw, int ph, double pvy, boolean canJump,
+                              double groundBottom,
+                              double ox, double oy, int ow, int oh, double ovx, boolean pickup) {
+        if (pickup || !canJump) return false;
+        if (!hits(false, px, py, pw, ph, pvy, groundBottom, ox, oy, ow, oh, ovx)) return false;
+        if (hits(true, px, py, pw, ph, pvy, groundBottom, ox, oy, ow, oh, ovx)) return false;
+        jumps++;
+        return true;
+    }
+
+    public int getJumps() {
+        return jumps;
+    }
+
+    // Steps the same order as Simulation.step: the player's ground clamp, then one physics pass
+    // moving the player (gravity and any jump force) and the obstacle.
+    private static boolean hits(boolean jump, double px, double py, int pw, int ph, double pvy,
+                                double groundBottom,
+                                double ox, double oy, int ow, int oh, double ovx) {
+        double y = py, vy = pvy, x = ox;
+        for (int t = 0; t < HORIZON_TICKS; t++) {
+            if (y + ph >= groundBottom) {
+                y = groundBottom - ph;
+                vy = 0;
+            }
+            vy += (jump && t == 0 ? Simulation.JUMP_FORCE : 0) + EntityStore.GRAV;
+            y += vy;
+            x += ovx;
+            if (x + ow + MARGIN <= px) return false; // Obstacle is past the player.
+            if (px < x + ow + MARGIN && x - MARGIN < px + pw
+                    && y < oy + oh + MARGIN && oy - MARGIN < y + ph) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,174 @@
+package com.ecorunner.myapplication;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+// Disk cache of background art already decoded and scaled to the surface size. A hit maps
+// the raw pixel file and copies it straight into a new bitmap, skipping JPG/PNG decoding and
+// scaling. Entries are keyed by (resource id, width, height, config); the directory is
+// capped at MAX_BYTES, evicting the least recently used files.
+public class BackgroundCache {
+    private static final String TAG = "BACKGROUND_CACHE";
+    private static final int MAGIC = 0x42475058; // "BGPX"
+    private static final int HEADER_SIZE = 20;
+    private static final long MAX_BYTES = 96L * 1024 * 1024;
+    private static final Bitmap.Config[] OPAQUE_565 = {Bitmap.Config.RGB_565, Bitmap.Config.ARGB_8888};
+    private static final Bitmap.Config[] ALL_8888 = {Bitmap.Config.ARGB_8888};
+
+    private final Resources resources;
+    private final File dir;
+    private final String appVersion;
+    private boolean validated = false;
+    private final BitmapFactory.Options options = new BitmapFactory.Options();
+    private final Paint filterPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    // Load statistics for the log and the debug overlay.
+    private int hits = 0, misses = 0;
+    private long lastLoadMs = 0;
+
+    public BackgroundCache(Context context) {
+        this.resources = context.getResources();
+        this.dir = new File(context.getCacheDir(), "backgrounds");
+        this.appVersion = CacheVersion.appVersion(context);
+        options.inScaled = false;
+    }
+
+    // The resource scaled to width x height. Opaque art is stored as RGB_565 to halve its size.
+    public Bitmap load(int resId, int width, int height) {
+        return load(resId, width, height, true);
+    }
+
+    // As above; with opaque565 false opaque art stays ARGB_8888 too.
+    public synchronized Bitmap load(int resId, int width, int height, boolean opaque565) {
+        StallWatchdog.noteBlocking("background load");
+        long start = SystemClock.uptimeMillis();
+        if (!validated) {
+            CacheVersion.resetIfStale(dir, appVersion);
+            validated = true;
+        }
+        Bitmap bmp = read(resId, width, height, opaque565);
+        boolean hit = bmp != null;
+        if (hit) {
+            hits++;
+        } else {
+            misses++;
+            bmp = decodeScaled(resId, width, height, opaque565);
+            if (bmp != null) write(resId, bmp);
+        }
+        lastLoadMs = SystemClock.uptimeMillis() - start;
+        Log.i(TAG, "Background " + resId + " " + width + "x" + height + " in " + lastLoadMs
+                + "ms (" + (hit ? "cache hit" : "decoded") + ")");
+        return bmp;
+    }
+
+    public synchronized String summary() {
+        return "bg cache hits=" + hits + " misses=" + misses + " last=" + lastLoadMs + "ms";
+    }
+
+    private File fileFor(int resId, int width, int height, Bitmap.Config config) {
+        return new File(dir, Integer.toHexString(resId) + "_" + width + "x" + height + "_" + config + ".px");
+    }
+
+    private Bitmap decodeScaled(int resId, int width, int height, boolean opaque565) {
+        Bitmap src = BitmapFactory.decodeResource(resources, resId, options);
+        if (src == null) return null;
+        boolean alpha = src.hasAlpha();
+        Bitmap scaled = Bitmap.createBitmap(width, height,
+                alpha || !opaque565 ? Bitmap.Config.ARGB_8888 : Bitmap.Config.RGB_565);
+        new Canvas(scaled).drawBitmap(src, null, new Rect(0, 0, width, height), filterPaint);
+        // Layers skip what is behind an opaque bitmap, so an 8888 copy of a JPG must say it is opaque.
+        scaled.setHasAlpha(alpha);
+        src.recycle();
+        return scaled;
+    }
+
+    // Header: magic, width, height, config ordinal, hasAlpha; then the raw pixels.
+    private Bitmap read(int resId, int width, int height, boolean opaque565) {
+        for (Bitmap.Config config : opaque565 ? OPAQUE_565 : ALL_8888) {
+            File file = fileFor(resId, width, height, config);
+            if (!file.exists()) continue;
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+                 FileChannel channel = raf.getChannel()) {
+                MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (map.getInt() != MAGIC || map.getInt() != width || map.getInt() != height
+                        || map.getInt() != config.ordinal()) {
+                    file.delete();
+                    continue;
+                }
+                boolean alpha = map.getInt() != 0;
+                // An opaque 8888 entry was written for another preset; decode a 565 one instead.
+                if (opaque565 && !alpha && config == Bitmap.Config.ARGB_8888) continue;
+                Bitmap bmp = Bitmap.createBitmap(width, height, config);
+                if (map.remaining() < bmp.getByteCount()) {
+                    bmp.recycle();
+                    file.delete();
+                    continue;
+                }
+                bmp.copyPixelsFromBuffer(map);
+                bmp.setHasAlpha(alpha);
+                file.setLastModified(System.currentTimeMillis());
+                return bmp;
+            } catch (IOException e) {
+                Log.w(TAG, "Could not read " + file, e);
+                file.delete();
+            }
+        }
+        return null;
+    }
+
+    // Pixels go straight from the bitmap into a mapped temp file, which is then renamed in.
+    private void write(int resId, Bitmap bmp) {
+        File file = fileFor(resId, bmp.getWidth(), bmp.getHeight(), bmp.getConfig());
+        File tmp = new File(file.getPath() + ".tmp");
+        long size = HEADER_SIZE + bmp.getByteCount();
+        trimTo(MAX_BYTES - size);
+        try (RandomAccessFile raf = new RandomAccessFile(tmp, "rw");
+             FileChannel channel = raf.getChannel()) {
+            channel.truncate(0);
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            map.putInt(MAGIC).putInt(bmp.getWidth()).putInt(bmp.getHeight())
+                    .putInt(bmp.getConfig().ordinal()).putInt(bmp.hasAlpha() ? 1 : 0);
+            bmp.copyPixelsToBuffer(map);
+            map.force();
+        } catch (IOException e) {
+            Log.w(TAG, "Could not cache background " + resId, e);
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(file)) tmp.delete();
+    }
+
+    // Deletes least recently used entries until the cache holds at most budget bytes.
+    private void trimTo(long budget) {
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        long total = 0;
+        for (File f : files) total += f.length();
+        while (total > budget) {
+            File oldest = null;
+            for (File f : files) {
+                if (f == null || CacheVersion.isVersionFile(f)) continue;
+                if (oldest == null || f.lastModified() < oldest.lastModified()) oldest = f;
+            }
+            if (oldest == null) return;
+            total -= oldest.length();
+            oldest.delete();
+            for (int i = 0; i < files.length; i++) {
+                if (files[i] == oldest) files[i] = null;
+            }
+        }
+    }
+}
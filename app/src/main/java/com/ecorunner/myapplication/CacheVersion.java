@@ -0,0 +1,65 @@
+package com.ecorunner.myapplication;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+// Ties a cache directory to the installed APK. Resource ids and art can change with any
+// build, so a cache written by another install is wiped before use.
+public class CacheVersion {
+    private static final String TAG = "CACHE_VERSION";
+    private static final String VERSION_FILE = "version";
+
+    // Installed version plus install time, so reinstalling the same versionCode also counts.
+    @SuppressWarnings("deprecation")
+    public static String appVersion(Context context) {
+        try {
+            PackageInfo info = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+            return info.versionCode + "-" + info.lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            return "unknown";
+        }
+    }
+
+    // Empties dir unless it was written by this version, then stamps it. Returns true if wiped.
+    public static boolean resetIfStale(File dir, String version) {
+        File versionFile = new File(dir, VERSION_FILE);
+        try {
+            if (versionFile.exists() && version.equals(read(versionFile))) return false;
+            File[] old = dir.listFiles();
+            if (old != null) {
+                for (File f : old) f.delete();
+            }
+            dir.mkdirs();
+            try (FileOutputStream out = new FileOutputStream(versionFile)) {
+                out.write(version.getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Could not reset " + dir, e);
+        }
+        return true;
+    }
+
+    // java.nio.file needs API 26; the stamp is a few bytes, so plain streams will do.
+    private static String read(File file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (FileInputStream in = new FileInputStream(file)) {
+            byte[] buffer = new byte[64];
+            int n;
+            while ((n = in.read(buffer)) > 0) bytes.write(buffer, 0, n);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    static boolean isVersionFile(File file) {
+        return VERSION_FILE.equals(file.getName());
+    }
+}
@@ -0,0 +1,154 @@
+package com.ecorunner.myapplication;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.util.Log;
+
+// Picks this device's QualityPreset once per install: on first launch and after every APK
+// update. The run renders up to FRAMES frames of level 1 into an off-screen bitmap with HIGH's
+// settings (both parallax layers at full size and 8888, an obstacle, a full particle budget and
+// the HUD text), timing each phase of the frame: update, collect (culling and sorting the
+// bitmap draws) and draw. Memory headroom is what is left, with that scene loaded, of the
+// app's memory class once the Java and native heaps are counted, and no more than the system
+// can hand out before it starts killing apps. The result is kept in SharedPreferences next to
+// the app version it was measured on.
+public class Calibration {
+    private static final String TAG = "CALIBRATION";
+    private static final String PREFS = "quality";
+    private static final String KEY_PRESET = "preset";
+    private static final String KEY_VERSION = "version";
+    private static final String KEY_RESULT = "result";
+    private static final int FRAMES = 180;
+    private static final long MAX_RUN_MS = 4000;
+    private static final int OBSTACLE_SIZE = 230;
+    private static final long MB = 1024 * 1024;
+    private static final int HUD_PAINT = Paints.text(Color.BLACK, 90, Paints.CENTER);
+
+    private final LatencyStats update = new LatencyStats(FRAMES);
+    private final LatencyStats collect = new LatencyStats(FRAMES);
+    private final LatencyStats draw = new LatencyStats(FRAMES);
+    private final LatencyStats frame = new LatencyStats(FRAMES);
+    private long headroomBytes;
+
+    // The debug override if one is set, else this install's calibration, running it first if
+    // there is none yet. Takes a few seconds when it runs, so call it off the UI thread.
+    public static QualityPreset resolve(Context context, Rect screen, BackgroundCache cache, DebugSettings debug) {
+        QualityPreset forced = QualityPreset.fromName(debug.getQualityOverride());
+        if (forced != null) {
+            Log.i(TAG, "Quality " + forced + " (debug override)");
+            return forced;
+        }
+        SharedPreferences prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        String version = CacheVersion.appVersion(context);
+        QualityPreset stored = QualityPreset.fromName(prefs.getString(KEY_PRESET, null));
+        if (stored != null && version.equals(prefs.getString(KEY_VERSION, null))) return stored;
+
+        ActivityManager activities = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        Calibration calibration = new Calibration();
+        calibration.run(context.getResources(), screen, cache, activities);
+        boolean lowRam = activities != null && activities.isLowRamDevice();
+        QualityPreset preset = QualityPreset.choose(calibration.frame.percentile(90),
+                calibration.headroomBytes, lowRam);
+        String result = preset + ": " + calibration.summary() + (lowRam ? " low-ram" : "");
+        Log.i(TAG, result);
+        prefs.edit()
+                .putString(KEY_PRESET, preset.name())
+                .putString(KEY_VERSION, version)
+                .putString(KEY_RESULT, result)
+                .apply();
+        return preset;
+    }
+
+    // Forgets the calibration so the next launch measures again.
+    public static void reset(Context context) {
+        context.getSharedPreferences(PREFS, Context.MODE_PRIVATE).edit().clear().apply();
+    }
+
+    // What the last calibration measured and picked, for the debug overlay.
+    public static String lastResult(Context context) {
+        return context.getSharedPreferences(PREFS, Context.MODE_PRIVATE).getString(KEY_RESULT, "not calibrated");
+    }
+
+    void run(Resources resources, Rect screen, BackgroundCache cache, ActivityManager activities) {
+        int w = screen.width();
+        int h = screen.height();
+        Bitmap target = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        CanvasRenderer renderer = new CanvasRenderer();
+        renderer.begin(new Canvas(target));
+
+        Bitmap far = cache.load(R.drawable.lvl1_far, w, h, false);
+        Bitmap close = cache.load(R.drawable.lvl1_close, w, h, false);
+        ParallaxBackground background = new ParallaxBackground(screen, 4);
+        background.addLayer(new ParallaxLayer(far, 0.5f, w, h));
+        background.addLayer(new ParallaxLayer(close, 1f, w, h));
+        Bitmap obstacle = Assets.getUnscaled(resources, R.drawable.trashpilesl1);
+        int obstacleTop = Terrain.groundFor(w, h) - w / 40;
+        DrawList list = new DrawList(screen, 16);
+        // No frame-time cap, so the particle load does not depend on how slow the device is.
+        ParticleSystem particles = new ParticleSystem(QualityPreset.HIGH.getParticleBudget(), Float.MAX_VALUE);
+        char[] hud = "Score: 0".toCharArray();
+
+        long deadline = SystemClock.uptimeMillis() + MAX_RUN_MS;
+        for (int i = 0; i < FRAMES && SystemClock.uptimeMillis() < deadline; i++) {
+            long start = System.nanoTime();
+            background.update(GameThread.TICK_MS);
+            if (i % 4 == 0) particles.emitShieldPickup(w / 2f, h / 2f);
+            particles.update();
+            long updated = System.nanoTime();
+
+            background.draw(list);
+            int x = w - (i * 30) % (w + OBSTACLE_SIZE);
+            list.add(DrawList.LAYER_OBSTACLE, obstacle, null, x, obstacleTop, x + OBSTACLE_SIZE,
+                    obstacleTop + OBSTACLE_SIZE, Paints.NONE);
+            long collected = System.nanoTime();
+
+            if (!background.isOpaque()) renderer.drawColor(Color.WHITE);
+            list.flush(renderer);
+            particles.draw(renderer);
+            renderer.drawText(hud, 0, hud.length, w / 2f, 100, HUD_PAINT);
+            long drawn = System.nanoTime();
+
+            update.record(updated - start);
+            collect.record(collected - updated);
+            draw.record(drawn - collected);
+            frame.record(drawn - start);
+        }
+        headroomBytes = headroom(activities);
+
+        if (far != null) far.recycle();
+        if (close != null) close.recycle();
+        target.recycle();
+    }
+
+    // Bitmaps live on the Java heap before API 26 and in native memory after, so both count
+    // against the memory class.
+    private static long headroom(ActivityManager activities) {
+        Runtime rt = Runtime.getRuntime();
+        long used = rt.totalMemory() - rt.freeMemory() + Debug.getNativeHeapAllocatedSize();
+        if (activities == null) return rt.maxMemory() - used;
+        ActivityManager.MemoryInfo memory = new ActivityManager.MemoryInfo();
+        activities.getMemoryInfo(memory);
+        return Math.min(activities.getMemoryClass() * MB - used, memory.availMem - memory.threshold);
+    }
+
+    String summary() {
+        return "frames " + frame.getCount()
+                + " frame p50 " + millis(frame.percentile(50)) + " p90 " + millis(frame.percentile(90))
+                + " (update p90 " + millis(update.percentile(90))
+                + " collect p90 " + millis(collect.percentile(90))
+                + " draw p90 " + millis(draw.percentile(90))
+                + ") headroom " + headroomBytes / MB + "MB";
+    }
+
+    private static String millis(long nanos) {
+        return (nanos / 100000) / 10.0 + "ms";
+    }
+}
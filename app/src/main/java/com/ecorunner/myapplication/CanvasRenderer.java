@@ -0,0 +1,97 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+
+import java.util.Arrays;
+
+// The production Renderer: draws straight to the Canvas of the frame being built.
+public class CanvasRenderer implements Renderer {
+    private Canvas canvas;
+    private Paint[] paints = new Paint[16];
+    private final Rect src = new Rect();
+    private final Rect dst = new Rect();
+    private final RectF box = new RectF();
+
+    // Call with each locked canvas before drawing into it.
+    public void begin(Canvas canvas) {
+        this.canvas = canvas;
+    }
+
+    private Paint paint(int id) {
+        if (id == Paints.NONE) return null;
+        if (id >= paints.length) paints = Arrays.copyOf(paints, Math.max(id + 1, paints.length * 2));
+        Paint p = paints[id];
+        if (p == null) {
+            p = new Paint();
+            int flags = Paints.flags(id);
+            p.setColor(Paints.color(id));
+            if (Paints.textSize(id) > 0) p.setTextSize(Paints.textSize(id));
+            p.setTextAlign((flags & Paints.CENTER) != 0 ? Paint.Align.CENTER : Paint.Align.LEFT);
+            if ((flags & Paints.BOLD) != 0) p.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD));
+            if ((flags & Paints.STROKE) != 0) p.setStyle(Paint.Style.STROKE);
+            if ((flags & Paints.ROUND_CAP) != 0) p.setStrokeCap(Paint.Cap.ROUND);
+            if ((flags & Paints.ANTI_ALIAS) != 0) p.setAntiAlias(true);
+            p.setStrokeWidth(Paints.strokeWidth(id));
+            paints[id] = p;
+        }
+        return p;
+    }
+
+    @Override
+    public void drawColor(int color) {
+        canvas.drawColor(color);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, int srcLeft, int srcTop, int srcRight, int srcBottom,
+                           int left, int top, int right, int bottom, int paint) {
+        dst.set(left, top, right, bottom);
+        if (srcLeft == WHOLE) {
+            canvas.drawBitmap(bitmap, null, dst, paint(paint));
+        } else {
+            src.set(srcLeft, srcTop, srcRight, srcBottom);
+            canvas.drawBitmap(bitmap, src, dst, paint(paint));
+        }
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, int paint) {
+        canvas.drawRect(left, top, right, bottom, paint(paint));
+    }
+
+    @Override
+    public void drawRoundRect(float left, float top, float right, float bottom, float radius, int paint) {
+        box.set(left, top, right, bottom);
+        canvas.drawRoundRect(box, radius, radius, paint(paint));
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, int paint) {
+        canvas.drawCircle(cx, cy, radius, paint(paint));
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, int paint) {
+        canvas.drawLine(startX, startY, stopX, stopY, paint(paint));
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, int paint) {
+        canvas.drawText(text, x, y, paint(paint));
+    }
+
+    @Override
+    public void drawText(char[] text, int start, int count, float x, float y, int paint) {
+        canvas.drawText(text, start, count, x, y, paint(paint));
+    }
+
+    @Override
+    public void drawPoints(float[] points, int offset, int count, int paint) {
+        canvas.drawPoints(points, offset, count, paint(paint));
+    }
+}
@@ -0,0 +1,90 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Bitmap;
+
+// Which pixels of a sprite's art are solid, at the size the sprite is drawn. Rows are packed
+// 64 pixels to a long (bit i of a word is column i), so two masks are compared a word at a
+// time. Built once per asset and size; Assets keeps them next to the decoded bitmaps.
+public class CollisionMask {
+    // Pixels at least this opaque count as solid.
+    public static final int ALPHA_THRESHOLD = 128;
+
+    public final int width;
+    public final int height;
+    private final int stride; // Longs per row.
+    private final long[] bits;
+
+    CollisionMask(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.stride = (width + 63) >>> 6;
+        this.bits = new long[stride * height];
+    }
+
+    // Samples the bitmap's alpha at width x height (nearest neighbour, as it is drawn stretched).
+    public static CollisionMask fromBitmap(Bitmap bmp, int width, int height) {
+        int srcW = bmp.getWidth();
+        int srcH = bmp.getHeight();
+        int[] argb = new int[srcW * srcH];
+        bmp.getPixels(argb, 0, srcW, 0, 0, srcW, srcH);
+        return fromArgb(argb, srcW, srcH, width, height);
+    }
+
+    static CollisionMask fromArgb(int[] argb, int srcW, int srcH, int width, int height) {
+        CollisionMask mask = new CollisionMask(width, height);
+        for (int y = 0; y < height; y++) {
+            int row = (int) ((long) y * srcH / height) * srcW;
+            int base = y * mask.stride;
+            for (int x = 0; x < width; x++) {
+                int alpha = argb[row + (int) ((long) x * srcW / width)] >>> 24;
+                if (alpha >= ALPHA_THRESHOLD) mask.bits[base + (x >>> 6)] |= 1L << (x & 63);
+            }
+        }
+        return mask;
+    }
+
+    public boolean isSolid(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return false;
+        return (bits[y * stride + (x >>> 6)] & (1L << (x & 63))) != 0;
+    }
+
+    // The 64 pixels of row y starting at column x (x >= 0); columns past the edge read as empty.
+    private long word(int y, int x) {
+        if (y >= height) return 0;
+        int w = x >>> 6;
+        int shift = x & 63;
+        int base = y * stride;
+        if (w >= stride) return 0;
+        long word = bits[base + w] >>> shift;
+        if (shift != 0 && w + 1 < stride) word |= bits[base + w + 1] << (64 - shift);
+        return word;
+    }
+
+    // Narrow phase: whether the solid pixels of a drawn at (ax, ay) and b drawn at (bx, by)
+    // overlap. A null mask stands for a fully solid box of the given size.
+    public static boolean overlaps(CollisionMask a, int ax, int ay, int aw, int ah,
+                                   CollisionMask b, int bx, int by, int bw, int bh) {
+        int left = Math.max(ax, bx);
+        int right = Math.min(ax + aw, bx + bw);
+        int top = Math.max(ay, by);
+        int bottom = Math.min(ay + ah, by + bh);
+        if (left >= right || top >= bottom) return false;
+        if (a == null && b == null) return true;
+        for (int y = top; y < bottom; y++) {
+            for (int x = left; x < right; x += 64) {
+                int n = Math.min(64, right - x);
+                long span = n == 64 ? -1L : (1L << n) - 1;
+                long wa = a == null ? -1L : a.word(y - ay, x - ax);
+                long wb = b == null ? -1L : b.word(y - by, x - bx);
+                if ((wa & wb & span) != 0) return true;
+            }
+        }
+        return false;
+    }
+
+    public int countSolid() {
+        int n = 0;
+        for (long word : bits) n += Long.bitCount(word);
+        return n;
+    }
+}
@@ -0,0 +1,44 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Color;
+
+// Debug text drawn over the game. Lines are rebuilt at most every REFRESH_MS so the overlay
+// itself does not allocate strings every frame.
+public class DebugOverlay {
+    private static final long REFRESH_MS = 500;
+    private static final int MAX_LINES = 12;
+    private static final int TEXT_PAINT = Paints.text(Color.YELLOW, 28, Paints.NONE);
+    private static final int BACK_PAINT = Paints.fill(Color.argb(150, 0, 0, 0));
+
+    private final String[] lines = new String[MAX_LINES];
+    private int lineCount = 0;
+    private long lastRefresh = 0;
+    private final float lineHeight;
+
+    public DebugOverlay() {
+        lineHeight = 34;
+    }
+
+    // True when the lines are due for a rebuild; the caller then calls clear() and addLine().
+    public boolean needsRefresh(long nowMs) {
+        if (nowMs - lastRefresh < REFRESH_MS) return false;
+        lastRefresh = nowMs;
+        return true;
+    }
+
+    public void clear() {
+        lineCount = 0;
+    }
+
+    public void addLine(String line) {
+        if (lineCount < MAX_LINES) lines[lineCount++] = line;
+    }
+
+    public void draw(Renderer renderer, float left, float top) {
+        if (lineCount == 0) return;
+        renderer.drawRect(left - 10, top - lineHeight, left + 620, top + lineHeight * (lineCount - 1) + 12, BACK_PAINT);
+        for (int i = 0; i < lineCount; i++) {
+            renderer.drawText(lines[i], left, top + i * lineHeight, TEXT_PAINT);
+        }
+    }
+}
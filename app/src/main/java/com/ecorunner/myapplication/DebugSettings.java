@@ -0,0 +1,68 @@
+package com.ecorunner.myapplication;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.ApplicationInfo;
+
+// Developer toggles, persisted so they survive restarts.
+public class DebugSettings {
+    private static final String PREFS = "debug_settings";
+    private static final String KEY_OVERLAY = "overlay";
+    private static final String KEY_PIXEL_COLLISIONS = "pixel_collisions";
+    private static final String KEY_AUTOPLAY = "autoplay";
+    private static final String KEY_WATCHDOG = "stall_watchdog";
+    private static final String KEY_QUALITY = "quality";
+
+    private final SharedPreferences prefs;
+    private final boolean debuggable; // A debug build; decides the defaults of diagnostics.
+
+    public DebugSettings(Context context) {
+        prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        debuggable = (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+    }
+
+    public boolean isOverlayEnabled() {
+        return prefs.getBoolean(KEY_OVERLAY, false);
+    }
+
+    public void setOverlayEnabled(boolean enabled) {
+        prefs.edit().putBoolean(KEY_OVERLAY, enabled).apply();
+    }
+
+    // Narrow-phase collisions against the obstacle art's alpha; off falls back to hitboxes only.
+    public boolean isPixelCollisionsEnabled() {
+        return prefs.getBoolean(KEY_PIXEL_COLLISIONS, true);
+    }
+
+    public void setPixelCollisionsEnabled(boolean enabled) {
+        prefs.edit().putBoolean(KEY_PIXEL_COLLISIONS, enabled).apply();
+    }
+
+    // The AutoPilot plays instead of touches and the game moves through levels on its own.
+    public boolean isAutoplayEnabled() {
+        return prefs.getBoolean(KEY_AUTOPLAY, false);
+    }
+
+    public void setAutoplayEnabled(boolean enabled) {
+        prefs.edit().putBoolean(KEY_AUTOPLAY, enabled).apply();
+    }
+
+    // Reports game-thread stalls and blocking calls on the game and UI threads to the log. On by
+    // default in debug builds only; the setting overrides either way.
+    public boolean isWatchdogEnabled() {
+        return prefs.getBoolean(KEY_WATCHDOG, debuggable);
+    }
+
+    public void setWatchdogEnabled(boolean enabled) {
+        prefs.edit().putBoolean(KEY_WATCHDOG, enabled).apply();
+    }
+
+    // A QualityPreset name to use instead of the calibrated one, or null to use calibration.
+    public String getQualityOverride() {
+        return prefs.getString(KEY_QUALITY, null);
+    }
+
+    public void setQualityOverride(String preset) {
+        prefs.edit().putString(KEY_QUALITY, preset).apply();
+    }
+}
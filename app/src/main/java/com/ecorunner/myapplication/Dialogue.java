@@ -1,31 +1,47 @@
 package com.ecorunner.myapplication;
 
 import android.content.Context;
-import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Paint;
 import android.graphics.Rect;
-import android.graphics.RectF;
-import android.graphics.Typeface;
 import android.view.MotionEvent;
 
 public class Dialogue {
+    private static final int BUBBLE_PAINT = Paints.fill(Color.WHITE);
+    private static final int TEXT_PAINT = Paints.text(Color.BLACK, 40, Paints.BOLD | Paints.CENTER);
+    private static final int CIRCLE_PAINT = Paints.fill(Color.GREEN);
+    private static final int COUNTDOWN_PAINT = Paints.text(Color.WHITE, 60, Paints.BOLD | Paints.CENTER);
+    private static final int CIRCLE_RADIUS = 70;  // Bigger circle.
+    // Half the cap height of the countdown font, to centre the number in the circle.
+    private static final float COUNTDOWN_OFFSET = 0.35f * 60;
+
     private Rect bubbleRect;
     private Rect screenRect;  // The full-screen rectangle.
     private long countdown;   // in milliseconds
+    private final TimerWheel timers;
+    private int countdownTimer = TimerWheel.NONE;
     private String line1;
     private String line2;
     private Context context;
-    private boolean started = false; // Countdown begins when tapped
+    private volatile boolean started = false; // Countdown begins when tapped
+    private boolean finished = false;
+    private final TimerWheel.Callback countdownOver = () -> finished = true;
+    private final String upper1;
+    private final String upper2;
+    private int shownSeconds = -1;
+    private String secondsText;
 
     // Constructor now takes the full-screen rectangle as well.
-    public Dialogue(Context context, Rect bubbleRect, Rect screenRect, long countdown, String line1, String line2) {
+    public Dialogue(Context context, TimerWheel timers, Rect bubbleRect, Rect screenRect, long countdown,
+                    String line1, String line2) {
         this.context = context;
+        this.timers = timers;
         this.bubbleRect = bubbleRect;
         this.screenRect = screenRect;
         this.countdown = countdown;
         this.line1 = line1;
         this.line2 = line2;
+        this.upper1 = line1.toUpperCase();
+        this.upper2 = line2.toUpperCase();
     }
 
     // Call this method when the dialogue bubble is tapped.
@@ -33,60 +49,52 @@ public class Dialogue {
         started = true;
     }
 
-    public long getCountdown() {
-        return countdown;
+    // Game thread: arms the countdown on the first tick after the tap. Its timer ends the
+    // dialogue; getCountdown() only reads what is left for the number on screen.
+    public void update() {
+        if (started && countdownTimer == TimerWheel.NONE) {
+            countdownTimer = timers.schedule(countdown, countdownOver);
+        }
     }
 
-    public void update(long elapsed) {
-        if (started) {
-            countdown -= elapsed;
-            if (countdown < 0) {
-                countdown = 0;
-            }
-        }
+    // True once the countdown has run out.
+    public boolean isFinished() {
+        return finished;
     }
 
-    public void draw(Canvas canvas) {
+    // Milliseconds left, counting down on game time once the bubble has been tapped.
+    public long getCountdown() {
+        return countdownTimer == TimerWheel.NONE ? countdown : timers.remainingMs(countdownTimer);
+    }
+
+    public void draw(Renderer renderer) {
         // If countdown is finished, vanish the dialogue abruptly.
-        if (countdown <= 0) {
+        if (finished) {
             return;
         }
+        long remaining = getCountdown();
 
         // Draw a rounded rectangle as the dialogue bubble background with smooth (rounded) corners.
-        Paint bubbleBg = new Paint();
-        bubbleBg.setColor(Color.WHITE);
-        RectF bubbleRectF = new RectF(bubbleRect);
-        canvas.drawRoundRect(bubbleRectF, 20, 20, bubbleBg);
+        renderer.drawRoundRect(bubbleRect.left, bubbleRect.top, bubbleRect.right, bubbleRect.bottom, 20, BUBBLE_PAINT);
 
         // Draw dialogue text in bold, capitalized, and black.
-        Paint dialoguePaint = new Paint();
-        dialoguePaint.setColor(Color.BLACK);
-        dialoguePaint.setTextSize(40);
-        dialoguePaint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD));
-        dialoguePaint.setTextAlign(Paint.Align.CENTER);
         int bubbleCenterX = bubbleRect.centerX();
         int bubbleCenterY = bubbleRect.centerY();
-        canvas.drawText(line1.toUpperCase(), bubbleCenterX, bubbleCenterY - 30, dialoguePaint);
-        canvas.drawText(line2.toUpperCase(), bubbleCenterX, bubbleCenterY + 10, dialoguePaint);
+        renderer.drawText(upper1, bubbleCenterX, bubbleCenterY - 30, TEXT_PAINT);
+        renderer.drawText(upper2, bubbleCenterX, bubbleCenterY + 10, TEXT_PAINT);
 
         // Draw a larger countdown circle at the center of the screen.
-        Paint circlePaint = new Paint();
-        circlePaint.setColor(Color.GREEN);
         int circleX = screenRect.centerX();
         int circleY = screenRect.centerY();
-        int circleRadius = 70;  // Bigger circle.
-        canvas.drawCircle(circleX, circleY, circleRadius, circlePaint);
+        renderer.drawCircle(circleX, circleY, CIRCLE_RADIUS, CIRCLE_PAINT);
 
-        // Draw the countdown number centered inside the circle.
-        Paint countdownPaint = new Paint();
-        countdownPaint.setColor(Color.WHITE);
-        countdownPaint.setTextSize(60);  // Larger font.
-        countdownPaint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD));
-        countdownPaint.setTextAlign(Paint.Align.CENTER);
-        Paint.FontMetrics fm = countdownPaint.getFontMetrics();
-        float textOffset = (fm.ascent + fm.descent) / 2;
-        int secondsLeft = (int) Math.ceil(countdown / 1000.0);
-        canvas.drawText(String.valueOf(secondsLeft), circleX, circleY - textOffset, countdownPaint);
+        // Draw the countdown number centered inside the circle; the string only changes once a second.
+        int secondsLeft = (int) Math.ceil(remaining / 1000.0);
+        if (secondsLeft != shownSeconds) {
+            shownSeconds = secondsLeft;
+            secondsText = String.valueOf(secondsLeft);
+        }
+        renderer.drawText(secondsText, circleX, circleY + COUNTDOWN_OFFSET, COUNTDOWN_PAINT);
     }
 
     // Process touch events: if the bubble is tapped, start the countdown.
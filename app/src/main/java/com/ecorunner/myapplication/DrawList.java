@@ -0,0 +1,144 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+// Bitmap draws for one frame, collected from the background layers and entities and then
+// drawn in one pass. Draws that miss the viewport are dropped when added. flush() orders
+// the rest by layer (back to front), then by bitmap so repeated art is drawn back to back,
+// then by the order they were added. Storage is reused from frame to frame.
+public class DrawList {
+    // Background layers use LAYER_BACKGROUND plus their index, back to front.
+    public static final int LAYER_BACKGROUND = 0;
+    public static final int LAYER_OBSTACLE = 10;
+    public static final int LAYER_GHOST = 11;
+    public static final int LAYER_PLAYER = 12;
+    public static final int LAYER_PLAYER_EFFECT = 13;
+
+    private final Rect viewport;
+    private int count = 0;
+    private int culled = 0;
+    private int lastDrawn = 0;
+    private int lastCulled = 0;
+
+    private int[] layer;
+    private int[] bitmapKey;
+    private int[] order;
+    private Bitmap[] bitmap;
+    private Rect[] src;
+    private int[] paint;
+    private int[] left, top, right, bottom;
+
+    public DrawList(Rect viewport, int capacity) {
+        this.viewport = viewport;
+        allocate(capacity);
+    }
+
+    // Queues a draw of bmp (or its src region) into the given box with Paints id p. Returns
+    // false if culled.
+    public boolean add(int z, Bitmap bmp, Rect srcRect, int l, int t, int r, int b, int p) {
+        if (bmp == null) return false;
+        if (r <= viewport.left || l >= viewport.right || b <= viewport.top || t >= viewport.bottom) {
+            culled++;
+            return false;
+        }
+        if (count == layer.length) grow();
+        layer[count] = z;
+        bitmapKey[count] = System.identityHashCode(bmp);
+        bitmap[count] = bmp;
+        src[count] = srcRect;
+        paint[count] = p;
+        left[count] = l;
+        top[count] = t;
+        right[count] = r;
+        bottom[count] = b;
+        order[count] = count;
+        count++;
+        return true;
+    }
+
+    // Draws everything queued this frame and empties the list. Returns the number drawn.
+    public int flush(Renderer renderer) {
+        sort();
+        for (int k = 0; k < count; k++) {
+            int i = order[k];
+            Rect s = src[i];
+            if (s == null) {
+                renderer.drawBitmap(bitmap[i], Renderer.WHOLE, 0, 0, 0, left[i], top[i], right[i], bottom[i], paint[i]);
+            } else {
+                renderer.drawBitmap(bitmap[i], s.left, s.top, s.right, s.bottom,
+                        left[i], top[i], right[i], bottom[i], paint[i]);
+            }
+        }
+        lastDrawn = count;
+        lastCulled = culled;
+        // Drop references so released bitmaps are not kept alive by the list.
+        for (int i = 0; i < count; i++) {
+            bitmap[i] = null;
+            src[i] = null;
+        }
+        count = 0;
+        culled = 0;
+        return lastDrawn;
+    }
+
+    public int getDrawnCount() {
+        return lastDrawn;
+    }
+
+    public int getCulledCount() {
+        return lastCulled;
+    }
+
+    // Insertion sort: a frame has a handful of draws, mostly already in order.
+    private void sort() {
+        for (int k = 1; k < count; k++) {
+            int item = order[k];
+            int j = k - 1;
+            while (j >= 0 && before(item, order[j])) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = item;
+        }
+    }
+
+    private boolean before(int a, int b) {
+        if (layer[a] != layer[b]) return layer[a] < layer[b];
+        if (bitmapKey[a] != bitmapKey[b]) return bitmapKey[a] < bitmapKey[b];
+        return a < b;
+    }
+
+    private void allocate(int capacity) {
+        layer = new int[capacity];
+        bitmapKey = new int[capacity];
+        order = new int[capacity];
+        bitmap = new Bitmap[capacity];
+        src = new Rect[capacity];
+        paint = new int[capacity];
+        left = new int[capacity];
+        top = new int[capacity];
+        right = new int[capacity];
+        bottom = new int[capacity];
+    }
+
+    private void grow() {
+        int n = count;
+        int[] oldLayer = layer, oldKey = bitmapKey, oldOrder = order;
+        Bitmap[] oldBitmap = bitmap;
+        Rect[] oldSrc = src;
+        int[] oldPaint = paint;
+        int[] oldLeft = left, oldTop = top, oldRight = right, oldBottom = bottom;
+        allocate(n * 2);
+        System.arraycopy(oldLayer, 0, layer, 0, n);
+        System.arraycopy(oldKey, 0, bitmapKey, 0, n);
+        System.arraycopy(oldOrder, 0, order, 0, n);
+        System.arraycopy(oldBitmap, 0, bitmap, 0, n);
+        System.arraycopy(oldSrc, 0, src, 0, n);
+        System.arraycopy(oldPaint, 0, paint, 0, n);
+        System.arraycopy(oldLeft, 0, left, 0, n);
+        System.arraycopy(oldTop, 0, top, 0, n);
+        System.arraycopy(oldRight, 0, right, 0, n);
+        System.arraycopy(oldBottom, 0, bottom, 0, n);
+    }
+}
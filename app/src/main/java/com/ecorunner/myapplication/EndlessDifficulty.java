@@ -0,0 +1,56 @@
+package com.ecorunner.myapplication;
+
+// Difficulty curve for endless mode. Everything is a closed-form function of the score, clamped
+// to a ceiling, so no speed or density state accumulates however long a session runs.
+public class EndlessDifficulty {
+    public static final int LEVEL_COUNT = 9;
+    public static final int ROUND_POINTS = 20;      // Points before the scenery rotates to the next level.
+    private static final int POINTS_PER_STEP = 5;   // Points per difficulty step.
+    private static final int MAX_STEPS = 30;
+
+    private static final float START_BACKGROUND_SPEED = 10;
+    private static final float BACKGROUND_SPEED_STEP = 1;
+    private static final float START_OBSTACLE_SPEED = -30;
+    private static final float OBSTACLE_SPEED_STEP = -1.5f;
+    private static final int START_SPAWN_DELAY_TICKS = 45;
+    private static final int SPAWN_DELAY_STEP_TICKS = 3;
+
+    private int step = 0;
+    private int level = 1;
+    private float backgroundSpeed = START_BACKGROUND_SPEED;
+    private float obstacleSpeed = START_OBSTACLE_SPEED;
+    private int spawnDelayTicks = START_SPAWN_DELAY_TICKS;
+
+    public void setScore(int score) {
+        step = Math.min(score / POINTS_PER_STEP, MAX_STEPS);
+        level = (score / ROUND_POINTS) % LEVEL_COUNT + 1;
+        backgroundSpeed = START_BACKGROUND_SPEED + step * BACKGROUND_SPEED_STEP;
+        obstacleSpeed = START_OBSTACLE_SPEED + step * OBSTACLE_SPEED_STEP;
+        spawnDelayTicks = Math.max(0, START_SPAWN_DELAY_TICKS - step * SPAWN_DELAY_STEP_TICKS);
+    }
+
+    public int getStep() {
+        return step;
+    }
+
+    // Level whose scenery and obstacle table are in use.
+    public int getLevel() {
+        return level;
+    }
+
+    public static int levelAfter(int level) {
+        return level % LEVEL_COUNT + 1;
+    }
+
+    public float getBackgroundSpeed() {
+        return backgroundSpeed;
+    }
+
+    public float getObstacleSpeed() {
+        return obstacleSpeed;
+    }
+
+    public int getSpawnDelayTicks() {
+        return spawnDelayTicks;
+    }
+}
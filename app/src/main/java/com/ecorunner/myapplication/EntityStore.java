@@ -0,0 +1,173 @@
+package com.ecorunner.myapplication;
+
+import java.util.Arrays;
+
+// Physics state for every sprite, kept in parallel primitive arrays indexed by entity id.
+// Sprite, Vehicle and Player are thin handles holding an id into their game's store, so an
+// update pass walks a few dense arrays instead of chasing one object (and Rect) per sprite.
+// Each Game owns one store and only touches it from the game thread, so nothing is locked.
+public class EntityStore {
+    public static final double GRAV = 4;
+
+    private int capacity;
+    private int highWater = 0; // Ids at or above this have never been handed out.
+    private int activeCount = 0;
+    private int[] freeIds;
+    private int freeCount = 0;
+
+    private boolean[] alive;
+    private boolean[] gravity;
+    private double[] x, y, vx, vy, ax, ay;
+    private int[] width, height;
+    // Integer hitbox (left, top, right, bottom), rebuilt whenever the position changes.
+    private int[] left, top, right, bottom;
+
+    public EntityStore(int capacity) {
+        this.capacity = capacity;
+        freeIds = new int[capacity];
+        alive = new boolean[capacity];
+        gravity = new boolean[capacity];
+        x = new double[capacity];
+        y = new double[capacity];
+        vx = new double[capacity];
+        vy = new double[capacity];
+        ax = new double[capacity];
+        ay = new double[capacity];
+        width = new int[capacity];
+        height = new int[capacity];
+        left = new int[capacity];
+        top = new int[capacity];
+        right = new int[capacity];
+        bottom = new int[capacity];
+    }
+
+    public int create(double px, double py, int w, int h) {
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            if (highWater == capacity) grow();
+            id = highWater++;
+        }
+        alive[id] = true;
+        gravity[id] = false;
+        vx[id] = vy[id] = ax[id] = ay[id] = 0;
+        width[id] = w;
+        height[id] = h;
+        setPosition(id, px, py);
+        activeCount++;
+        return id;
+    }
+
+    public void release(int id) {
+        if (!alive[id]) return;
+        alive[id] = false;
+        freeIds[freeCount++] = id;
+        activeCount--;
+    }
+
+    private void grow() {
+        capacity *= 2;
+        freeIds = Arrays.copyOf(freeIds, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+        gravity = Arrays.copyOf(gravity, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        ax = Arrays.copyOf(ax, capacity);
+        ay = Arrays.copyOf(ay, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        left = Arrays.copyOf(left, capacity);
+        top = Arrays.copyOf(top, capacity);
+        right = Arrays.copyOf(right, capacity);
+        bottom = Arrays.copyOf(bottom, capacity);
+    }
+
+    // One step of the sprite physics: acceleration, gravity, then position.
+    public void integrate(int id) {
+        vx[id] += ax[id];
+        vy[id] += ay[id];
+        if (gravity[id]) vy[id] += GRAV;
+        setPosition(id, x[id] + vx[id], y[id] + vy[id]);
+    }
+
+    // Same step for every live entity, in one pass over the arrays.
+    public void integrateAll() {
+        for (int id = 0; id < highWater; id++) {
+            if (!alive[id]) continue;
+            double nvy = vy[id] + ay[id];
+            if (gravity[id]) nvy += GRAV;
+            double nvx = vx[id] + ax[id];
+            vx[id] = nvx;
+            vy[id] = nvy;
+            double nx = x[id] + nvx;
+            double ny = y[id] + nvy;
+            x[id] = nx;
+            y[id] = ny;
+            left[id] = (int) nx;
+            top[id] = (int) ny;
+            right[id] = (int) nx + width[id];
+            bottom[id] = (int) ny + height[id];
+        }
+    }
+
+    public void setPosition(int id, double px, double py) {
+        x[id] = px;
+        y[id] = py;
+        left[id] = (int) px;
+        top[id] = (int) py;
+        right[id] = (int) px + width[id];
+        bottom[id] = (int) py + height[id];
+    }
+
+    // Same test as Rect.intersects on the two hitboxes.
+    public boolean intersects(int a, int b) {
+        return left[a] < right[b] && left[b] < right[a] && top[a] < bottom[b] && top[b] < bottom[a];
+    }
+
+    public double getX(int id) { return x[id]; }
+
+    public double getY(int id) { return y[id]; }
+
+    public void setX(int id, double px) { setPosition(id, px, y[id]); }
+
+    public void setY(int id, double py) { setPosition(id, x[id], py); }
+
+    public double getVx(int id) { return vx[id]; }
+
+    public double getVy(int id) { return vy[id]; }
+
+    public void setVelocity(int id, double nvx, double nvy) {
+        vx[id] = nvx;
+        vy[id] = nvy;
+    }
+
+    public void setVx(int id, double nvx) { vx[id] = nvx; }
+
+    public void setVy(int id, double nvy) { vy[id] = nvy; }
+
+    public void setAcceleration(int id, double nax, double nay) {
+        ax[id] = nax;
+        ay[id] = nay;
+    }
+
+    public void setGravity(int id, boolean on) { gravity[id] = on; }
+
+    public int getWidth(int id) { return width[id]; }
+
+    public int getHeight(int id) { return height[id]; }
+
+    public int getLeft(int id) { return left[id]; }
+
+    public int getTop(int id) { return top[id]; }
+
+    public int getRight(int id) { return right[id]; }
+
+    public int getBottom(int id) { return bottom[id]; }
+
+    public boolean isAlive(int id) { return id < highWater && alive[id]; }
+
+    public int getActiveCount() { return activeCount; }
+}
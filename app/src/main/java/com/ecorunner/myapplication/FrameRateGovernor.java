@@ -0,0 +1,168 @@
+package com.ecorunner.myapplication;
+
+import android.os.PowerManager;
+
+import java.util.Arrays;
+
+// Picks the frame rate GameThread paces to, and asks the display for it:
+// - the display's top rate (or the quality preset's, if lower) while RUNNING, LOW_FPS on the
+//   level select, dialogue and end screens;
+// - capped while the device reports thermal pressure (moderate: 60, severe or worse: LOW_FPS);
+// - one rung down the display's rates when frames keep running over budget, and back up
+//   after a long stretch with plenty of headroom.
+// The simulation stays on GameThread's fixed tick whatever the rate. Decisions go to Metrics.
+public class FrameRateGovernor {
+    public interface Display {
+        // Called on the game thread whenever the target changes.
+        void requestFrameRate(int fps);
+    }
+
+    public static final int LOW_FPS = 30;
+    private static final int THERMAL_MODERATE_FPS = 60;
+
+    // Work (update + draw) is judged over windows of WINDOW_FRAMES frames. A window is over
+    // budget if more than a quarter of its frames used over OVER_BUDGET of the frame time.
+    private static final int WINDOW_FRAMES = 60;
+    private static final float OVER_BUDGET = 0.9f;
+    private static final int OVER_WINDOWS_TO_STEP_DOWN = 2;
+    // Stepping back up needs every frame in RECOVER_WINDOWS windows under RECOVER_BUDGET of
+    // the higher rate's frame time.
+    private static final float RECOVER_BUDGET = 0.6f;
+    private static final int RECOVER_WINDOWS = 10;
+
+    private final int[] ladder; // Rates to choose from, highest first, ending at LOW_FPS.
+    private final Metrics metrics;
+    private final Display display;
+
+    private volatile int thermalStatus = PowerManager.THERMAL_STATUS_NONE;
+    private int topStep = 0; // First rung the quality preset allows.
+    private int step = 0; // Current rung: topStep plus any taken for frame-time reasons.
+    private int target = 0;
+
+    private int windowFrames = 0;
+    private int overFrames = 0;
+    private long worstWorkNanos = 0;
+    private int overWindows = 0;
+    private int recoverWindows = 0;
+
+    public FrameRateGovernor(float[] displayRates, Metrics metrics, Display display) {
+        this.ladder = ladder(displayRates);
+        this.metrics = metrics;
+        this.display = display;
+    }
+
+    // Distinct rates at or above LOW_FPS, highest first, always including LOW_FPS.
+    static int[] ladder(float[] displayRates) {
+        int[] rates = new int[displayRates.length + 1];
+        int n = 0;
+        rates[n++] = LOW_FPS;
+        for (float r : displayRates) {
+            int fps = Math.round(r);
+            if (fps < LOW_FPS) continue;
+            boolean seen = false;
+            for (int i = 0; i < n; i++) seen |= rates[i] == fps;
+            if (!seen) rates[n++] = fps;
+        }
+        rates = Arrays.copyOf(rates, n);
+        Arrays.sort(rates);
+        for (int i = 0; i < n / 2; i++) {
+            int t = rates[i];
+            rates[i] = rates[n - 1 - i];
+            rates[n - 1 - i] = t;
+        }
+        return rates;
+    }
+
+    // Game thread: the quality preset's ceiling, or 0 for none. Rates still come from the ladder.
+    public void setMaxFps(int fps) {
+        topStep = fps > 0 ? firstRungAtOrBelow(fps) : 0;
+        step = Math.max(step, topStep);
+    }
+
+    // Any thread, e.g. from PowerManager's thermal listener.
+    public void setThermalStatus(int status) {
+        thermalStatus = status;
+    }
+
+    // Game thread, once per frame with the time spent updating and drawing it. Returns the
+    // frame rate to pace the next frame at.
+    public int onFrame(Game.GameState state, long workNanos, long nowMs) {
+        boolean running = state == Game.GameState.RUNNING;
+        if (running) {
+            judge(workNanos);
+        } else {
+            startWindow();
+            overWindows = 0;
+            recoverWindows = 0;
+        }
+
+        int fps = running ? ladder[step] : LOW_FPS;
+        int cap = thermalCap();
+        boolean thermal = cap < fps;
+        if (thermal) fps = cap;
+        if (fps != target) {
+            String reason = thermal ? "thermal status " + thermalStatus
+                    : !running ? "idle screen"
+                    : step > topStep ? "frame budget" : "running";
+            target = fps;
+            display.requestFrameRate(fps);
+            metrics.onFrameRate(nowMs, fps, reason);
+        }
+        return target;
+    }
+
+    private void judge(long workNanos) {
+        long budget = 1_000_000_000L / ladder[step];
+        if (workNanos > budget * OVER_BUDGET) overFrames++;
+        worstWorkNanos = Math.max(worstWorkNanos, workNanos);
+        if (++windowFrames < WINDOW_FRAMES) return;
+
+        if (overFrames > WINDOW_FRAMES / 4) {
+            recoverWindows = 0;
+            if (++overWindows >= OVER_WINDOWS_TO_STEP_DOWN && step < ladder.length - 1) {
+                step++;
+                overWindows = 0;
+            }
+        } else {
+            overWindows = 0;
+            long higherBudget = step > topStep ? 1_000_000_000L / ladder[step - 1] : 0;
+            if (step > topStep && worstWorkNanos < higherBudget * RECOVER_BUDGET) {
+                if (++recoverWindows >= RECOVER_WINDOWS) {
+                    step--;
+                    recoverWindows = 0;
+                }
+            } else {
+                recoverWindows = 0;
+            }
+        }
+        startWindow();
+    }
+
+    private void startWindow() {
+        windowFrames = 0;
+        overFrames = 0;
+        worstWorkNanos = 0;
+    }
+
+    private int firstRungAtOrBelow(int fps) {
+        for (int i = 0; i < ladder.length; i++) {
+            if (ladder[i] <= fps) return i;
+        }
+        return ladder.length - 1;
+    }
+
+    private int thermalCap() {
+        int status = thermalStatus;
+        if (status >= PowerManager.THERMAL_STATUS_SEVERE) return LOW_FPS;
+        if (status >= PowerManager.THERMAL_STATUS_MODERATE) return THERMAL_MODERATE_FPS;
+        return Integer.MAX_VALUE;
+    }
+
+    public int getTarget() {
+        return target;
+    }
+
+    int[] getLadder() {
+        return ladder;
+    }
+}
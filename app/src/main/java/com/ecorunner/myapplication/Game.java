@@ -3,15 +3,25 @@ package com.ecorunner.myapplication;
 import android.content.Context;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Paint;
 import android.graphics.Rect;
 import android.graphics.Typeface;
+import android.util.Log;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class Game {
     public enum GameState { START, DIALOGUE, RUNNING, LEVEL_COMPLETE, LOST }
 
@@ -19,44 +29,118 @@ public class Game {
     private SurfaceHolder holder;
     private Rect screen;
     private Resources resources;
-    private GameState state = GameState.START;
+    private volatile GameState state = GameState.START;
 
+    // Physics state of this game's sprites. Only the game thread touches it.
+    private final EntityStore store = new EntityStore(8);
+    // The rules of the run: physics, jumps, spawns, scoring and the shield.
+    private Simulation sim;
     private Player player;
-    // Background layers.
-    private ScrollableBackground background_close, background_mid, background_far;
+    // Parallax background layers (far to close).
+    private ParallaxBackground background;
+    // This frame's bitmap draws, culled to the screen and sorted by layer.
+    private DrawList drawList;
+    private BackgroundCache backgroundCache;
     // Obstacle (via Vehicle class).
     private Vehicle obstacle;
     private Sprite loseText;
-    private Paint borderPaint = new Paint();
-    private BitmapFactory.Options options;
 
     // Level management.
     private int currentLevel = 1;
-    private int targetEcoPoints; // Points needed to complete the level.
+    // What this device can afford; MEDIUM until calibration has finished.
+    private QualityPreset quality = QualityPreset.MEDIUM;
+    // Set by the calibration thread, taken up by the game thread at the start of a tick.
+    private volatile QualityPreset calibrated;
     private String levelDescription; // e.g., "LEVEL 1: GREEN HOME".
 
-    // For speed increases.
-    private int speedIncrements = 0;
-    // Count obstacles evaded.
-    private int obstaclesEvadedCount = 0;
-    // ECO Shield spawn cooldown timer (ms).
-    private long ecoShieldSpawnCooldown = 0;
-
-    // ECO Shield bitmap and effect.
-    private Bitmap ecoshieldBmp;
+    // Endless mode: entered after level 9, cycles the level scenery while speeding up.
+    private boolean endless = false;
+    private EndlessDifficulty difficulty = new EndlessDifficulty();
+    private int endlessScore = -1;      // Score the difficulty was last computed for.
+    // Next round's scenery, decoded ahead on the warmer. Only the game thread looks at these;
+    // it takes the result once the round starts, or gives it back if the game moved on.
+    private Future<ParallaxBackground> nextBackground;
+    private int nextBackgroundLevel = 0;
+    private static final int PANORAMA_PREFETCH = 2; // Strips decoded past the right edge.
+    // Upcoming obstacles and the eco-shield spawn rules.
+    private SpawnScheduler spawner;
+    private ExecutorService assetWarmer;
+
+    // ECO Shield effect.
     private Bitmap shieldEffectBmp;
 
     // Level complete image.
     private Bitmap levelCompBmp;
     private Rect levelCompRect;
 
-    // Obstacle dimensions (fixed).
-    private final int obstacleWidth = 230;
-    private final int obstacleHeight = 230;
+    // Particle effects (shield pickup, collisions, obstacles breaking on the shield).
+    private static final int MAX_PARTICLES = 256;
+    // Game-time countdowns: the shield, the shield spawn cooldown and the dialogue countdown.
+    private static final int TIMER_TICK_MS = GameThread.TICK_MS;
+    private final TimerWheel timers = new TimerWheel(TIMER_TICK_MS, 64, 32);
+    private static final float PARTICLE_FRAME_CAP_MS = 2f;
+    private ParticleSystem particles;
+    private boolean obstacleDispersed = false;
+    // Test obstacle hits against the art's alpha once the hitboxes overlap.
+    private boolean pixelCollisions = true;
+
+    private SoundBoard sounds;
+
+    private static final int LEVEL_PAINT = Paints.text(Color.WHITE, 60, Paints.NONE);
+    // Draws each frame into the locked canvas; render() takes any Renderer.
+    private final CanvasRenderer renderer = new CanvasRenderer();
+
+    // Ghost of the best run on the current level, and the recording of this run.
+    private File ghostDir;
+    // A run with a jump every second or so records about 400 bytes a minute, so this holds well
+    // over an hour; a run that outlasts it is not kept as a ghost.
+    private static final int GHOST_BYTES = 32 * 1024;
+    private GhostRecorder ghostRecorder = new GhostRecorder(GHOST_BYTES);
+    private volatile Ghost ghost;
+    // The level's best run being read on the warmer; the game thread races it once it is in.
+    private Future<GhostFile> ghostLoad;
+    private float ghostX;
+    private int lastJumpCount = 0;
+    private long tickTime = 0; // Uptime of the current simulation tick.
+
+    // Jump latency measurement and the debug overlay that shows it (toggled by a two-finger tap).
+    private static final String TAG = "GAME";
+    private JumpLatencyTracker jumpLatency = new JumpLatencyTracker();
+    private DebugSettings debugSettings;
+    private DebugOverlay debugOverlay = new DebugOverlay();
+    private volatile boolean overlayEnabled;
+    private long lastDrawNanos = 0;
+    private Metrics metrics = new Metrics();
+
+    // Debug autoplay: the AutoPilot jumps, and end screens advance after a short pause.
+    private static final long AUTOPLAY_END_SCREEN_MS = 1000;
+    private AutoPilot autoPilot;
+    private long autoplayWait = 0;
+
+    // Level select screen shown in the START state.
+    private LevelThumbnails thumbnails;
+    private LevelSelect levelSelect;
+
+    // Level results queued for the online leaderboard; uploads happen in the background.
+    private static final long LEADERBOARD_BACKOFF_MS = 5000;
+    private LeaderboardSync leaderboard;
+
+    // Gameplay events (runs, deaths and what caused them, shields) for offline analysis.
+    private static final int TELEMETRY_EVENTS = 256;
+    private Telemetry telemetry;
+    private int runTicks = 0;
 
     // UI controls.
     private GameButtons gameButtons;
-    private boolean paused = false;
+    private volatile boolean paused = false;
+
+    // Level changes asked for by touches. onTouchEvent runs on the UI thread, so it only posts
+    // the request; the game thread sets the level up at the start of its next tick, and the
+    // store, timers and sprites are never touched from two threads. A level number, or:
+    private static final int NO_REQUEST = 0;
+    private static final int NEXT_LEVEL = -1;
+    private static final int RETRY_LEVEL = -2;
+    private final AtomicInteger levelRequest = new AtomicInteger(NO_REQUEST);
 
     // Dialogue for pre-level instructions.
     private Dialogue dialogue;
@@ -66,14 +150,49 @@ public class Game {
         this.screen = screen;
         this.holder = holder;
         this.resources = resources;
-        options = new BitmapFactory.Options();
-        options.inScaled = false;
-        ecoshieldBmp = BitmapFactory.decodeResource(resources, R.drawable.ecoshield, options);
-        shieldEffectBmp = BitmapFactory.decodeResource(resources, R.drawable.ecoshield_effect, options);
-        levelCompBmp = BitmapFactory.decodeResource(resources, R.drawable.levelcomp, options);
+        shieldEffectBmp = Assets.getUnscaled(resources, R.drawable.ecoshield_effect);
+        levelCompBmp = Assets.getUnscaled(resources, R.drawable.levelcomp);
+        // Decode queued obstacle art off the game thread before it is needed.
+        assetWarmer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "AssetWarmer");
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        // The game thread queues the spawns, so the collision setting is read there and handed
+        // to the task with the type.
+        spawner = new SpawnScheduler(new Random(), type -> {
+            final boolean masks = pixelCollisions;
+            assetWarmer.execute(() -> {
+                Assets.getUnscaled(resources, type);
+                if (masks) Assets.getMask(resources, type, Simulation.OBSTACLE_SIZE, Simulation.OBSTACLE_SIZE);
+            });
+        }, timers);
+        sim = new Simulation(screen.width(), screen.height(), store, timers, spawner);
+        particles = new ParticleSystem(MAX_PARTICLES, PARTICLE_FRAME_CAP_MS);
+        backgroundCache = new BackgroundCache(context);
+        telemetry = new Telemetry(new File(context.getFilesDir(), "telemetry.bin"), TELEMETRY_EVENTS);
+        leaderboard = new LeaderboardSync(new File(context.getFilesDir(), "leaderboard.queue"),
+                leaderboardClient(context), LEADERBOARD_BACKOFF_MS);
+        drawList = new DrawList(screen, 16);
+        ghostDir = new File(context.getFilesDir(), "ghosts");
+        ghostDir.mkdirs();
+        sounds = new SoundBoard(context);
+        debugSettings = new DebugSettings(context);
+        overlayEnabled = debugSettings.isOverlayEnabled();
+        pixelCollisions = debugSettings.isPixelCollisionsEnabled();
+        if (debugSettings.isAutoplayEnabled()) autoPilot = new AutoPilot();
+        player = new Player(context, screen, sim);
+        player.setSoundBoard(sounds);
+        obstacle = new Vehicle(null, screen, store, sim.getObstacle());
         // Initialize UI buttons.
         gameButtons = new GameButtons(context, screen);
-        setupLevel(1);
+        // Open on the level select screen; thumbnails fill in as they load. Nothing of a level
+        // (scenery, dialogue, sounds) is loaded until one is picked.
+        Rect cell = LevelSelect.cellRect(screen, 0);
+        thumbnails = new LevelThumbnails(context, cell.width(), cell.height());
+        thumbnails.load();
+        levelSelect = new LevelSelect(screen, thumbnails);
+        state = GameState.START;
     }
 
     // Helper function to compute the rectangle for the level complete image.
@@ -108,6 +227,12 @@ public class Game {
     }
 
     public void onTouchEvent(MotionEvent event) {
+        // A second finger coming down toggles the debug overlay in any state.
+        if (event.getActionMasked() == MotionEvent.ACTION_POINTER_DOWN && event.getPointerCount() == 2) {
+            overlayEnabled = !overlayEnabled;
+            debugSettings.setOverlayEnabled(overlayEnabled);
+            return;
+        }
         // In end states, only process touches on the buttons.
         if (state == GameState.LEVEL_COMPLETE || state == GameState.LOST) {
             if (event.getAction() == MotionEvent.ACTION_DOWN) {
@@ -115,19 +240,20 @@ public class Game {
                 int y = (int) event.getY();
                 int btnResult = gameButtons.checkTouch(x, y, state);
                 if (btnResult == 2) { // Next button touched.
-                    if (currentLevel < 9) {
-                        setupLevel(currentLevel + 1);
-                    } else {
-                        setupLevel(1);
-                    }
-                    state = GameState.RUNNING;
+                    levelRequest.set(NEXT_LEVEL);
                 } else if (btnResult == 3) { // Try button touched.
-                    setupLevel(currentLevel);
-                    state = GameState.RUNNING;
+                    levelRequest.set(RETRY_LEVEL);
                 }
             }
             return;
         }
+        if (state == GameState.START) {
+            if (event.getAction() == MotionEvent.ACTION_DOWN) {
+                int level = levelSelect.levelAt((int) event.getX(), (int) event.getY());
+                if (level > 0) levelRequest.set(level);
+            }
+            return;
+        }
         // In DIALOGUE state, a tap dismisses the dialogue (or starts the countdown).
         if (state == GameState.DIALOGUE) {
             if (event.getAction() == MotionEvent.ACTION_DOWN) {
@@ -135,7 +261,7 @@ public class Game {
             }
             return;
         }
-        // In RUNNING or START states.
+        // In RUNNING state.
         if (event.getAction() == MotionEvent.ACTION_DOWN) {
             int x = (int) event.getX();
             int y = (int) event.getY();
@@ -148,75 +274,145 @@ public class Game {
         if (!paused) {
             if (state == GameState.RUNNING) {
                 if (event.getAction() == MotionEvent.ACTION_DOWN) {
-                    player.jump();
+                    // Buffered; the next ticks decide whether and when it jumps.
+                    sim.requestJump(event.getEventTime());
                 }
-            } else if (state == GameState.START && event.getAction() == MotionEvent.ACTION_DOWN) {
+            }
+        }
+    }
+
+    // Game thread: sets up whatever level onTouchEvent asked for since the last tick.
+    private void applyLevelRequest() {
+        int request = levelRequest.getAndSet(NO_REQUEST);
+        if (request == NEXT_LEVEL) {
+            if (state == GameState.LEVEL_COMPLETE || state == GameState.LOST) nextLevel();
+        } else if (request == RETRY_LEVEL) {
+            if (state == GameState.LEVEL_COMPLETE || state == GameState.LOST) retryLevel();
+        } else if (request != NO_REQUEST && state == GameState.START) {
+            setupLevel(request);
+        }
+    }
+
+    private void nextLevel() {
+        if (currentLevel < 9) {
+            setupLevel(currentLevel + 1);
+        } else {
+            startEndless();
+        }
+        state = GameState.RUNNING;
+    }
+
+    private void retryLevel() {
+        if (endless) {
+            startEndless();
+        } else {
+            setupLevel(currentLevel);
+        }
+        state = GameState.RUNNING;
+    }
+
+    // Autoplay stands in for the player's taps on every screen, so a session runs unattended.
+    private void updateAutoplay(long elapsed) {
+        switch (state) {
+            case START:
                 setupLevel(1);
                 state = GameState.RUNNING;
-            }
+                break;
+            case DIALOGUE:
+                state = GameState.RUNNING;
+                break;
+            case LEVEL_COMPLETE:
+            case LOST:
+                autoplayWait += elapsed;
+                if (autoplayWait >= AUTOPLAY_END_SCREEN_MS) {
+                    autoplayWait = 0;
+                    if (state == GameState.LOST) {
+                        retryLevel();
+                    } else {
+                        nextLevel();
+                    }
+                }
+                break;
+            case RUNNING:
+                if (!paused) sim.autoJump(autoPilot);
+                break;
         }
     }
 
+    // Without a clock from GameThread (headless soak tests), ticks are spaced by elapsed.
     public void update(Long elapsed) {
+        update(elapsed, tickTime + elapsed);
+    }
+
+    // One simulation tick. tickTimeMs is the tick's place on the uptime clock that
+    // MotionEvent.getEventTime() uses, so buffered taps can be matched to ticks.
+    public void update(long elapsed, long tickTimeMs) {
+        tickTime = tickTimeMs;
+        applyCalibration();
+        applyLevelRequest();
+        applyGhostLoad();
+        if (autoPilot != null) updateAutoplay(elapsed);
+        // Let effects from the final hit play out behind the end screens.
+        if (state == GameState.LOST || state == GameState.LEVEL_COMPLETE) {
+            particles.update();
+            return;
+        }
         if (state == GameState.DIALOGUE) {
-            dialogue.update(elapsed);
-            if (dialogue.getCountdown() <= 0) {
+            dialogue.update();
+            timers.advance(elapsed);
+            if (dialogue.isFinished()) {
                 state = GameState.RUNNING;
             }
             return;
         }
         if (state == GameState.RUNNING && !paused) {
-            if (ecoShieldSpawnCooldown > 0) {
-                ecoShieldSpawnCooldown -= elapsed;
-                if (ecoShieldSpawnCooldown < 0) ecoShieldSpawnCooldown = 0;
+            // A run starts on its first simulated tick, whichever screen led into it.
+            if (runTicks++ == 0) telemetry.record(Telemetry.RUN_START, telemetryLevel(), 0, 0, 0);
+            double yBefore = player.getY();
+            int events = sim.step(elapsed, tickTimeMs);
+            if ((events & Simulation.TAP_JUMP) != 0) {
+                // Event time is uptime in ms, the same clock System.nanoTime() reads.
+                jumpLatency.onJumpInput(sim.getJumpPressTime() * 1_000_000L);
+            }
+            // A jump taken since the last tick had its force integrated by this step.
+            int jumps = sim.getJumpCount();
+            if (jumps != lastJumpCount) {
+                jumpLatency.onForceApplied(System.nanoTime(), yBefore);
             }
             player.update(elapsed);
-            if (background_close != null) background_close.update(elapsed);
-            if (background_mid != null) background_mid.update(elapsed);
-            if (background_far != null) background_far.update(elapsed);
             obstacle.update(elapsed);
-
-            if (obstacle.isOffScreen()) {
-                obstaclesEvadedCount++;
-                if (obstacle.getImage() != ecoshieldBmp) {
-                    player.increaseScore();
-                }
-                if (obstaclesEvadedCount >= 10 && ecoShieldSpawnCooldown == 0) {
-                    obstaclesEvadedCount = 0;
-                    obstacle = createObstacleAtGround(ecoshieldBmp);
-                    ecoShieldSpawnCooldown = 15000; // 15 sec cooldown.
-                } else {
-                    obstaclesEvadedCount = 0;
-                    obstacle = createObstacleForLevel(currentLevel);
-                }
+            if (!endless) {
+                ghostRecorder.record((int) player.getY(), jumps != lastJumpCount);
             }
-            if (currentLevel == 2) {
-                int currentScore = player.getScore();
-                if (currentScore / 5 > speedIncrements) {
-                    speedIncrements = currentScore / 5;
-                    if (background_close != null) background_close.speed += 2;
-                    if (background_mid != null) background_mid.speed += 2;
-                    if (background_far != null) background_far.speed += 2;
-                    obstacle.vx -= 2;
-                }
+            lastJumpCount = jumps;
+            Ghost g = ghost;
+            if (g != null) g.update();
+            background.setBaseSpeed(sim.getScrollSpeed());
+            background.update(elapsed);
+            particles.update();
+
+            if ((events & Simulation.SPAWNED) != 0) showObstacle();
+            if (endless) updateEndless();
+            Rect box = player.getHitbox();
+            if ((events & Simulation.SHIELD_PICKUP) != 0) {
+                telemetry.record(Telemetry.SHIELD_PICKUP, telemetryLevel(), 0, runTicks, sim.getScore());
+                particles.emitShieldPickup(box.centerX(), box.centerY());
+                sounds.play(SoundBoard.SHIELD);
             }
-            if (Rect.intersects(obstacle.getHitbox(), player.getHitbox())) {
-                if (obstacle.getImage() == ecoshieldBmp) {
-                    player.activateShield(5000); // 5 sec invincibility.
-                    for (int i = 0; i < 5; i++) {
-                        player.increaseScore();
-                    }
-                    obstacle = createObstacleForLevel(currentLevel);
-                } else if (!player.isShieldActive()) {
-                    loseGame();
-                } else {
-                    player.checkJumpOnVan(obstacle);
-                }
-            } else {
-                player.checkJumpOnVan(obstacle);
+            if ((events & Simulation.SHIELD_HIT) != 0 && !obstacleDispersed) {
+                particles.emitObstacleDispersal(obstacle.getHitbox());
+                obstacleDispersed = true;
             }
-            if (player.getScore() >= targetEcoPoints) {
+            if ((events & Simulation.LOST) != 0) {
+                particles.emitCollision(box.centerX(), box.centerY());
+                loseGame();
+            } else if ((events & Simulation.COMPLETE) != 0) {
                 state = GameState.LEVEL_COMPLETE;
+                metrics.onLevelComplete(currentLevel);
+                telemetry.record(Telemetry.LEVEL_COMPLETE, currentLevel, 0, runTicks, sim.getScore());
+                leaderboard.submit(currentLevel, sim.getScore(), ghostRecorder.getTicks());
+                sounds.play(SoundBoard.LEVEL_COMPLETE);
+                saveGhost();
             }
         }
     }
@@ -224,86 +420,205 @@ public class Game {
     public void draw() {
         Canvas canvas = holder.lockCanvas();
         if (canvas != null) {
-            canvas.drawColor(Color.WHITE);
-            drawGame(canvas);
+            renderer.begin(canvas);
+            render(renderer);
+            holder.unlockCanvasAndPost(canvas);
+            if (state == GameState.START) return;
+            long now = System.nanoTime();
+            jumpLatency.onFramePosted(now, player.getY());
+            if (lastDrawNanos != 0) metrics.onFrame(now - lastDrawNanos, now / 1_000_000L);
+            lastDrawNanos = now;
+        }
+    }
 
-            Paint levelPaint = new Paint();
-            levelPaint.setColor(Color.WHITE);
-            levelPaint.setTextSize(60);
-            levelPaint.setTextAlign(Paint.Align.LEFT);
-            canvas.drawText(levelDescription, 50, 100, levelPaint);
+    // Composes the frame for the current state. Package-private so tests can record a frame.
+    void render(Renderer r) {
+        if (state == GameState.START) {
+            levelSelect.draw(r);
+            if (overlayEnabled) drawDebugOverlay(r);
+            return;
+        }
+        // An opaque background already fills every pixel.
+        if (!background.isOpaque()) r.drawColor(Color.WHITE);
+        drawGame(r);
 
-            if (state == GameState.DIALOGUE) {
-                dialogue.draw(canvas);
-            }
-            if (state == GameState.LEVEL_COMPLETE) {
-                canvas.drawBitmap(levelCompBmp, null, levelCompRect, null);
-            }
-            if (state == GameState.LOST) {
-                loseText.draw(canvas, 0);
+        r.drawText(levelDescription, 50, 100, LEVEL_PAINT);
+
+        if (state == GameState.DIALOGUE) {
+            dialogue.draw(r);
+        }
+        if (state == GameState.LEVEL_COMPLETE) {
+            r.drawBitmap(levelCompBmp, Renderer.WHOLE, 0, 0, 0,
+                    levelCompRect.left, levelCompRect.top, levelCompRect.right, levelCompRect.bottom, Paints.NONE);
+        }
+        if (state == GameState.LOST) {
+            loseText.draw(r, 0);
+        }
+        gameButtons.draw(r, state);
+        if (overlayEnabled) {
+            drawDebugOverlay(r);
+        }
+    }
+
+    private void drawDebugOverlay(Renderer r) {
+        if (debugOverlay.needsRefresh(System.nanoTime() / 1_000_000L)) {
+            LatencyStats total = jumpLatency.getInputToPost();
+            debugOverlay.clear();
+            LatencyStats frames = metrics.getFrameTimes();
+            debugOverlay.addLine("frame p50 " + frames.percentile(50) / 100000 / 10.0
+                    + "ms  p99 " + frames.percentile(99) / 100000 / 10.0 + "ms");
+            debugOverlay.addLine(metrics.memorySummary());
+            debugOverlay.addLine("target " + metrics.getFrameRate() + " fps, quality " + quality);
+            if (autoPilot != null) {
+                debugOverlay.addLine("autoplay levels=" + metrics.getLevelsCompleted()
+                        + " lost=" + metrics.getRunsLost() + " jumps=" + autoPilot.getJumps());
             }
-            gameButtons.draw(canvas, state);
-            holder.unlockCanvasAndPost(canvas);
+            debugOverlay.addLine("jump->screen n=" + total.getCount());
+            debugOverlay.addLine("p50 " + total.percentile(50) / 100000 / 10.0
+                    + "ms  p90 " + total.percentile(90) / 100000 / 10.0
+                    + "ms  p99 " + total.percentile(99) / 100000 / 10.0 + "ms");
+            debugOverlay.addLine("particles " + particles.getCount());
+            debugOverlay.addLine("draws " + drawList.getDrawnCount() + " culled " + drawList.getCulledCount());
+            debugOverlay.addLine(backgroundCache.summary());
+            debugOverlay.addLine(leaderboard.summary());
         }
+        debugOverlay.draw(r, 50, 180);
+    }
+
+    private void drawGame(Renderer r) {
+        background.draw(drawList);
+        obstacle.collect(drawList, DrawList.LAYER_OBSTACLE);
+        Ghost g = ghost;
+        if (g != null) g.collect(drawList);
+        player.collect(drawList);
+        drawList.flush(r);
+        player.drawHud(r);
+        particles.draw(r);
     }
 
-    private void drawGame(Canvas canvas) {
-        if (background_far != null) background_far.draw(canvas);
-        if (background_mid != null) background_mid.draw(canvas);
-        if (background_close != null) background_close.draw(canvas);
-        obstacle.draw(canvas, 0);
-        player.draw(canvas, 0);
+    // Starts endless mode from level 1's scenery. The run never completes; it ends on a loss.
+    private void startEndless() {
+        setupLevel(1);
+        endless = true;
+        cancelGhostLoad(); // Endless runs are neither raced against nor recorded.
+        levelDescription = "ENDLESS MODE";
+        sim.setTarget(Integer.MAX_VALUE);
+        endlessScore = -1;
+        updateEndless();
+    }
+
+    // Runs every tick in endless mode but only does work when the score has changed.
+    private void updateEndless() {
+        int score = sim.getScore();
+        if (score == endlessScore) return;
+        endlessScore = score;
+        difficulty.setScore(score);
+
+        int level = difficulty.getLevel();
+        if (level != currentLevel) {
+            // Rotate the scenery; normally the next round was already decoded in the background.
+            currentLevel = level;
+            ParallaxBackground bg = takePrefetchedBackground(level);
+            if (bg == null) bg = backgroundForLevel(level, quality);
+            background.release();
+            background = bg;
+            spawner.setLevel(level);
+        }
+        if (nextBackgroundLevel != EndlessDifficulty.levelAfter(level)) {
+            prefetchBackground(EndlessDifficulty.levelAfter(level));
+        }
+        sim.setScrollSpeed(difficulty.getBackgroundSpeed());
+        spawner.setSpawnSpeed(difficulty.getObstacleSpeed());
+        spawner.setSpawnDelayTicks(difficulty.getSpawnDelayTicks());
+    }
+
+    // The level and preset are fixed when the task is queued, so the warmer reads nothing the
+    // game thread writes.
+    private void prefetchBackground(int level) {
+        dropPrefetchedBackground();
+        final QualityPreset q = quality;
+        nextBackgroundLevel = level;
+        nextBackground = assetWarmer.submit(() -> backgroundForLevel(level, q));
+    }
+
+    // The prefetched scenery if it is for level and has finished decoding; otherwise it is
+    // dropped and the caller decodes the level itself.
+    private ParallaxBackground takePrefetchedBackground(int level) {
+        Future<ParallaxBackground> f = nextBackground;
+        if (f == null || nextBackgroundLevel != level || !f.isDone()) {
+            dropPrefetchedBackground();
+            return null;
+        }
+        nextBackground = null;
+        nextBackgroundLevel = 0;
+        try {
+            return f.get();
+        } catch (InterruptedException | ExecutionException e) {
+            Log.w(TAG, "Could not prefetch background for level " + level, e);
+            return null;
+        }
+    }
+
+    // Gives up on the prefetch. The warmer runs its tasks in order, so by the time the release
+    // task runs, the prefetch has finished or was cancelled before it started.
+    private void dropPrefetchedBackground() {
+        Future<ParallaxBackground> f = nextBackground;
+        nextBackground = null;
+        nextBackgroundLevel = 0;
+        if (f == null || f.cancel(false)) return;
+        assetWarmer.execute(() -> {
+            try {
+                ParallaxBackground bg = f.get();
+                if (bg != null) bg.release();
+            } catch (InterruptedException | ExecutionException e) {
+                // Nothing was built, so there is nothing to release.
+            }
+        });
     }
 
     private void setupLevel(int level) {
         currentLevel = level;
-        speedIncrements = 0;
-        obstaclesEvadedCount = 0;
-        ecoShieldSpawnCooldown = 0;
+        endless = false;
+        dropPrefetchedBackground();
+        particles.clear();
+        particles.setBudget(particleBudget(level));
 
-        // Set target eco points and level description.
+        // Set level description and target eco points.
         switch (level) {
             case 1:
                 levelDescription = "LEVEL 1: GREEN HOME";
-                targetEcoPoints = 10;
                 break;
             case 2:
                 levelDescription = "LEVEL 2: ECO FACTORY";
-                targetEcoPoints = 20;
                 break;
             case 3:
                 levelDescription = "LEVEL 3: SUSTAINABLE CITY";
-                targetEcoPoints = 30;
                 break;
             case 4:
                 levelDescription = "LEVEL 4: GLOBAL ECO VILLAGE";
-                targetEcoPoints = 40;
                 break;
             case 5:
                 levelDescription = "LEVEL 5: ECO WARRIOR";
-                targetEcoPoints = 45;
                 break;
             case 6:
                 levelDescription = "LEVEL 6: SUSTAINABLE FUTURE";
-                targetEcoPoints = 50;
                 break;
             case 7:
                 levelDescription = "LEVEL 7: ECO CHAMPION";
-                targetEcoPoints = 55;
                 break;
             case 8:
                 levelDescription = "LEVEL 8: GLOBAL SUSTAINABILITY";
-                targetEcoPoints = 60;
                 break;
             case 9:
                 levelDescription = "LEVEL 9: ECO MASTER";
-                targetEcoPoints = 80;
                 break;
             default:
                 levelDescription = "LEVEL 1: GREEN HOME";
-                targetEcoPoints = 10;
                 break;
         }
+        int targetEcoPoints = Simulation.targetPointsFor(level);
+        // Nothing from the previous run (shield, cooldown, countdown) carries over.
+        timers.clear();
 
         // Set up dialogue for pre-level instructions.
         // For the dialogue, pass both the bubble rectangle (for the dialogue text)
@@ -311,6 +626,7 @@ public class Game {
         Rect dialogueBubble = new Rect(20, 20, screen.width() / 2, screen.height() / 2);
         dialogue = new Dialogue(
                 context,
+                timers,
                 dialogueBubble,
                 screen,           // Full-screen rect.
                 10000,            // 10-second countdown.
@@ -318,94 +634,32 @@ public class Game {
                 "COLLECT " + targetEcoPoints + " ECOPOINTS TO COMPLETE THE LEVEL!!"
         );
         state = GameState.DIALOGUE;
-
-        // Set up player.
-        int groundY = screen.height() - screen.width() / 8;
-        int playerHeight = 50;
-        player = new Player(context, new Rect(400, groundY - playerHeight - 20, 410, groundY - 20), screen);
+        // Effects decode while the dialogue is up.
+        sounds.preloadLevel(level);
+
+        // Player, terrain and the first obstacle.
+        sim.reset(level);
+        player.reset();
+        showObstacle();
+        ghostRecorder.reset((int) player.getY());
+        runTicks = 0;
+        lastJumpCount = sim.getJumpCount();
+        loadGhost(level);
 
         // Set up backgrounds and obstacle based on level.
-        switch (level) {
-            case 1:
-                background_close = new ScrollableBackground(BitmapFactory.decodeResource(resources, R.drawable.lvl1_close, options),
-                        context, new Rect(0, 0, screen.width(), screen.height()), screen, 4);
-
-                background_far = new ScrollableBackground(BitmapFactory.decodeResource(resources, R.drawable.lvl1_far, options),
-                        context, new Rect(0, 0, screen.width(), screen.height()), screen, 2);
-                obstacle = createObstacleForLevel(1);
-                break;
-            case 2:
-                background_close = new ScrollableBackground(BitmapFactory.decodeResource(resources, R.drawable.lvl2_close, options),
-                        context, new Rect(0, 0, screen.width(), screen.height()), screen, 10);
-                background_mid = null;
-                background_far = new ScrollableBackground(BitmapFactory.decodeResource(resources, R.drawable.lvl2_far, options),
-                        context, new Rect(0, 0, screen.width(), screen.height()), screen, 6);
-                obstacle = createObstacleForLevel(2);
-                break;
-            case 3:
-                background_close = new ScrollableBackground(BitmapFactory.decodeResource(resources, R.drawable.lvl3_close, options),
-                        context, new Rect(0, 0, screen.width(), screen.height()), screen, 8);
-                background_far = new ScrollableBackground(BitmapFactory.decodeResource(resources, R.drawable.lvl3_far, options),
-                        context, new Rect(0, 0, screen.width(), screen.height()), screen, 4);
-                obstacle = createObstacleForLevel(3);
-                break;
-            case 4:
-                background_close = new ScrollableBackground(BitmapFactory.decodeResource(resources, R.drawable.lvl4_close, options),
-                        context, new Rect(0, 0, screen.width(), screen.height()), screen, 14);
-                background_mid = null;
-                background_far = new ScrollableBackground(BitmapFactory.decodeResource(resources, R.drawable.lvl4_far, options),
-                        context, new Rect(0, 0, screen.width(), screen.height()), screen, 10);
-                obstacle = createObstacleForLevel(4);
-                break;
-            case 5:
-                background_close = new ScrollableBackground(BitmapFactory.decodeResource(resources, R.drawable.lvl5_close, options),
-                        context, new Rect(0, 0, screen.width(), screen.height()), screen, 16);
-                background_mid = null;
-                background_far = new ScrollableBackground(BitmapFactory.decodeResource(resources, R.drawable.lvl5_far, options),
-                        context, new Rect(0, 0, screen.width(), screen.height()), screen, 12);
-                obstacle = createObstacleForLevel(5);
-                break;
-            case 6:
-                background_close = new ScrollableBackground(BitmapFactory.decodeResource(resources, R.drawable.lvl6_close, options),
-                        context, new Rect(0, 0, screen.width(), screen.height()), screen, 18);
-                background_mid = null;
-                background_far = new ScrollableBackground(BitmapFactory.decodeResource(resources, R.drawable.lvl6_far, options),
-                        context, new Rect(0, 0, screen.width(), screen.height()), screen, 14);
-                obstacle = createObstacleForLevel(6);
-                break;
-            case 7:
-                background_close = new ScrollableBackground(BitmapFactory.decodeResource(resources, R.drawable.lvl7_close, options),
-                        context, new Rect(0, 0, screen.width(), screen.height()), screen, 20);
-                background_mid = null;
-                background_far = new ScrollableBackground(BitmapFactory.decodeResource(resources, R.drawable.lvl7_far, options),
-                        context, new Rect(0, 0, screen.width(), screen.height()), screen, 16);
-                obstacle = createObstacleForLevel(7);
-                break;
-            case 8:
-                background_close = new ScrollableBackground(BitmapFactory.decodeResource(resources, R.drawable.lvl8_close, options),
-                        context, new Rect(0, 0, screen.width(), screen.height()), screen, 22);
-                background_mid = null;
-                background_far = new ScrollableBackground(BitmapFactory.decodeResource(resources, R.drawable.lvl8_far, options),
-                        context, new Rect(0, 0, screen.width(), screen.height()), screen, 18);
-                obstacle = createObstacleForLevel(8);
-                break;
-            case 9:
-                background_close = new ScrollableBackground(BitmapFactory.decodeResource(resources, R.drawable.lvl9_close, options),
-                        context, new Rect(0, 0, screen.width(), screen.height()), screen, 24);
-                background_mid = null;
-                background_far = new ScrollableBackground(BitmapFactory.decodeResource(resources, R.drawable.lvl9_far, options),
-                        context, new Rect(0, 0, screen.width(), screen.height()), screen, 20);
-                obstacle = createObstacleForLevel(9);
-                break;
-            default:
-                setupLevel(1);
-                return;
+        if (level < 1 || level > 9) {
+            setupLevel(1);
+            return;
         }
+        if (background != null) background.release();
+        background = backgroundForLevel(level, quality);
+        sim.setScrollSpeed(background.getBaseSpeed());
 
         // Compute endRect for end image.
         Rect endRect = computeLevelCompRect();
-        loseText = new Sprite(BitmapFactory.decodeResource(resources, R.drawable.losetext, options),
-                context, endRect, screen);
+        if (loseText != null) loseText.release();
+        loseText = new Sprite(Assets.getUnscaled(resources, R.drawable.losetext),
+                context, endRect, screen, store);
         levelCompRect = new Rect(endRect);
 
         // Compute try_btn rectangle.
@@ -414,113 +668,223 @@ public class Game {
         Rect nextRect = computeNextButtonRect(endRect);
         gameButtons.setTryButtonRect(tryRect);
         gameButtons.setNextButtonRect(nextRect);
-
-        borderPaint.setStrokeWidth(24);
-        borderPaint.setColor(Color.GREEN);
-        borderPaint.setStyle(Paint.Style.STROKE);
         state = GameState.DIALOGUE;
     }
 
-    private Vehicle createObstacleForLevel(int level) {
-        if (obstaclesEvadedCount >= 10) {
-            obstaclesEvadedCount = 0;
-            return createObstacleAtGround(ecoshieldBmp);
+    // No endpoint configured means scores are only queued locally.
+    private static LeaderboardClient leaderboardClient(Context context) {
+        String url = context.getString(R.string.leaderboard_url);
+        if (url.isEmpty()) return null;
+        try {
+            return new LeaderboardClient(new URL(url));
+        } catch (MalformedURLException e) {
+            Log.w(TAG, "Bad leaderboard_url " + url, e);
+            return null;
         }
+    }
 
-        double chance = Math.random();
-        if (chance < 0.1) {
-            return createObstacleAtGround(ecoshieldBmp);
-        } else {
-            int obstacleImageId;
-            switch (level) {
-                case 1:
-                    int rand1 = (int) (Math.random() * 3);
-                    if (rand1 == 0)
-                        obstacleImageId = R.drawable.trashpilesl1;
-                    else if (rand1 == 1)
-                        obstacleImageId = R.drawable.wastefulappl11;
-                    else
-                        obstacleImageId = R.drawable.carbonmonster;
-                    break;
-                case 2:
-                    int r2 = (int)(Math.random() * 2);
-                    if (r2 == 0)
-                        obstacleImageId = R.drawable.smokel2;
-                    else
-                        obstacleImageId = R.drawable.garbageheapsl2;
-                    break;
-                case 3:
-                    int r3 = (int)(Math.random() * 2);
-                    if (r3 == 0)
-                        obstacleImageId = R.drawable.energywasterl3;
-                    else
-                        obstacleImageId = R.drawable.trashcanl3;
-                    break;
-                case 4:
-                    int r4 = (int) (Math.random() * 3);
-                    if (r4 == 0)
-                        obstacleImageId = R.drawable.scalel4;
-                    else if (r4 == 1)
-                        obstacleImageId = R.drawable.documentl4;
-                    else
-                        obstacleImageId = R.drawable.piggybankl4;
-                    break;
-                case 5:
-                    int r5 = (int)(Math.random() * 2);
-                    if (r5 == 0)
-                        obstacleImageId = R.drawable.cuttingtreesl5;
-                    else
-                        obstacleImageId = R.drawable.waterwastel5;
-                    break;
-                case 6:
-                    int r6 = (int) (Math.random() * 4);
-                    if (r6 == 0)
-                        obstacleImageId = R.drawable.spillwastel6;
-                    else if (r6 == 1)
-                        obstacleImageId = R.drawable.smogl6;
-                    else if (r6 == 2)
-                        obstacleImageId = R.drawable.gasl6;
-                    else
-                        obstacleImageId = R.drawable.greenhousel6;
-                    break;
-                case 7:
-                    int r7 = (int)(Math.random() * 2);
-                    if (r7 == 0)
-                        obstacleImageId = R.drawable.floodl7;
-                    else
-                        obstacleImageId = R.drawable.canl7;
-                    break;
-                case 8:
-                    int r8 = (int)(Math.random() * 2);
-                    if (r8 == 0)
-                        obstacleImageId = R.drawable.scrolll8;
-                    else
-                        obstacleImageId = R.drawable.solarpanell8;
-                    break;
-                case 9:
-                    int r9 = (int) (Math.random() * 3);
-                    if (r9 == 0)
-                        obstacleImageId = R.drawable.cutl9;
-                    else if (r9 == 1)
-                        obstacleImageId = R.drawable.whipl9;
-                    else
-                        obstacleImageId = R.drawable.firel9;
-                    break;
-                default:
-                    obstacleImageId = R.drawable.waterwastel5;
-                    break;
+    // Any thread: q is passed in rather than read, so a background built on the warmer uses the
+    // preset that was current when it was queued.
+    private ParallaxBackground backgroundForLevel(int level, QualityPreset q) {
+        switch (level) {
+            case 2:
+                return createBackground(R.drawable.lvl2_far, R.drawable.lvl2_close, 10, 6, q);
+            case 3:
+                return createBackground(R.drawable.lvl3_far, R.drawable.lvl3_close, 8, 4, q);
+            case 4:
+                return createBackground(R.drawable.lvl4_far, R.drawable.lvl4_close, 14, 10, q);
+            case 5:
+                return createBackground(R.drawable.lvl5_far, R.drawable.lvl5_close, 16, 12, q);
+            case 6:
+                return createBackground(R.drawable.lvl6_far, R.drawable.lvl6_close, 18, 14, q);
+            case 7:
+                return createBackground(R.drawable.lvl7_far, R.drawable.lvl7_close, 20, 16, q);
+            case 8:
+                return createBackground(R.drawable.lvl8_far, R.drawable.lvl8_close, 22, 18, q);
+            case 9:
+                return createBackground(R.drawable.lvl9_far, R.drawable.lvl9_close, 24, 20, q);
+            default:
+                return createBackground(R.drawable.lvl1_far, R.drawable.lvl1_close, 4, 2, q, true);
+        }
+    }
+
+    // Later levels get more particles to play with, up to what the quality preset allows.
+    private int particleBudget(int level) {
+        return Math.min(96 + level * 16, quality.getParticleBudget());
+    }
+
+    // Layers come from the disk cache already scaled to the screen (or to the preset's fraction
+    // of it, stretched back when drawn). The close layer scrolls at the level's base speed; the
+    // far layer at a fraction of it. With one layer only the opaque far one is kept.
+    private ParallaxBackground createBackground(int farId, int closeId, int closeSpeed, int farSpeed, QualityPreset q) {
+        return createBackground(farId, closeId, closeSpeed, farSpeed, q, false);
+    }
+
+    // With panorama set, the far art is streamed in strips by a PanoramaLayer instead of being
+    // decoded whole, so it may be many screens wide. Art that cannot be opened for region
+    // decoding falls back to the cached layer.
+    private ParallaxBackground createBackground(int farId, int closeId, int closeSpeed, int farSpeed,
+                                                QualityPreset q, boolean panorama) {
+        int w = Math.round(screen.width() * q.getDecodeScale());
+        int h = Math.round(screen.height() * q.getDecodeScale());
+        ParallaxBackground bg = new ParallaxBackground(screen, closeSpeed);
+        float farFactor = farSpeed / (float) closeSpeed;
+        ParallaxLayer far = null;
+        if (panorama) {
+            try {
+                far = PanoramaLayer.open(resources, farId, farFactor, screen, PANORAMA_PREFETCH);
+            } catch (IOException e) {
+                Log.w(TAG, "Could not open panorama " + farId, e);
             }
-            return createObstacleAtGround(BitmapFactory.decodeResource(resources, obstacleImageId, options));
         }
+        if (far == null) {
+            far = new ParallaxLayer(backgroundCache.load(farId, w, h, q.isOpaque565()),
+                    farFactor, screen.width(), screen.height());
+        }
+        bg.addLayer(far);
+        if (q.getParallaxLayers() > 1) {
+            bg.addLayer(new ParallaxLayer(backgroundCache.load(closeId, w, h, q.isOpaque565()),
+                    1f, screen.width(), screen.height()));
+        }
+        return bg;
+    }
+
+    // Dresses the obstacle the simulation just spawned. Its bitmap and mask were warmed while
+    // queued, and the obstacle sprite is reused so spawning does not allocate.
+    private void showObstacle() {
+        int type = spawner.getType();
+        obstacle.setImage(Assets.getUnscaled(resources, type));
+        sim.setObstacleMask(pixelCollisions
+                ? Assets.getMask(resources, type, Simulation.OBSTACLE_SIZE, Simulation.OBSTACLE_SIZE) : null);
+        obstacleDispersed = false;
+    }
+
+    // Reads the level's best run off the game thread. The warmer only reads the file; whether
+    // the run still wants it is decided on the game thread in applyGhostLoad.
+    private void loadGhost(int level) {
+        cancelGhostLoad();
+        ghostX = (float) player.getX();
+        final File file = GhostFile.fileFor(ghostDir, level);
+        ghostLoad = assetWarmer.submit(() -> GhostFile.read(file));
+    }
+
+    private void cancelGhostLoad() {
+        ghost = null;
+        if (ghostLoad != null) ghostLoad.cancel(false);
+        ghostLoad = null;
+    }
+
+    // Game thread: starts racing the ghost once its file has been read. A load for a level left
+    // since, or for a run that turned endless, was cancelled and never gets here.
+    private void applyGhostLoad() {
+        Future<GhostFile> f = ghostLoad;
+        if (f == null || !f.isDone()) return;
+        ghostLoad = null;
+        try {
+            GhostFile best = f.get();
+            if (best != null) ghost = new Ghost(best.track(), ghostX);
+        } catch (InterruptedException | ExecutionException e) {
+            Log.w(TAG, "Could not read ghost for level " + currentLevel, e);
+        }
+    }
+
+    // Keeps this run as the level's ghost if it beat the stored best. The comparison is made
+    // against the file itself on the writer thread: the best loaded for racing may not have
+    // been read yet, and earlier saves queued on the same thread may have replaced it since.
+    private void saveGhost() {
+        if (endless || ghostRecorder.isFull()) return;
+        final int score = sim.getScore();
+        final int ticks = ghostRecorder.getTicks();
+        final int level = currentLevel;
+        final int startY = ghostRecorder.getStartY();
+        final byte[] stream = ghostRecorder.finish();
+        assetWarmer.execute(() -> {
+            try {
+                File file = GhostFile.fileFor(ghostDir, level);
+                if (!GhostFile.isBetter(score, ticks, GhostFile.read(file))) return;
+                GhostFile.write(file, level, score, startY, ticks, stream);
+            } catch (IOException e) {
+                Log.w(TAG, "Could not save ghost for level " + level, e);
+            }
+        });
+    }
+
+    // Starts an endless run with the dialogue skipped. Used by the memory soak test.
+    void startEndlessRun() {
+        startEndless();
+        state = GameState.RUNNING;
+    }
+
+    Metrics getMetrics() {
+        return metrics;
+    }
+
+    // Turns autoplay on for this game without touching the persisted setting. Used by soak tests.
+    void setAutoplay(boolean enabled) {
+        autoPilot = enabled ? new AutoPilot() : null;
+    }
+
+    Simulation getSimulation() {
+        return sim;
+    }
+
+    GameState getState() {
+        return state;
+    }
+
+    // Measures the device on first launch or after an update. That takes a few seconds, so it
+    // runs on its own thread while the level select is up; the game thread applies the preset
+    // at the start of the next tick. Scenery already loaded keeps its settings until the next
+    // level is set up.
+    public void calibrate() {
+        Thread t = new Thread(() -> calibrated = Calibration.resolve(context, screen, backgroundCache, debugSettings),
+                "Calibration");
+        t.start();
+    }
+
+    private void applyCalibration() {
+        QualityPreset preset = calibrated;
+        if (preset == null) return;
+        calibrated = null;
+        applyQuality(preset);
+    }
+
+    void applyQuality(QualityPreset preset) {
+        quality = preset;
+        particles.setBudget(particleBudget(currentLevel));
+    }
+
+    public QualityPreset getQuality() {
+        return quality;
+    }
+
+    // Stops background work owned by this game. Called once the game thread has exited.
+    public void release() {
+        Log.i(TAG, metrics.summary());
+        Log.i(TAG, jumpLatency.summary());
+        Log.i(TAG, backgroundCache.summary());
+        Log.i(TAG, leaderboard.summary());
+        leaderboard.release();
+        telemetry.close();
+        Log.i(TAG, "telemetry written=" + telemetry.getWritten() + " dropped=" + telemetry.getDropped());
+        dropPrefetchedBackground();
+        assetWarmer.shutdown();
+        if (background != null) background.release();
+        thumbnails.release();
+        sounds.release();
     }
 
-    private Vehicle createObstacleAtGround(Bitmap obstacleBmp) {
-        int groundY = screen.height() - screen.width() / 8;
-        Rect obstacleRect = new Rect(screen.width(), groundY - obstacleHeight, screen.width() + obstacleWidth, groundY);
-        return new Vehicle(obstacleBmp, context, obstacleRect, screen, groundY);
+    // Endless runs are logged as level 0 so they don't skew the per-level numbers.
+    private int telemetryLevel() {
+        return endless ? 0 : currentLevel;
     }
 
     private void loseGame() {
         state = GameState.LOST;
+        telemetry.record(Telemetry.DEATH, telemetryLevel(), SpawnScheduler.obstacleCode(spawner.getType()),
+                runTicks, sim.getScore());
+        metrics.onLost(currentLevel);
+        sounds.play(SoundBoard.LOSE);
+        saveGhost();
     }
 }
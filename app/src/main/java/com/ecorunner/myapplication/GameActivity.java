@@ -1,6 +1,7 @@
 package com.ecorunner.myapplication;
 
 import android.app.Activity;
+import android.content.Intent;
 import android.os.Bundle;
 
 public class GameActivity extends Activity{
@@ -8,6 +9,21 @@ public class GameActivity extends Activity{
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        // Debug switches can be set at launch, e.g.
+        // adb shell am start -n com.ecorunner.myapplication/.GameActivity --ez autoplay true
+        // Quality takes low, medium or high to force a preset, auto to go back to the
+        // calibrated one, or recalibrate to measure again:
+        // adb shell am start -n com.ecorunner.myapplication/.GameActivity --es quality low
+        Intent intent = getIntent();
+        if (intent != null && intent.hasExtra("autoplay")) {
+            new DebugSettings(this).setAutoplayEnabled(intent.getBooleanExtra("autoplay", false));
+        }
+        if (intent != null && intent.hasExtra("quality")) {
+            String quality = intent.getStringExtra("quality");
+            QualityPreset forced = QualityPreset.fromName(quality);
+            new DebugSettings(this).setQualityOverride(forced != null ? forced.name() : null);
+            if ("recalibrate".equals(quality)) Calibration.reset(this);
+        }
         setContentView(R.layout.activity_game);
     }
 }
\ No newline at end of file
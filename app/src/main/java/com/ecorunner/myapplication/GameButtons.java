@@ -2,8 +2,6 @@ package com.ecorunner.myapplication;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Canvas;
 import android.graphics.Rect;
 
 public class GameButtons {
@@ -17,11 +15,11 @@ public class GameButtons {
         this.context = context;
         this.screen = screen;
         // Load button images from your drawable resources.
-        pauseBtn = BitmapFactory.decodeResource(context.getResources(), R.drawable.pause, null);
-        playBtn = BitmapFactory.decodeResource(context.getResources(), R.drawable.play, null);
-        nextBtn = BitmapFactory.decodeResource(context.getResources(), R.drawable.next, null);
+        pauseBtn = Assets.get(context.getResources(), R.drawable.pause);
+        playBtn = Assets.get(context.getResources(), R.drawable.play);
+        nextBtn = Assets.get(context.getResources(), R.drawable.next);
         // Rename your try image resource to try_btn.png (avoid reserved keywords).
-        tryBtn = BitmapFactory.decodeResource(context.getResources(), R.drawable.try_btn, null);
+        tryBtn = Assets.get(context.getResources(), R.drawable.try_btn);
 
         // Define a default button size.
         int btnSize = screen.width() / 10;
@@ -39,21 +37,25 @@ public class GameButtons {
 
     // Draw UI buttons.
     // In end states (LEVEL_COMPLETE or LOST) only the next (or try) button is drawn.
-    public void draw(Canvas canvas, Game.GameState state) {
-        if (state == Game.GameState.RUNNING || state == Game.GameState.START) {
+    public void draw(Renderer renderer, Game.GameState state) {
+        if (state == Game.GameState.RUNNING) {
             // In running mode, always show pause/play button.
             if (paused) {
-                canvas.drawBitmap(playBtn, null, playRect, null);
+                drawButton(renderer, playBtn, playRect);
             } else {
-                canvas.drawBitmap(pauseBtn, null, pauseRect, null);
+                drawButton(renderer, pauseBtn, pauseRect);
             }
         } else if (state == Game.GameState.LEVEL_COMPLETE) {
-            canvas.drawBitmap(nextBtn, null, nextRect, null);
+            drawButton(renderer, nextBtn, nextRect);
         } else if (state == Game.GameState.LOST) {
-            canvas.drawBitmap(tryBtn, null, tryRect, null);
+            drawButton(renderer, tryBtn, tryRect);
         }
     }
 
+    private static void drawButton(Renderer renderer, Bitmap button, Rect rect) {
+        renderer.drawBitmap(button, Renderer.WHOLE, 0, 0, 0, rect.left, rect.top, rect.right, rect.bottom, Paints.NONE);
+    }
+
     /**
      * Checks if a touch at (x,y) hits any button.
      * Returns:
@@ -64,7 +66,7 @@ public class GameButtons {
      */
     public int checkTouch(int x, int y, Game.GameState state) {
         // In running state, only check pause/play.
-        if (state == Game.GameState.RUNNING || state == Game.GameState.START) {
+        if (state == Game.GameState.RUNNING) {
             if (pauseRect.contains(x, y)) {
                 paused = !paused;
                 return 1;
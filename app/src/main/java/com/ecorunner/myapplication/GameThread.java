@@ -1,36 +1,73 @@
 package com.ecorunner.myapplication;
 
+import android.os.SystemClock;
+
 public class GameThread extends Thread {
+    // The simulation always advances in fixed ticks, however long frames take; a slow frame
+    // runs several ticks before drawing, a fast one may run none.
+    public static final int TICK_MS = 16;
+    private static final int MAX_TICKS_PER_FRAME = 5; // After a longer stall the backlog is dropped.
+
+    private static final int DEFAULT_FPS = 60;
+
     private Game game;
     private volatile boolean running = true;
-    private final int FRAME_TIME = 16; // ~60 FPS
+    private long frameNanos = 1_000_000_000L / DEFAULT_FPS;
+    private final StallWatchdog watchdog; // Null when stall reporting is off.
+    private final FrameRateGovernor governor; // Null to stay at DEFAULT_FPS.
 
     public GameThread(Game game) {
+        this(game, null, null);
+    }
+
+    public GameThread(Game game, StallWatchdog watchdog, FrameRateGovernor governor) {
         this.game = game;
+        this.watchdog = watchdog;
+        this.governor = governor;
     }
 
     @Override
     public void run() {
-        long lastTime = System.currentTimeMillis();
+        // Runs in the background; the governor follows the preset once it lands.
+        game.calibrate();
+        QualityPreset quality = null;
+        // Uptime, the clock MotionEvent.getEventTime() uses, so ticks and taps line up.
+        long lastTime = SystemClock.uptimeMillis();
+        long lag = 0;
+        if (watchdog != null) watchdog.start(this);
 
         while (running) {
-            long now = System.currentTimeMillis();
-            long elapsed = now - lastTime;
+            long start = System.nanoTime();
+            long now = SystemClock.uptimeMillis();
+            lag = Math.min(lag + now - lastTime, (long) TICK_MS * MAX_TICKS_PER_FRAME);
+            lastTime = now;
 
-            game.update(elapsed);
+            if (watchdog != null) watchdog.beginFrame();
+            while (lag >= TICK_MS) {
+                lag -= TICK_MS;
+                game.update(TICK_MS, now - lag);
+            }
             game.draw();
+            if (watchdog != null) watchdog.endFrame();
 
-            long sleepTime = FRAME_TIME - (System.currentTimeMillis() - now);
-            if (sleepTime > 0) {
+            long work = System.nanoTime() - start;
+            if (governor != null && game.getQuality() != quality) {
+                quality = game.getQuality();
+                governor.setMaxFps(quality.getMaxFps());
+            }
+            if (governor != null) {
+                frameNanos = 1_000_000_000L / governor.onFrame(game.getState(), work, now);
+            }
+            long sleepNanos = frameNanos - work;
+            if (sleepNanos > 0) {
                 try {
-                    Thread.sleep(sleepTime);
+                    Thread.sleep(sleepNanos / 1_000_000L, (int) (sleepNanos % 1_000_000L));
                 } catch (InterruptedException e) {
                     e.printStackTrace();
                 }
             }
-
-            lastTime = now;
         }
+        if (watchdog != null) watchdog.stop();
     }
 
     public void shutdown() {
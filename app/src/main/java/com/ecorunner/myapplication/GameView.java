@@ -1,9 +1,13 @@
 package com.ecorunner.myapplication;
 import android.content.Context;
 import android.graphics.Rect;
+import android.os.Build;
+import android.os.PowerManager;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.view.Display;
 import android.view.MotionEvent;
+import android.view.Surface;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
 
@@ -12,6 +16,8 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
     SurfaceHolder holder;
     GameThread gameThread;
     Game game;
+    private static final long STALL_THRESHOLD_MS = 50;
+    private PowerManager.OnThermalStatusChangedListener thermalListener;
 
     public GameView(Context context, AttributeSet attrs) {
         super(context, attrs);
@@ -27,10 +33,41 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
                 new Rect(0, 0, getWidth(), getHeight()),
                 holder,
                 getResources());
-        gameThread = new GameThread(game);
+        // Frames over STALL_THRESHOLD_MS (three at 60 fps) get their stack captured.
+        StallWatchdog watchdog = new DebugSettings(getContext()).isWatchdogEnabled()
+                ? new StallWatchdog(STALL_THRESHOLD_MS) : null;
+        gameThread = new GameThread(game, watchdog, createGovernor(holder));
         gameThread.start();
     }
 
+    // Frame rates come from the display's modes; thermal status from PowerManager (API 29+).
+    // The rate is only requested from the display on API 30+, but is paced to everywhere.
+    private FrameRateGovernor createGovernor(SurfaceHolder holder) {
+        Display display = getDisplay();
+        float[] rates;
+        if (display != null) {
+            Display.Mode[] modes = display.getSupportedModes();
+            rates = new float[modes.length + 1];
+            for (int i = 0; i < modes.length; i++) rates[i] = modes[i].getRefreshRate();
+            rates[modes.length] = display.getRefreshRate();
+        } else {
+            rates = new float[]{60};
+        }
+        FrameRateGovernor governor = new FrameRateGovernor(rates, game.getMetrics(), fps -> {
+            Surface surface = holder.getSurface();
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R && surface.isValid()) {
+                surface.setFrameRate(fps, Surface.FRAME_RATE_COMPATIBILITY_DEFAULT);
+            }
+        });
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            PowerManager power = (PowerManager) getContext().getSystemService(Context.POWER_SERVICE);
+            governor.setThermalStatus(power.getCurrentThermalStatus());
+            thermalListener = governor::setThermalStatus;
+            power.addThermalStatusListener(thermalListener);
+        }
+        return governor;
+    }
+
     @Override
     public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
         Log.d("GAMEVIEW", "changed");
@@ -39,6 +76,11 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
     @Override
     public void surfaceDestroyed(SurfaceHolder holder) {
         Log.d("GAMEVIEW", "destroyed");
+        if (thermalListener != null) {
+            PowerManager power = (PowerManager) getContext().getSystemService(Context.POWER_SERVICE);
+            power.removeThermalStatusListener(thermalListener);
+            thermalListener = null;
+        }
         if(gameThread != null) {
             gameThread.shutdown();
 
@@ -49,6 +91,7 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
                 } catch (InterruptedException e) {
                 }
             }
+            game.release();
         }
     }
 
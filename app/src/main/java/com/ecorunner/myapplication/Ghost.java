@@ -0,0 +1,37 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+// Translucent replay of the best recorded run on a level, drawn alongside the player.
+public class Ghost {
+    private GhostTrack track;
+    private Animator animator;
+    private float x;
+    private static final int PAINT = Paints.fill(Color.argb(110, 255, 255, 255));
+
+    public Ghost(GhostTrack track, float x) {
+        this.track = track;
+        this.x = x;
+        animator = new Animator(Player.clipFor(Sprite.SpriteState.IDLE));
+    }
+
+    // Advanced once per simulation tick, in step with the player.
+    public void update() {
+        if (!track.advance()) return;
+        if (track.jumpedThisTick()) {
+            animator.play(Player.clipFor(Sprite.SpriteState.JUMP));
+        } else if (animator.isFinished()) {
+            animator.play(Player.clipFor(Sprite.SpriteState.IDLE));
+        }
+        animator.tick();
+    }
+
+    public void collect(DrawList list) {
+        if (track.isFinished()) return;
+        Bitmap frame = animator.getFrame();
+        int left = (int) x;
+        int top = track.getY();
+        list.add(DrawList.LAYER_GHOST, frame, null, left, top, left + frame.getWidth(), top + frame.getHeight(), PAINT);
+    }
+}
@@ -0,0 +1,77 @@
+package com.ecorunner.myapplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+// Per-level best-run file: a fixed header followed by the GhostRecorder stream.
+public class GhostFile {
+    private static final int MAGIC = 0x47485354; // "GHST"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+
+    public final int level;
+    public final int score;
+    public final int ticks;
+    public final int startY;
+    private final ByteBuffer payload;
+
+    private GhostFile(int level, int score, int ticks, int startY, ByteBuffer payload) {
+        this.level = level;
+        this.score = score;
+        this.ticks = ticks;
+        this.startY = startY;
+        this.payload = payload;
+    }
+
+    public static File fileFor(File dir, int level) {
+        return new File(dir, "level_" + level + ".ghost");
+    }
+
+    // Maps the file read-only; returns null if there is no usable recording.
+    public static GhostFile read(File file) throws IOException {
+        StallWatchdog.noteBlocking("ghost read");
+        if (!file.exists() || file.length() < HEADER_SIZE) return null;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (map.getInt() != MAGIC || map.getInt() != VERSION) return null;
+            int level = map.getInt();
+            int score = map.getInt();
+            int ticks = map.getInt();
+            int startY = map.getInt();
+            if (ticks < 0) return null;
+            return new GhostFile(level, score, ticks, startY, map.slice());
+        }
+    }
+
+    public static void write(File file, int level, int score, int startY, int ticks, byte[] stream) throws IOException {
+        StallWatchdog.noteBlocking("ghost write");
+        File tmp = new File(file.getPath() + ".tmp");
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(level).putInt(score).putInt(ticks).putInt(startY);
+        header.flip();
+        try (RandomAccessFile raf = new RandomAccessFile(tmp, "rw");
+             FileChannel channel = raf.getChannel()) {
+            channel.truncate(0);
+            ByteBuffer body = ByteBuffer.wrap(stream);
+            while (header.hasRemaining()) channel.write(header);
+            while (body.hasRemaining()) channel.write(body);
+            channel.force(false);
+        }
+        // Replace the old best in one step so a crash never leaves a half-written ghost.
+        if (!tmp.renameTo(file)) throw new IOException("Could not replace " + file);
+    }
+
+    // A run beats another if it scored more, or scored the same in fewer ticks.
+    public static boolean isBetter(int score, int ticks, GhostFile best) {
+        return best == null || score > best.score || (score == best.score && ticks < best.ticks);
+    }
+
+    public GhostTrack track() {
+        return new GhostTrack(payload.duplicate(), startY, ticks);
+    }
+}
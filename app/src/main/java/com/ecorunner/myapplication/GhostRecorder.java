@@ -0,0 +1,99 @@
+package com.ecorunner.myapplication;
+
+import java.util.Arrays;
+
+// Records the player's y position and jump presses once per tick into a compact byte stream.
+// Each tick stores how much the per-tick movement changed (a second-order delta): zero while
+// running on the ground and the gravity constant while airborne. Runs of ticks that repeat the
+// previous change without a jump collapse into one run-length token, so a typical tick costs
+// nothing and a whole jump arc only a handful of bytes.
+//
+// Token layout (varint v):
+//   v & 1 == 1            -> (v >>> 1) ticks repeating the previous change, no jump
+//   v & 1 == 0, w = v>>>1 -> one tick; jump = w & 1, change = zigzag-decoded (w >>> 1)
+//
+// The buffer never grows: a run too long for it stops being recorded (isFull()), so recording
+// costs the same on every tick.
+public class GhostRecorder {
+    private final byte[] buffer;
+    private int length = 0;
+    private boolean full = false;
+    private int ticks = 0;
+    private int startY;
+    private int lastY;
+    private int lastDelta;
+    private int lastChange;
+    private int repeatRun = 0;
+
+    public GhostRecorder(int capacity) {
+        buffer = new byte[capacity];
+    }
+
+    public void reset(int startY) {
+        this.startY = startY;
+        this.lastY = startY;
+        lastDelta = 0;
+        lastChange = 0;
+        length = 0;
+        full = false;
+        ticks = 0;
+        repeatRun = 0;
+    }
+
+    // Called once per simulation tick; only writes into the preallocated buffer. Ticks keep
+    // being counted once it is full.
+    public void record(int y, boolean jumped) {
+        ticks++;
+        if (full) return;
+        int delta = y - lastY;
+        int change = delta - lastDelta;
+        lastY = y;
+        lastDelta = delta;
+        if (change == lastChange && !jumped) {
+            repeatRun++;
+            return;
+        }
+        flushRepeats();
+        lastChange = change;
+        int zigzag = (change << 1) ^ (change >> 31);
+        writeVarint(((zigzag << 1) | (jumped ? 1 : 0)) << 1);
+    }
+
+    private void flushRepeats() {
+        if (repeatRun == 0) return;
+        writeVarint((repeatRun << 1) | 1);
+        repeatRun = 0;
+    }
+
+    private void writeVarint(int v) {
+        // A varint of a 32-bit value never needs more than 5 bytes.
+        if (length + 5 > buffer.length) {
+            full = true;
+            return;
+        }
+        while ((v & ~0x7F) != 0) {
+            buffer[length++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buffer[length++] = (byte) v;
+    }
+
+    // Finishes the stream and returns a copy of it, sized exactly.
+    public byte[] finish() {
+        flushRepeats();
+        return Arrays.copyOf(buffer, length);
+    }
+
+    // True once the run outgrew the buffer; its stream no longer matches getTicks().
+    public boolean isFull() {
+        return full;
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    public int getStartY() {
+        return startY;
+    }
+}
@@ -0,0 +1,99 @@
+package com.ecorunner.myapplication;
+
+import java.nio.ByteBuffer;
+
+// Plays back a stream written by GhostRecorder, one tick per call to advance().
+public class GhostTrack {
+    private final ByteBuffer data;
+    private final int totalTicks;
+    private final int startY;
+    private int y;
+    private int lastDelta = 0;
+    private int lastChange = 0;
+    private int tick = 0;
+    private int repeatsLeft = 0;
+    private boolean jumped;
+    private boolean corrupt = false;
+
+    public GhostTrack(ByteBuffer data, int startY, int totalTicks) {
+        this.data = data;
+        this.startY = startY;
+        this.totalTicks = totalTicks;
+        this.y = startY;
+    }
+
+    // Moves to the next tick. Returns false once the recording has run out, including when the
+    // stream ends before the tick count in the file's header says it should.
+    public boolean advance() {
+        if (tick >= totalTicks) return false;
+        jumped = false;
+        if (repeatsLeft > 0) {
+            repeatsLeft--;
+        } else {
+            int v = readVarint();
+            if (corrupt) return truncated();
+            if ((v & 1) == 1) {
+                repeatsLeft = (v >>> 1) - 1;
+            } else {
+                int w = v >>> 1;
+                jumped = (w & 1) == 1;
+                int zigzag = w >>> 1;
+                lastChange = (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        tick++;
+        lastDelta += lastChange;
+        y += lastDelta;
+        return true;
+    }
+
+    // A truncated or corrupt file ends the playback where the stream does.
+    private boolean truncated() {
+        tick = totalTicks;
+        return false;
+    }
+
+    // Sets corrupt and returns -1 if the stream ends before the varint does.
+    private int readVarint() {
+        int v = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (!data.hasRemaining() || shift > 28) {
+                corrupt = true;
+                return -1;
+            }
+            b = data.get();
+            v |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return v;
+    }
+
+    public void rewind() {
+        data.rewind();
+        y = startY;
+        lastDelta = 0;
+        lastChange = 0;
+        tick = 0;
+        repeatsLeft = 0;
+        jumped = false;
+        corrupt = false;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public boolean jumpedThisTick() {
+        return jumped;
+    }
+
+    public boolean isFinished() {
+        return tick >= totalTicks;
+    }
+
+    public int getTotalTicks() {
+        return totalTicks;
+    }
+}
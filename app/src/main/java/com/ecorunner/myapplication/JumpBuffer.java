@@ -0,0 +1,63 @@
+package com.ecorunner.myapplication;
+
+// Turns taps into jumps at the simulation tick instead of at the moment of the tap:
+// - a tap stays valid for bufferTicks after it happened, so one that lands a frame or two
+//   before the player touches down still jumps on the landing tick;
+// - the player can still jump for coyoteTicks after running off the ground or a van.
+// Taps carry their event time and ticks carry their place on the same clock (uptime ms),
+// so the outcome depends only on when things happened, not on how ticks were batched into
+// frames.
+public class JumpBuffer {
+    private final int tickMs;
+    private final int bufferTicks;
+    private final int coyoteTicks;
+
+    private volatile long pressMs = Long.MIN_VALUE; // Latest tap; written by the UI thread.
+    private long handledMs = Long.MIN_VALUE;        // Latest tap that jumped or expired.
+    private int coyoteLeft = 0;
+    private long firedPressMs;
+
+    public JumpBuffer(int tickMs, int bufferTicks, int coyoteTicks) {
+        this.tickMs = tickMs;
+        this.bufferTicks = bufferTicks;
+        this.coyoteTicks = coyoteTicks;
+    }
+
+    // Any thread. A newer tap replaces one still waiting.
+    public void press(long eventTimeMs) {
+        pressMs = eventTimeMs;
+    }
+
+    // Game thread, once per tick: supported is whether the player stands on something this
+    // tick. Returns true if the player should jump now.
+    public boolean update(long tickTimeMs, boolean supported) {
+        if (supported) {
+            coyoteLeft = coyoteTicks + 1;
+        } else if (coyoteLeft > 0) {
+            coyoteLeft--;
+        }
+        long press = pressMs;
+        // Taps from after this tick wait for a later one.
+        if (press == handledMs || press > tickTimeMs) return false;
+        if (tickTimeMs - press > (long) bufferTicks * tickMs) {
+            handledMs = press;
+            return false;
+        }
+        if (coyoteLeft == 0) return false;
+        handledMs = press;
+        firedPressMs = press;
+        coyoteLeft = 0; // No second jump from the same ledge.
+        return true;
+    }
+
+    // Event time of the tap behind the last jump update() returned.
+    public long getFiredPressMs() {
+        return firedPressMs;
+    }
+
+    public void reset() {
+        pressMs = Long.MIN_VALUE;
+        handledMs = Long.MIN_VALUE;
+        coyoteLeft = 0;
+    }
+}
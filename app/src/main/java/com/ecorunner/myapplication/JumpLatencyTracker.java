@@ -0,0 +1,64 @@
+package com.ecorunner.myapplication;
+
+// Follows one jump at a time from the touch event to the screen:
+//   input -> the simulation tick that applied the jump force -> the first posted frame that
+//   shows the player moving.
+// All timestamps are on the monotonic clock in nanoseconds; MotionEvent.getEventTime() is
+// uptime in milliseconds on that same clock, so callers pass it multiplied by 1,000,000.
+public class JumpLatencyTracker {
+    private static final int SAMPLES = 512;
+
+    private final LatencyStats inputToTick = new LatencyStats(SAMPLES);
+    private final LatencyStats tickToPost = new LatencyStats(SAMPLES);
+    private final LatencyStats inputToPost = new LatencyStats(SAMPLES);
+
+    // Jump in flight. inputNanos may be written from any thread; the rest is game-thread only.
+    private volatile long inputNanos = 0;
+    private long forcedInput = 0;   // The input the recorded force belongs to.
+    private long reportedInput = 0; // The last input whose latency was recorded.
+    private long forceNanos = 0;
+    private double forceY;
+
+    // A jump was taken for the tap at eventNanos. A newer jump replaces one still in flight.
+    // Taps buffered before landing count from the tap, so the wait to land is included.
+    public void onJumpInput(long eventNanos) {
+        inputNanos = eventNanos;
+    }
+
+    // Game thread: the tick that applied the jump force, and the player's y before it moved.
+    public void onForceApplied(long nowNanos, double yBefore) {
+        long input = inputNanos;
+        if (input == 0 || forcedInput == input || reportedInput == input) return;
+        forcedInput = input;
+        forceNanos = nowNanos;
+        forceY = yBefore;
+    }
+
+    // Game thread, right after unlockCanvasAndPost.
+    public void onFramePosted(long nowNanos, double playerY) {
+        long input = inputNanos;
+        if (input == 0 || forcedInput != input || reportedInput == input || playerY == forceY) return;
+        inputToTick.record(forceNanos - input);
+        tickToPost.record(nowNanos - forceNanos);
+        inputToPost.record(nowNanos - input);
+        reportedInput = input;
+    }
+
+    public LatencyStats getInputToPost() {
+        return inputToPost;
+    }
+
+    public String summary() {
+        return "jump latency total[" + inputToPost.summary() + "] input->tick["
+                + inputToTick.summary() + "] tick->post[" + tickToPost.summary() + "]";
+    }
+
+    public void reset() {
+        inputNanos = 0;
+        forcedInput = 0;
+        reportedInput = 0;
+        inputToTick.clear();
+        tickToPost.clear();
+        inputToPost.clear();
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecorunner.myapplication;
+
+import java.util.Arrays;
+
+// Keeps the most recent latency samples (in nanoseconds) in a fixed ring and reports
+// percentiles over them. Recording never allocates; percentiles sort a preallocated copy.
+public class LatencyStats {
+    private final long[] samples;
+    private final long[] sorted;
+    private int next = 0;
+    private int size = 0;
+    private long total = 0;     // Samples ever recorded, including ones the ring dropped.
+    private long max = 0;
+
+    public LatencyStats(int capacity) {
+        samples = new long[capacity];
+        sorted = new long[capacity];
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (size < samples.length) size++;
+        total++;
+        if (nanos > max) max = nanos;
+    }
+
+    // p in [0, 100]. Returns 0 when there are no samples.
+    public synchronized long percentile(double p) {
+        if (size == 0) return 0;
+        System.arraycopy(samples, 0, sorted, 0, size);
+        Arrays.sort(sorted, 0, size);
+        int index = (int) Math.ceil(p / 100.0 * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+
+    public synchronized long getCount() {
+        return total;
+    }
+
+    public synchronized long getMax() {
+        return max;
+    }
+
+    public synchronized void clear() {
+        next = size = 0;
+        total = max = 0;
+    }
+
+    public String summary() {
+        return "n=" + getCount()
+                + " p50=" + millis(percentile(50))
+                + " p90=" + millis(percentile(90))
+                + " p99=" + millis(percentile(99))
+                + " max=" + millis(getMax());
+    }
+
+    private static String millis(long nanos) {
+        return (nanos / 100000) / 10.0 + "ms";
+    }
+}
@@ -0,0 +1,75 @@
+package com.ecorunner.myapplication;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+// Posts a batch of scores to the leaderboard endpoint as JSON:
+//   {"scores":[{"id":"<submit id>","level":1,"score":10,"ticks":900,"time":1700000000000}, ...]}
+// The server is expected to ignore ids it has already stored, so a batch can be resent safely.
+public class LeaderboardClient {
+    public static final int OK = 0;
+    public static final int RETRY = 1;    // Network error, timeout, 5xx, 408 or 429.
+    public static final int REJECTED = 2; // Any other 4xx; resending would not help.
+
+    private static final int TIMEOUT_MS = 10000;
+
+    private final URL endpoint;
+
+    public LeaderboardClient(URL endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public int upload(ScoreQueue.Entry[] entries, int n) {
+        byte[] body = toJson(entries, n).getBytes(StandardCharsets.UTF_8);
+        HttpURLConnection conn = null;
+        try {
+            conn = (HttpURLConnection) endpoint.openConnection();
+            conn.setRequestMethod("POST");
+            conn.setConnectTimeout(TIMEOUT_MS);
+            conn.setReadTimeout(TIMEOUT_MS);
+            conn.setDoOutput(true);
+            conn.setFixedLengthStreamingMode(body.length);
+            conn.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = conn.getOutputStream()) {
+                out.write(body);
+            }
+            int code = conn.getResponseCode();
+            drain(code < 400 ? conn.getInputStream() : conn.getErrorStream());
+            if (code >= 200 && code < 300) return OK;
+            if (code >= 500 || code == 408 || code == 429) return RETRY;
+            return REJECTED;
+        } catch (IOException e) {
+            return RETRY;
+        } finally {
+            if (conn != null) conn.disconnect();
+        }
+    }
+
+    static String toJson(ScoreQueue.Entry[] entries, int n) {
+        StringBuilder sb = new StringBuilder("{\"scores\":[");
+        for (int i = 0; i < n; i++) {
+            ScoreQueue.Entry e = entries[i];
+            if (i > 0) sb.append(',');
+            sb.append("{\"id\":\"").append(Long.toHexString(e.submitId))
+                    .append("\",\"level\":").append(e.level)
+                    .append(",\"score\":").append(e.score)
+                    .append(",\"ticks\":").append(e.ticks)
+                    .append(",\"time\":").append(e.timeMs)
+                    .append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    // Reading the response lets HttpURLConnection reuse the connection.
+    private static void drain(InputStream in) throws IOException {
+        if (in == null) return;
+        try (InputStream s = in) {
+            byte[] buf = new byte[512];
+            while (s.read(buf) != -1) { }
+        }
+    }
+}
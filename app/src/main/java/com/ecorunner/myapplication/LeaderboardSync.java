@@ -0,0 +1,235 @@
+package com.ecorunner.myapplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Offline-first leaderboard submission. submit() only hands the score to a worker thread,
+// which appends it to a durable ScoreQueue under a fresh random submit id and uploads queued
+// scores in batches when it can. Failed uploads back off exponentially (with jitter) and are
+// retried with the same submit ids, so the server can drop repeats. Queue file errors back
+// off the same way and reopen the queue, so a full disk never stops the worker. Within a batch only each
+// level's best score is sent, and scores no better than one already uploaded this session
+// are skipped. Without an endpoint, scores are only queued.
+public class LeaderboardSync {
+    public static final int MAX_BATCH = 20;
+    public static final long MAX_BACKOFF_MS = 5 * 60 * 1000;
+    private static final int LEVELS = 9;
+
+    private final File queueFile;
+    private final LeaderboardClient client;
+    private final long initialBackoffMs;
+    private final ConcurrentLinkedQueue<long[]> inbox = new ConcurrentLinkedQueue<>();
+    private final Object signal = new Object();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    // Worker-thread state.
+    private ScoreQueue queue;
+    private final ScoreQueue.Entry[] batch = new ScoreQueue.Entry[MAX_BATCH];
+    private final ScoreQueue.Entry[] send = new ScoreQueue.Entry[MAX_BATCH];
+    private final int[] uploadedBest = new int[LEVELS + 1];
+    private final Random jitter = new Random();
+    private Random ids;
+    private long backoffMs = 0;
+    private long nextAttemptMs = 0;
+
+    // Metrics, written by the worker.
+    private volatile int depth = 0;
+    private volatile int uploaded = 0;
+    private volatile int skipped = 0;
+    private volatile int rejected = 0;
+    private volatile int batches = 0;
+    private volatile int failures = 0;
+    private volatile long uploadNanos = 0;
+
+    public LeaderboardSync(File queueFile, LeaderboardClient client, long initialBackoffMs) {
+        this.queueFile = queueFile;
+        this.client = client;
+        this.initialBackoffMs = initialBackoffMs;
+        for (int i = 0; i < MAX_BATCH; i++) batch[i] = new ScoreQueue.Entry();
+        worker = new Thread(this::run, "LeaderboardSync");
+        worker.setPriority(Thread.MIN_PRIORITY);
+        worker.start();
+    }
+
+    // Never blocks: the score is persisted and sent from the worker thread.
+    public void submit(int level, int score, int ticks) {
+        inbox.add(new long[]{level, score, ticks, System.currentTimeMillis()});
+        wake();
+    }
+
+    public void release() {
+        running = false;
+        wake();
+    }
+
+    // Waits for the worker to finish after release(), e.g. before reopening the queue file.
+    void join() throws InterruptedException {
+        worker.join();
+    }
+
+    private void wake() {
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+    }
+
+    private void run() {
+        ids = new SecureRandom();
+        try {
+            while (running) {
+                try {
+                    drainInbox();
+                    long now = System.currentTimeMillis();
+                    long waitMs;
+                    if (queue.depth() == 0 || client == null) {
+                        waitMs = 0; // Until the next submit.
+                    } else if (now < nextAttemptMs) {
+                        waitMs = nextAttemptMs - now;
+                    } else {
+                        uploadBatch();
+                        continue;
+                    }
+                    synchronized (signal) {
+                        if (running && inbox.isEmpty()) signal.wait(waitMs);
+                    }
+                } catch (IOException e) {
+                    // Disk full or the file gone: reopen the queue (which drops a torn record)
+                    // after a backoff. Scores not yet appended wait in the inbox.
+                    failures++;
+                    closeQueue();
+                    backOff();
+                    waitForRetry();
+                }
+            }
+            // Scores submitted just before release() are kept for the next session.
+            drainInbox();
+        } catch (IOException e) {
+            failures++;
+        } catch (InterruptedException e) {
+            // Shutting down.
+        } finally {
+            closeQueue();
+        }
+    }
+
+    private void closeQueue() {
+        if (queue == null) return;
+        try {
+            queue.close();
+        } catch (IOException ignored) {
+        }
+        queue = null;
+    }
+
+    // Exponential with up to 20% jitter, from initialBackoffMs to MAX_BACKOFF_MS.
+    private void backOff() {
+        backoffMs = backoffMs == 0 ? initialBackoffMs : Math.min(MAX_BACKOFF_MS, backoffMs * 2);
+        nextAttemptMs = System.currentTimeMillis() + backoffMs + (long) (jitter.nextDouble() * backoffMs / 5);
+    }
+
+    // Sleeps until nextAttemptMs; new submits do not cut it short, only release() does.
+    private void waitForRetry() throws InterruptedException {
+        synchronized (signal) {
+            long left;
+            while (running && (left = nextAttemptMs - System.currentTimeMillis()) > 0) signal.wait(left);
+        }
+    }
+
+    // A score leaves the inbox only once it is on disk.
+    private void drainInbox() throws IOException {
+        if (queue == null) queue = new ScoreQueue(queueFile);
+        long[] s;
+        while ((s = inbox.peek()) != null) {
+            queue.append(ids.nextLong(), (int) s[0], (int) s[1], (int) s[2], s[3]);
+            inbox.poll();
+        }
+        depth = queue.depth();
+    }
+
+    private void uploadBatch() throws IOException {
+        int n = queue.peek(batch);
+        int sendCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (isKept(i, n)) send[sendCount++] = batch[i];
+        }
+        int result = LeaderboardClient.OK;
+        if (sendCount > 0) {
+            long start = System.nanoTime();
+            result = client.upload(send, sendCount);
+            uploadNanos += System.nanoTime() - start;
+            batches++;
+        }
+        if (result == LeaderboardClient.RETRY) {
+            failures++;
+            backOff();
+            return;
+        }
+        if (result == LeaderboardClient.OK) {
+            uploaded += sendCount;
+            for (int i = 0; i < sendCount; i++) {
+                int level = send[i].level;
+                if (level >= 0 && level < uploadedBest.length) {
+                    uploadedBest[level] = Math.max(uploadedBest[level], send[i].score);
+                }
+            }
+        } else {
+            rejected += sendCount;
+        }
+        skipped += n - sendCount;
+        backoffMs = 0;
+        nextAttemptMs = 0;
+        queue.ack(n);
+        depth = queue.depth();
+    }
+
+    // Whether batch[i] is its level's best in the batch (the latest wins a tie) and beats
+    // anything already uploaded for that level.
+    private boolean isKept(int i, int n) {
+        ScoreQueue.Entry e = batch[i];
+        if (e.level >= 0 && e.level < uploadedBest.length && e.score <= uploadedBest[e.level]) return false;
+        for (int j = 0; j < n; j++) {
+            if (j == i || batch[j].level != e.level) continue;
+            ScoreQueue.Entry o = batch[j];
+            if (o.score > e.score || (o.score == e.score && (o.ticks < e.ticks || (o.ticks == e.ticks && j > i)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getQueueDepth() {
+        return depth;
+    }
+
+    public int getUploaded() {
+        return uploaded;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    public int getFailures() {
+        return failures;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    // Scores per second of time spent in upload requests.
+    public double getThroughput() {
+        long nanos = uploadNanos;
+        return nanos == 0 ? 0 : uploaded * 1e9 / nanos;
+    }
+
+    public String summary() {
+        return "leaderboard depth=" + depth + " uploaded=" + uploaded + " skipped=" + skipped
+                + " rejected=" + rejected + " batches=" + batches + " failures=" + failures
+                + " throughput=" + (int) getThroughput() + "/s";
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.Rect;
+
+// The level select screen: a 3x3 grid of level previews. Cells show a placeholder until
+// their thumbnail has loaded.
+public class LevelSelect {
+    private static final int COLUMNS = 3;
+    private static final int ROWS = 3;
+    private static final int MARGIN = 20;
+    private static final int TITLE_HEIGHT = 120;
+    private static final int TITLE_PAINT = Paints.text(Color.WHITE, 60, Paints.CENTER);
+    private static final int LABEL_PAINT = Paints.text(Color.WHITE, 36, Paints.CENTER);
+    private static final int PLACEHOLDER_PAINT = Paints.fill(Color.DKGRAY);
+
+    private final LevelThumbnails thumbnails;
+    private final Rect[] cells = new Rect[LevelThumbnails.LEVEL_COUNT];
+    private final String[] labels = new String[LevelThumbnails.LEVEL_COUNT];
+    private final Rect screen;
+
+    public LevelSelect(Rect screen, LevelThumbnails thumbnails) {
+        this.screen = screen;
+        this.thumbnails = thumbnails;
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = cellRect(screen, i);
+            labels[i] = "LEVEL " + (i + 1);
+        }
+    }
+
+    // Cell size for a screen, keeping the backgrounds' aspect ratio. Thumbnails are built at this size.
+    public static Rect cellRect(Rect screen, int index) {
+        int cellW = (screen.width() - MARGIN * (COLUMNS + 1)) / COLUMNS;
+        int cellH = (screen.height() - TITLE_HEIGHT - MARGIN * (ROWS + 1)) / ROWS;
+        // Backgrounds are 677x369; fit that shape inside the cell.
+        int w = Math.min(cellW, cellH * 677 / 369);
+        int h = w * 369 / 677;
+        int col = index % COLUMNS;
+        int row = index / COLUMNS;
+        int left = MARGIN + col * (cellW + MARGIN) + (cellW - w) / 2;
+        int top = TITLE_HEIGHT + MARGIN + row * (cellH + MARGIN) + (cellH - h) / 2;
+        return new Rect(left, top, left + w, top + h);
+    }
+
+    public void draw(Renderer renderer) {
+        renderer.drawColor(Color.BLACK);
+        renderer.drawText("SELECT LEVEL", screen.width() / 2, TITLE_HEIGHT - 30, TITLE_PAINT);
+        for (int i = 0; i < cells.length; i++) {
+            Rect cell = cells[i];
+            Bitmap thumb = thumbnails.get(i + 1);
+            if (thumb != null) {
+                renderer.drawBitmap(thumb, Renderer.WHOLE, 0, 0, 0, cell.left, cell.top, cell.right, cell.bottom, Paints.NONE);
+            } else {
+                renderer.drawRect(cell.left, cell.top, cell.right, cell.bottom, PLACEHOLDER_PAINT);
+            }
+            renderer.drawText(labels[i], cell.centerX(), cell.bottom - 16, LABEL_PAINT);
+        }
+    }
+
+    // The level whose cell contains (x, y), or 0.
+    public int levelAt(int x, int y) {
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i].contains(x, y)) return i + 1;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,139 @@
+package com.ecorunner.myapplication;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Level preview images for the level select screen: each level's far layer with its close
+// layer on top, downsampled to the grid cell size. Thumbnails are built on a background
+// thread and kept as JPEGs in the cache dir, so later launches only decode the small files.
+// The cache is wiped whenever the installed APK changes.
+public class LevelThumbnails {
+    private static final String TAG = "LEVEL_THUMBNAILS";
+    public static final int LEVEL_COUNT = 9;
+
+    private static final int[] FAR_IDS = {
+            R.drawable.lvl1_far, R.drawable.lvl2_far, R.drawable.lvl3_far,
+            R.drawable.lvl4_far, R.drawable.lvl5_far, R.drawable.lvl6_far,
+            R.drawable.lvl7_far, R.drawable.lvl8_far, R.drawable.lvl9_far };
+    private static final int[] CLOSE_IDS = {
+            R.drawable.lvl1_close, R.drawable.lvl2_close, R.drawable.lvl3_close,
+            R.drawable.lvl4_close, R.drawable.lvl5_close, R.drawable.lvl6_close,
+            R.drawable.lvl7_close, R.drawable.lvl8_close, R.drawable.lvl9_close };
+
+    private final Resources resources;
+    private final File dir;
+    private final String appVersion;
+    private final int width, height;
+    private final Bitmap[] thumbs = new Bitmap[LEVEL_COUNT];
+    private final ExecutorService loader;
+
+    public LevelThumbnails(Context context, int width, int height) {
+        this.resources = context.getResources();
+        this.dir = new File(context.getCacheDir(), "thumbnails");
+        this.appVersion = CacheVersion.appVersion(context);
+        this.width = width;
+        this.height = height;
+        loader = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "ThumbnailLoader");
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    // Starts loading (or building) every thumbnail in level order.
+    public void load() {
+        loader.execute(() -> {
+            CacheVersion.resetIfStale(dir, appVersion);
+            for (int level = 1; level <= LEVEL_COUNT; level++) {
+                Bitmap thumb = loadCached(level);
+                if (thumb == null) thumb = build(level);
+                synchronized (thumbs) {
+                    thumbs[level - 1] = thumb;
+                }
+            }
+        });
+    }
+
+    // The thumbnail for a level, or null while it is still loading.
+    public Bitmap get(int level) {
+        synchronized (thumbs) {
+            return thumbs[level - 1];
+        }
+    }
+
+    public void release() {
+        loader.shutdownNow();
+    }
+
+    private File fileFor(int level) {
+        return new File(dir, "lvl" + level + "_" + width + "x" + height + ".jpg");
+    }
+
+    private Bitmap loadCached(int level) {
+        File file = fileFor(level);
+        if (!file.exists()) return null;
+        BitmapFactory.Options opts = new BitmapFactory.Options();
+        opts.inPreferredConfig = Bitmap.Config.RGB_565;
+        return BitmapFactory.decodeFile(file.getPath(), opts);
+    }
+
+    private Bitmap build(int level) {
+        Bitmap far = decodeSampled(FAR_IDS[level - 1]);
+        Bitmap close = decodeSampled(CLOSE_IDS[level - 1]);
+        Bitmap thumb = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+        Canvas canvas = new Canvas(thumb);
+        Paint filter = new Paint(Paint.FILTER_BITMAP_FLAG);
+        Rect dst = new Rect(0, 0, width, height);
+        if (far != null) {
+            canvas.drawBitmap(far, null, dst, filter);
+            far.recycle();
+        }
+        if (close != null) {
+            canvas.drawBitmap(close, null, dst, filter);
+            close.recycle();
+        }
+        save(level, thumb);
+        return thumb;
+    }
+
+    // Decodes at the largest power-of-two reduction that still covers the thumbnail size.
+    private Bitmap decodeSampled(int resId) {
+        BitmapFactory.Options opts = new BitmapFactory.Options();
+        opts.inScaled = false;
+        opts.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(resources, resId, opts);
+        int sample = 1;
+        while (opts.outWidth / (sample * 2) >= width && opts.outHeight / (sample * 2) >= height) {
+            sample *= 2;
+        }
+        opts.inJustDecodeBounds = false;
+        opts.inSampleSize = sample;
+        return BitmapFactory.decodeResource(resources, resId, opts);
+    }
+
+    // Writes to a temporary file first so a killed process never leaves a half-written thumbnail.
+    private void save(int level, Bitmap thumb) {
+        File file = fileFor(level);
+        File tmp = new File(dir, file.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            thumb.compress(Bitmap.CompressFormat.JPEG, 85, out);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not cache thumbnail for level " + level, e);
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(file)) tmp.delete();
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecorunner.myapplication;
+
+import android.os.Debug;
+
+// Session metrics for soak and performance runs: frame times, memory high-water marks and
+// level progression. Logged when the game is released and shown in the debug overlay.
+public class Metrics {
+    private static final long MEMORY_SAMPLE_MS = 5000;
+    private static final long JANK_NANOS = 33_000_000L; // Two 60 Hz frames.
+
+    private final LatencyStats frameTimes = new LatencyStats(1024);
+    private long frames = 0;
+    private long jankFrames = 0;
+    private long lastMemorySample = 0;
+    private long heapBytes = 0, peakHeapBytes = 0;
+    private long nativeBytes = 0, peakNativeBytes = 0;
+    private int levelsCompleted = 0;
+    private int runsLost = 0;
+    private int highestLevel = 0;
+
+    // Frame-rate decisions from FrameRateGovernor: the latest few, oldest first in the summary.
+    private static final int RATE_LOG = 8;
+    private final long[] rateTimes = new long[RATE_LOG];
+    private final int[] rateFps = new int[RATE_LOG];
+    private final String[] rateReasons = new String[RATE_LOG];
+    private int rateChanges = 0;
+
+    public void onFrame(long frameNanos, long nowMs) {
+        frameTimes.record(frameNanos);
+        frames++;
+        if (frameNanos > JANK_NANOS) jankFrames++;
+        if (nowMs - lastMemorySample >= MEMORY_SAMPLE_MS) {
+            lastMemorySample = nowMs;
+            sampleMemory();
+        }
+    }
+
+    private void sampleMemory() {
+        Runtime rt = Runtime.getRuntime();
+        heapBytes = rt.totalMemory() - rt.freeMemory();
+        nativeBytes = Debug.getNativeHeapAllocatedSize();
+        peakHeapBytes = Math.max(peakHeapBytes, heapBytes);
+        peakNativeBytes = Math.max(peakNativeBytes, nativeBytes);
+    }
+
+    public void onLevelComplete(int level) {
+        levelsCompleted++;
+        highestLevel = Math.max(highestLevel, level);
+    }
+
+    public void onLost(int level) {
+        runsLost++;
+    }
+
+    public void onFrameRate(long nowMs, int fps, String reason) {
+        int i = rateChanges++ % RATE_LOG;
+        rateTimes[i] = nowMs;
+        rateFps[i] = fps;
+        rateReasons[i] = reason;
+    }
+
+    public int getFrameRate() {
+        return rateChanges == 0 ? 0 : rateFps[(rateChanges - 1) % RATE_LOG];
+    }
+
+    public String rateSummary() {
+        StringBuilder sb = new StringBuilder("rate changes=").append(rateChanges);
+        for (int n = Math.max(0, rateChanges - RATE_LOG); n < rateChanges; n++) {
+            int i = n % RATE_LOG;
+            sb.append(" [").append(rateTimes[i]).append("ms ").append(rateFps[i]).append("fps ")
+                    .append(rateReasons[i]).append(']');
+        }
+        return sb.toString();
+    }
+
+    public LatencyStats getFrameTimes() {
+        return frameTimes;
+    }
+
+    public int getLevelsCompleted() {
+        return levelsCompleted;
+    }
+
+    public int getRunsLost() {
+        return runsLost;
+    }
+
+    public int getHighestLevel() {
+        return highestLevel;
+    }
+
+    public String memorySummary() {
+        return "heap " + heapBytes / 1024 + "KB (peak " + peakHeapBytes / 1024 + "KB) native "
+                + nativeBytes / 1024 + "KB (peak " + peakNativeBytes / 1024 + "KB)";
+    }
+
+    public String summary() {
+        return "frames=" + frames + " jank=" + jankFrames + " frame[" + frameTimes.summary() + "] "
+                + memorySummary() + " levels completed=" + levelsCompleted + " highest=" + highestLevel
+                + " lost=" + runsLost + " " + rateSummary();
+    }
+}
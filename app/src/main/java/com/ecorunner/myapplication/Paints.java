@@ -0,0 +1,69 @@
+package com.ecorunner.myapplication;
+
+import java.util.Arrays;
+
+// Paint styles used by the draw code, described once with primitives and referred to by id.
+// Draw code never touches android.graphics.Paint; CanvasRenderer builds the real Paint for an
+// id the first time it is used, and RecordingRenderer just records the id.
+public final class Paints {
+    // Default paint: bitmaps drawn as-is.
+    public static final int NONE = 0;
+
+    public static final int BOLD = 1;
+    public static final int CENTER = 2;      // Text centred on x; left-aligned otherwise.
+    public static final int STROKE = 4;      // Outline; filled otherwise.
+    public static final int ROUND_CAP = 8;
+    public static final int ANTI_ALIAS = 16;
+
+    private static int count = 1;
+    private static int[] colors = new int[16];
+    private static float[] textSizes = new float[16];
+    private static float[] strokeWidths = new float[16];
+    private static int[] flags = new int[16];
+
+    private Paints() {
+    }
+
+    // Returns a new id; call once per style, typically from a static initializer.
+    public static synchronized int define(int color, float textSize, float strokeWidth, int styleFlags) {
+        if (count == colors.length) {
+            colors = Arrays.copyOf(colors, count * 2);
+            textSizes = Arrays.copyOf(textSizes, count * 2);
+            strokeWidths = Arrays.copyOf(strokeWidths, count * 2);
+            flags = Arrays.copyOf(flags, count * 2);
+        }
+        colors[count] = color;
+        textSizes[count] = textSize;
+        strokeWidths[count] = strokeWidth;
+        flags[count] = styleFlags;
+        return count++;
+    }
+
+    public static int text(int color, float textSize, int styleFlags) {
+        return define(color, textSize, 0, styleFlags);
+    }
+
+    public static int fill(int color) {
+        return define(color, 0, 0, 0);
+    }
+
+    public static synchronized int count() {
+        return count;
+    }
+
+    public static synchronized int color(int id) {
+        return colors[id];
+    }
+
+    public static synchronized float textSize(int id) {
+        return textSizes[id];
+    }
+
+    public static synchronized float strokeWidth(int id) {
+        return strokeWidths[id];
+    }
+
+    public static synchronized int flags(int id) {
+        return flags[id];
+    }
+}
@@ -0,0 +1,240 @@
+package com.ecorunner.myapplication;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Background layer for panoramas far wider than the screen. Only the vertical strips near the
+// viewport are decoded, strips ahead of the scroll are prefetched on a worker thread, and strips
+// that scroll off the left edge are evicted. Memory stays bounded by the slot count (the strips
+// that fit on screen plus the prefetch budget) no matter how long the panorama is.
+public class PanoramaLayer extends ParallaxLayer {
+    private static final String TAG = "PANORAMA_LAYER";
+    private static final int STRIP_SOURCE_WIDTH = 256; // Source pixels per strip, roughly.
+
+    // Where strips come from: a BitmapRegionDecoder on a device, anything in tests.
+    public interface StripSource {
+        int getWidth();
+
+        int getHeight();
+
+        // Source columns [left, right) at full height, or null if they could not be decoded.
+        Bitmap decode(int left, int right);
+
+        // Gives back a strip the layer no longer shows.
+        void free(Bitmap strip);
+
+        // Called on the worker once the layer is released and no decodes are left.
+        void close();
+    }
+
+    private final StripSource source;
+    private final Executor worker;
+    private final int stripCount; // The panorama repeats after this many strips.
+    private final int visible;    // Strips that can be on screen at once.
+    private boolean released = false;
+
+    // Strips are addressed by a virtual index that keeps counting up as the panorama repeats,
+    // so the slot ring never collides across the wrap point. The slot for strip k is k % slots.
+    private long firstTile = 0; // Virtual index of the leftmost visible strip.
+    private final long[] slotTile;
+    private final Bitmap[] slotBitmap;
+
+    // Opens resId for strip decoding on a low-priority thread of its own. The layer is as tall
+    // as the screen; prefetch is how many strips past the right edge are kept decoded.
+    public static PanoramaLayer open(Resources resources, int resId, float speedFactor, Rect screen, int prefetch)
+            throws IOException {
+        InputStream in = resources.openRawResource(resId);
+        StripSource source;
+        try {
+            source = new RegionSource(in, screen.height());
+        } finally {
+            in.close();
+        }
+        ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "PanoramaDecoder");
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        // Strips still being decoded leave holes, so the layer never claims to cover the screen.
+        return new PanoramaLayer(source, speedFactor, screen, false, prefetch, worker);
+    }
+
+    // The first screenful is decoded on the calling thread, so the level never opens on
+    // missing strips; everything after that is decoded on worker.
+    public PanoramaLayer(StripSource source, float speedFactor, Rect screen, boolean opaque, int prefetch,
+                         Executor worker) {
+        // Rect's fields rather than its methods, so the layer also runs in JVM tests.
+        super(speedFactor, 0, screen.bottom - screen.top, opaque);
+        this.source = source;
+        this.worker = worker;
+        stripCount = Math.max(1, Math.round(source.getWidth() / (float) STRIP_SOURCE_WIDTH));
+        // Strips are drawn scaled so the panorama height matches the screen height.
+        float scale = tileHeight / (float) source.getHeight();
+        tileWidth = Math.max(1, Math.round(source.getWidth() * scale / stripCount));
+
+        visible = (screen.right - screen.left + tileWidth - 1) / tileWidth + 1;
+        int slots = visible + Math.max(0, prefetch);
+        slotTile = new long[slots];
+        slotBitmap = new Bitmap[slots];
+        for (int i = 0; i < slots; i++) slotTile[i] = -1;
+        for (int i = 0; i < visible; i++) {
+            slotTile[i] = i;
+            slotBitmap[i] = decodeTile(i);
+        }
+        requestTiles();
+    }
+
+    @Override
+    public void update(float baseSpeed) {
+        offset += baseSpeed * speedFactor;
+        if (offset < tileWidth) return;
+        while (offset >= tileWidth) {
+            offset -= tileWidth;
+            firstTile++;
+        }
+        requestTiles();
+    }
+
+    // Retargets every slot whose strip fell behind the viewport at the next strip ahead of it.
+    private synchronized void requestTiles() {
+        if (released) return;
+        for (long k = firstTile; k < firstTile + slotTile.length; k++) {
+            int slot = (int) (k % slotTile.length);
+            if (slotTile[slot] == k) continue;
+            if (slotBitmap[slot] != null) {
+                source.free(slotBitmap[slot]);
+                slotBitmap[slot] = null;
+            }
+            slotTile[slot] = k;
+            final long tile = k;
+            worker.execute(() -> loadTile(tile));
+        }
+    }
+
+    private void loadTile(long tile) {
+        int slot = (int) (tile % slotTile.length);
+        synchronized (this) {
+            // Skip strips that were evicted again before the worker got to them.
+            if (released || slotTile[slot] != tile) return;
+        }
+        Bitmap bmp = decodeTile(tile);
+        synchronized (this) {
+            if (released || slotTile[slot] != tile) {
+                if (bmp != null) source.free(bmp);
+            } else {
+                slotBitmap[slot] = bmp;
+            }
+        }
+    }
+
+    // Strip edges are spread evenly over the source, so the repeat point has no seam.
+    private Bitmap decodeTile(long tile) {
+        long strip = tile % stripCount;
+        int left = (int) (strip * source.getWidth() / stripCount);
+        int right = (int) ((strip + 1) * source.getWidth() / stripCount);
+        return source.decode(left, right);
+    }
+
+    @Override
+    public synchronized int draw(DrawList list, int z, Rect screen) {
+        int drawn = 0;
+        long tile = firstTile;
+        for (int x = screen.left - (int) offset; x < screen.right; x += tileWidth, tile++) {
+            int slot = (int) (tile % slotTile.length);
+            // A strip that is not decoded yet is left out rather than stalling the frame.
+            if (slotTile[slot] != tile || slotBitmap[slot] == null) continue;
+            if (list.add(z, slotBitmap[slot], null, x, screen.top, x + tileWidth, screen.top + tileHeight, Paints.NONE)) {
+                drawn++;
+            }
+        }
+        return drawn;
+    }
+
+    @Override
+    public void release() {
+        synchronized (this) {
+            if (released) return;
+            released = true;
+            for (int i = 0; i < slotBitmap.length; i++) {
+                if (slotBitmap[i] != null) source.free(slotBitmap[i]);
+                slotBitmap[i] = null;
+            }
+        }
+        // Queued decodes bail out on the released flag; the source goes away after them.
+        worker.execute(source::close);
+        if (worker instanceof ExecutorService) ((ExecutorService) worker).shutdown();
+    }
+
+    // Decoded strips held right now; never more than the slot count.
+    public synchronized int getDecodedCount() {
+        int count = 0;
+        for (Bitmap b : slotBitmap) {
+            if (b != null) count++;
+        }
+        return count;
+    }
+
+    public int getSlotCount() {
+        return slotTile.length;
+    }
+
+    public int getVisibleCount() {
+        return visible;
+    }
+
+    private static class RegionSource implements StripSource {
+        private final BitmapRegionDecoder decoder;
+        private final BitmapFactory.Options options = new BitmapFactory.Options();
+        private final Rect region = new Rect();
+
+        RegionSource(InputStream in, int screenHeight) throws IOException {
+            decoder = BitmapRegionDecoder.newInstance(in, false);
+            // Subsample when the source is at least twice as tall as the screen.
+            options.inSampleSize = 1;
+            while (decoder.getHeight() / (options.inSampleSize * 2) >= screenHeight) {
+                options.inSampleSize *= 2;
+            }
+        }
+
+        @Override
+        public int getWidth() {
+            return decoder.getWidth();
+        }
+
+        @Override
+        public int getHeight() {
+            return decoder.getHeight();
+        }
+
+        @Override
+        public Bitmap decode(int left, int right) {
+            region.set(left, 0, right, decoder.getHeight());
+            try {
+                return decoder.decodeRegion(region, options);
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "Failed to decode strip " + left + ".." + right, e);
+                return null;
+            }
+        }
+
+        @Override
+        public void free(Bitmap strip) {
+            strip.recycle();
+        }
+
+        @Override
+        public void close() {
+            decoder.recycle();
+        }
+    }
+}
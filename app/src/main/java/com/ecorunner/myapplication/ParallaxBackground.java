@@ -0,0 +1,69 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Rect;
+
+import java.util.ArrayList;
+
+public class ParallaxBackground {
+    // Ordered back (index 0) to front.
+    private ArrayList<ParallaxLayer> layers = new ArrayList<>();
+    private Rect screen;
+    private float baseSpeed; // Pixels per tick for a layer with a speed factor of 1.
+
+    public ParallaxBackground(Rect screen, float baseSpeed) {
+        this.screen = screen;
+        this.baseSpeed = baseSpeed;
+    }
+
+    public void addLayer(ParallaxLayer layer) {
+        layers.add(layer);
+    }
+
+    public void update(long elapsed) {
+        for (int i = 0; i < layers.size(); i++) {
+            layers.get(i).update(baseSpeed);
+        }
+    }
+
+    // Layers hidden behind the frontmost full-screen opaque layer are skipped.
+    public int draw(DrawList list) {
+        int drawn = 0;
+        for (int i = firstVisibleLayer(); i < layers.size(); i++) {
+            drawn += layers.get(i).draw(list, DrawList.LAYER_BACKGROUND + i, screen);
+        }
+        return drawn;
+    }
+
+    // True when the background paints the whole screen, so clearing it first is wasted fill.
+    public boolean isOpaque() {
+        for (int i = layers.size() - 1; i >= 0; i--) {
+            if (layers.get(i).covers(screen)) return true;
+        }
+        return false;
+    }
+
+    private int firstVisibleLayer() {
+        for (int i = layers.size() - 1; i >= 0; i--) {
+            if (layers.get(i).covers(screen)) return i;
+        }
+        return 0;
+    }
+
+    public void release() {
+        for (int i = 0; i < layers.size(); i++) {
+            layers.get(i).release();
+        }
+    }
+
+    public float getBaseSpeed() {
+        return baseSpeed;
+    }
+
+    public void setBaseSpeed(float baseSpeed) {
+        this.baseSpeed = baseSpeed;
+    }
+
+    public int getLayerCount() {
+        return layers.size();
+    }
+}
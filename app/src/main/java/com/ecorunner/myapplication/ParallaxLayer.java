@@ -0,0 +1,62 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+public class ParallaxLayer {
+    private Bitmap image;
+    protected float speedFactor; // Fraction of the level's base speed this layer scrolls at.
+    protected boolean opaque;
+    protected int tileWidth;
+    protected int tileHeight;
+    protected float offset = 0; // How far the first tile has scrolled past the left edge.
+
+    public ParallaxLayer(Bitmap image, float speedFactor, int tileWidth, int tileHeight) {
+        this.image = image;
+        this.speedFactor = speedFactor;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        // JPG backgrounds decode without alpha, so they hide everything behind them.
+        this.opaque = image != null && !image.hasAlpha();
+    }
+
+    protected ParallaxLayer(float speedFactor, int tileWidth, int tileHeight, boolean opaque) {
+        this.speedFactor = speedFactor;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.opaque = opaque;
+    }
+
+    public void update(float baseSpeed) {
+        offset += baseSpeed * speedFactor;
+        if (offset >= tileWidth) offset %= tileWidth;
+    }
+
+    // Queues only the tiles that intersect the screen (one or two, depending on the offset).
+    public int draw(DrawList list, int z, Rect screen) {
+        if (image == null) return 0;
+        int drawn = 0;
+        for (int x = screen.left - (int) offset; x < screen.right; x += tileWidth) {
+            if (x + tileWidth <= screen.left) continue;
+            if (list.add(z, image, null, x, screen.top, x + tileWidth, screen.top + tileHeight, Paints.NONE)) drawn++;
+        }
+        return drawn;
+    }
+
+    // True when this layer alone paints every pixel of the screen.
+    public boolean covers(Rect screen) {
+        return opaque && tileHeight >= screen.height();
+    }
+
+    // Frees anything the layer holds beyond its bitmap. Called when the level is torn down.
+    public void release() {
+    }
+
+    public float getSpeedFactor() {
+        return speedFactor;
+    }
+
+    public float getOffset() {
+        return offset;
+    }
+}
@@ -0,0 +1,167 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Color;
+import android.graphics.Rect;
+
+// Fixed-capacity particle pool stored in parallel primitive arrays. Nothing is allocated after
+// construction: emitting past the level budget or past the frame-time cap just drops particles.
+public class ParticleSystem {
+    // Palette indices. Particles store an index, so drawing is one batched call per color.
+    public static final int COLOR_SHIELD = 0;
+    public static final int COLOR_LEAF = 1;
+    public static final int COLOR_SPARK = 2;
+    public static final int COLOR_DUST = 3;
+    private static final int[] PALETTE = {
+            Color.CYAN, Color.GREEN, 0xFFFF7800 /* orange */, Color.GRAY
+    };
+
+    private static final float GRAVITY = 0.6f;
+
+    private final int capacity;
+    private int budget;   // Per-level limit, <= capacity.
+    private int count = 0;
+
+    private final float[] x, y, vx, vy;
+    private final int[] life;
+    private final byte[] color;
+
+    // Scratch buffer of x,y pairs handed to drawPoints, plus one paint per palette entry.
+    private final float[] points;
+    private static final int[] PAINTS = new int[PALETTE.length];
+
+    static {
+        for (int i = 0; i < PALETTE.length; i++) {
+            PAINTS[i] = Paints.define(PALETTE[i], 0, 12, Paints.ROUND_CAP | Paints.ANTI_ALIAS);
+        }
+    }
+
+    // Cost of the previous update + draw. Emitters back off while it is above the cap.
+    private final long frameCapNanos;
+    private long lastCostNanos = 0;
+    private long costNanos = 0;
+
+    private int seed = 0x2545F491;
+
+    public ParticleSystem(int capacity, float frameCapMillis) {
+        this.capacity = capacity;
+        this.budget = capacity;
+        this.frameCapNanos = (long) (frameCapMillis * 1000000);
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        life = new int[capacity];
+        color = new byte[capacity];
+        points = new float[capacity * 2];
+    }
+
+    public void setBudget(int budget) {
+        this.budget = Math.max(0, Math.min(budget, capacity));
+        if (count > this.budget) count = this.budget;
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    // Emitters
+
+    public void emitShieldPickup(float cx, float cy) {
+        burst(cx, cy, 40, 14, 30, COLOR_SHIELD);
+        burst(cx, cy, 12, 6, 45, COLOR_LEAF);
+    }
+
+    public void emitCollision(float cx, float cy) {
+        burst(cx, cy, 30, 18, 25, COLOR_SPARK);
+    }
+
+    // Obstacle breaking apart against the shield: dust spread over the obstacle's area.
+    public void emitObstacleDispersal(Rect area) {
+        if (overCap()) return;
+        for (int i = 0; i < 30 && count < budget; i++) {
+            float px = area.left + nextFloat() * area.width();
+            float py = area.top + nextFloat() * area.height();
+            spawn(px, py, (nextFloat() - 0.5f) * 10, -nextFloat() * 12, 20 + (int) (nextFloat() * 20), COLOR_DUST);
+        }
+    }
+
+    private void burst(float cx, float cy, int n, float speed, int lifeTicks, int colorIndex) {
+        if (overCap()) return;
+        for (int i = 0; i < n && count < budget; i++) {
+            // Random direction inside a unit circle, scaled to the burst speed.
+            float dx, dy;
+            do {
+                dx = nextFloat() * 2 - 1;
+                dy = nextFloat() * 2 - 1;
+            } while (dx * dx + dy * dy > 1);
+            spawn(cx, cy, dx * speed, dy * speed, lifeTicks / 2 + (int) (nextFloat() * lifeTicks), colorIndex);
+        }
+    }
+
+    private void spawn(float px, float py, float pvx, float pvy, int ticks, int colorIndex) {
+        int i = count++;
+        x[i] = px;
+        y[i] = py;
+        vx[i] = pvx;
+        vy[i] = pvy;
+        life[i] = ticks;
+        color[i] = (byte) colorIndex;
+    }
+
+    private boolean overCap() {
+        return lastCostNanos > frameCapNanos;
+    }
+
+    public void update() {
+        long start = System.nanoTime();
+        int i = 0;
+        while (i < count) {
+            if (--life[i] <= 0) {
+                // Swap-remove keeps live particles packed at the front.
+                int last = --count;
+                x[i] = x[last];
+                y[i] = y[last];
+                vx[i] = vx[last];
+                vy[i] = vy[last];
+                life[i] = life[last];
+                color[i] = color[last];
+                continue;
+            }
+            vy[i] += GRAVITY;
+            x[i] += vx[i];
+            y[i] += vy[i];
+            i++;
+        }
+        costNanos = System.nanoTime() - start;
+    }
+
+    public void draw(Renderer renderer) {
+        long start = System.nanoTime();
+        for (int c = 0; c < PALETTE.length; c++) {
+            int n = 0;
+            for (int i = 0; i < count; i++) {
+                if (color[i] != c) continue;
+                points[n++] = x[i];
+                points[n++] = y[i];
+            }
+            if (n > 0) renderer.drawPoints(points, 0, n, PAINTS[c]);
+        }
+        lastCostNanos = costNanos + (System.nanoTime() - start);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    // xorshift; cheaper than Math.random and keeps emission deterministic per seed.
+    private float nextFloat() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return (seed >>> 8) / (float) (1 << 24);
+    }
+}
@@ -1,145 +1,152 @@
 package com.ecorunner.myapplication;
 
 import android.content.Context;
+import android.content.res.Resources;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Paint;
 import android.graphics.Rect;
 
+// Draws the Simulation's player: the running/jumping animation, the shield effect and the
+// score. Jumps, physics, the shield and the score itself are the Simulation's.
 public class Player extends Sprite {
-    private Bitmap[] runningFrames;
-    private int frameIndex = 0;
-    private long lastFrameChangeTime = 0;
-    private int frameDelay = 100; // Delay between frames in milliseconds
-    private int score = 0;
-    private Paint scorePaint;
-    private boolean onVan = false;
-    private long scoreAccumulator = 0; // (Removed auto-increment logic here)
-
-    // ECO Shield fields
-    private boolean shieldActive = false;
-    private long shieldTimer = 0; // Duration in milliseconds (5 seconds)
-    private Bitmap shieldEffectBmp; // ECO Shield effect image
+    // Animation clips, shared by every Player; each instance only owns its Animator.
+    private static final int RUN_FRAME_TICKS = 6; // ~100 ms at 60 ticks per second.
+    private static AnimationClip runClip, jumpClip, flyClip, landClip;
+    // "Score: N" kept as chars and rewritten only when the score changes, so drawing it never allocates.
+    private static final String SCORE_PREFIX = "Score: ";
+    private final char[] scoreChars = new char[SCORE_PREFIX.length() + 11];
+    private int scoreCharCount;
+    private int shownScore = -1;
+    private static final int SCORE_PAINT = Paints.text(Color.BLACK, 90, Paints.CENTER);
+    private static final int LABEL_PAINT = Paints.text(Color.WHITE, 20, Paints.CENTER);
+    private final Simulation sim;
+    private int shownJumps = 0; // Jumps the animation has already played.
 
-    public Player(Context context, Rect hitbox, Rect screen) {
-        super(null, context, hitbox, screen);
-        this.affectedByGrav = true;
+    private Bitmap shieldEffectBmp; // ECO Shield effect image
+    private SoundBoard sounds;
 
-        runningFrames = new Bitmap[]{
-                BitmapFactory.decodeResource(context.getResources(), R.drawable.run),
-                BitmapFactory.decodeResource(context.getResources(), R.drawable.run1),
-                BitmapFactory.decodeResource(context.getResources(), R.drawable.run2)
-        };
+    public Player(Context context, Rect screen, Simulation sim) {
+        super(null, screen, sim.getStore(), sim.getPlayer());
+        this.sim = sim;
 
-        this.setImage(runningFrames[0]);
+        loadClips(context.getResources());
+        this.setAnimator(new Animator(runClip));
 
-        scorePaint = new Paint();
-        scorePaint.setColor(Color.BLACK);
-        scorePaint.setTextSize(90);
-        scorePaint.setTextAlign(Paint.Align.CENTER);
+        SCORE_PREFIX.getChars(0, SCORE_PREFIX.length(), scoreChars, 0);
+        formatScore();
 
         // Load ECO Shield effect image.
-        shieldEffectBmp = BitmapFactory.decodeResource(context.getResources(), R.drawable.ecoshield_effect, null);
+        shieldEffectBmp = Assets.get(context.getResources(), R.drawable.ecoshield_effect);
     }
 
+    // Back to running for a new level.
+    public void reset() {
+        shownJumps = sim.getJumpCount();
+        setState(SpriteState.IDLE);
+    }
+
+    // After the Simulation's tick: starts the jump animation (and sound) for a jump it took,
+    // then follows the landing.
     @Override
     public void update(long elapsed) {
-        // Update shield timer if shield is active.
-        if (shieldActive) {
-            shieldTimer -= elapsed;
-            if (shieldTimer <= 0) {
-                shieldActive = false;
-            }
-        }
-
-        // Ensure the player doesn't fall below the ground.
-        if (this.getHitbox().bottom >= screen.height() - screen.width() / 10) {
-            this.setY(screen.height() - screen.width() / 10 - this.getHeight());
-            this.vy = 0;
+        int jumps = sim.getJumpCount();
+        if (jumps != shownJumps) {
+            shownJumps = jumps;
+            setState(SpriteState.JUMP);
+            if (sounds != null) sounds.play(SoundBoard.JUMP);
         }
-
-        animate();
+        updateAnimationState(sim.isSupported());
         super.update(elapsed);
-        this.ax = this.ay = 0;
-    }
-
-    private void animate() {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastFrameChangeTime > frameDelay) {
-            frameIndex = (frameIndex + 1) % runningFrames.length;
-            this.setImage(runningFrames[frameIndex]);
-            lastFrameChangeTime = currentTime;
-        }
     }
 
-    public void jump() {
-        if (Math.abs(this.getBottom() - screen.height() + screen.width() / 10) < 5 || onVan) {
-            this.applyForce(0, -60);
-            onVan = false;
+    // IDLE (running) -> JUMP -> FLY -> LAND -> IDLE, switching clips on each transition.
+    private void updateAnimationState(boolean grounded) {
+        switch (getSpriteState()) {
+            case IDLE:
+                if (!grounded && getVy() > 0) setState(SpriteState.FLY);
+                break;
+            case JUMP:
+                if (animator.isFinished()) setState(SpriteState.FLY);
+                break;
+            case FLY:
+                if (grounded) setState(SpriteState.LAND);
+                break;
+            case LAND:
+                if (animator.isFinished()) setState(SpriteState.IDLE);
+                break;
         }
     }
 
-    public void applyForce(double fax, double fay) {
-        this.ax = fax;
-        this.ay = fay;
+    private void setState(SpriteState state) {
+        setSpriteState(state);
+        animator.play(clipFor(state));
     }
 
-    @Override
-    public void draw(Canvas canvas, long elevation) {
-        // Draw the player's current frame.
-        if (this.getImage() != null) {
-            canvas.drawBitmap(this.getImage(), (float)this.getX(), (float)this.getY(), null);
-        }
-        // Draw the scoreboard at the top center.
-        canvas.drawText("Score: " + score, screen.width() / 2, 100, scorePaint);
-
-        // If ECO Shield is active, draw the ECO Shield effect merged with the player's sprite.
-        if (shieldActive) {
-            Rect hitbox = getHitbox();
-            // Scale the shield effect image to exactly match the player's dimensions.
-            Bitmap scaledShieldEffect = Bitmap.createScaledBitmap(shieldEffectBmp, hitbox.width(), hitbox.height(), false);
-            // Draw the shield effect at the same coordinates as the player's hitbox.
-            canvas.drawBitmap(scaledShieldEffect, hitbox.left, hitbox.top, null);
-            // Optionally, draw a label if desired.
-            Paint labelPaint = new Paint();
-            labelPaint.setColor(Color.WHITE);
-            labelPaint.setTextSize(20);
-            labelPaint.setTextAlign(Paint.Align.CENTER);
-            canvas.drawText("Invincible", hitbox.centerX(), hitbox.top - 10, labelPaint);
+    static AnimationClip clipFor(SpriteState state) {
+        switch (state) {
+            case JUMP:
+                return jumpClip;
+            case FLY:
+                return flyClip;
+            case LAND:
+                return landClip;
+            default:
+                return runClip;
         }
     }
 
-    public void increaseScore() {
-        score++;
+    private static synchronized void loadClips(Resources resources) {
+        if (runClip != null) return;
+        Bitmap run = Assets.get(resources, R.drawable.run);
+        Bitmap run1 = Assets.get(resources, R.drawable.run1);
+        Bitmap run2 = Assets.get(resources, R.drawable.run2);
+        runClip = new AnimationClip(new Bitmap[]{run, run1, run2}, RUN_FRAME_TICKS, AnimationClip.LoopMode.LOOP);
+        jumpClip = new AnimationClip(new Bitmap[]{run2, run1}, 3, AnimationClip.LoopMode.ONCE);
+        flyClip = new AnimationClip(new Bitmap[]{run1}, 1, AnimationClip.LoopMode.LOOP);
+        landClip = new AnimationClip(new Bitmap[]{run2, run}, 4, AnimationClip.LoopMode.ONCE);
     }
 
-    public int getScore() {
-        return score;
+    public void setSoundBoard(SoundBoard sounds) {
+        this.sounds = sounds;
     }
 
-    public void checkJumpOnVan(Sprite van) {
-        if (this.getBottom() >= van.getY() && this.getBottom() <= van.getY() + 10 &&
-                this.getHitbox().right > van.getHitbox().left &&
-                this.getHitbox().left < van.getHitbox().right) {
-            onVan = true;
+    // The player's frame is drawn at its own size from the top-left of the hitbox, with the
+    // shield effect scaled into the hitbox on top.
+    public void collect(DrawList list) {
+        Bitmap frame = getImage();
+        if (frame != null) {
+            int x = (int) getX();
+            int y = (int) getY();
+            list.add(DrawList.LAYER_PLAYER, frame, null, x, y, x + frame.getWidth(), y + frame.getHeight(), Paints.NONE);
         }
-
-        if (onVan && Math.abs(this.getBottom() - van.getY()) < 5) {
-            increaseScore();
-            onVan = false;
+        if (sim.isShieldActive()) {
+            Rect hitbox = getHitbox();
+            list.add(DrawList.LAYER_PLAYER_EFFECT, shieldEffectBmp, null,
+                    hitbox.left, hitbox.top, hitbox.right, hitbox.bottom, Paints.NONE);
         }
     }
 
-    // Activate the ECO Shield for a specified duration (5 seconds).
-    public void activateShield(long duration) {
-        shieldActive = true;
-        shieldTimer = duration;
+    // Score and shield label, drawn over the scene.
+    public void drawHud(Renderer renderer) {
+        if (sim.getScore() != shownScore) formatScore();
+        renderer.drawText(scoreChars, 0, scoreCharCount, screen.width() / 2, 100, SCORE_PAINT);
+        if (sim.isShieldActive()) {
+            Rect hitbox = getHitbox();
+            renderer.drawText("Invincible", hitbox.centerX(), hitbox.top - 10, LABEL_PAINT);
+        }
     }
 
-    // Getter for checking if the ECO Shield is active.
-    public boolean isShieldActive() {
-        return shieldActive;
+    private void formatScore() {
+        int score = sim.getScore();
+        shownScore = score;
+        int start = SCORE_PREFIX.length();
+        int digits = 1;
+        for (int v = score; v >= 10; v /= 10) digits++;
+        int v = score;
+        for (int i = start + digits - 1; i >= start; i--) {
+            scoreChars[i] = (char) ('0' + v % 10);
+            v /= 10;
+        }
+        scoreCharCount = start + digits;
     }
 }
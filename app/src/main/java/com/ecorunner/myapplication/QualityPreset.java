@@ -0,0 +1,74 @@
+package com.ecorunner.myapplication;
+
+// What the game spends on looks, picked per device by Calibration (or forced from DebugSettings).
+// MEDIUM is what every device got before presets existed.
+public enum QualityPreset {
+    // Backgrounds at half resolution, close layer dropped, few particles, 30 fps.
+    LOW(0.5f, true, 1, 96, FrameRateGovernor.LOW_FPS),
+    MEDIUM(1f, true, 2, 256, 60),
+    // Opaque art kept at 8888 (no banding in the sky gradients) and the display's top rate.
+    HIGH(1f, false, 2, 256, 0);
+
+    // Calibration frame work (update + draw, p90) that still leaves room at 60 fps, and the
+    // heap each tier wants free on top of the calibration scene.
+    static final long HIGH_FRAME_NANOS = 6_000_000L;
+    static final long MEDIUM_FRAME_NANOS = 12_000_000L;
+    static final long HIGH_HEADROOM_BYTES = 128L * 1024 * 1024;
+    static final long MEDIUM_HEADROOM_BYTES = 48L * 1024 * 1024;
+
+    private final float decodeScale;
+    private final boolean opaque565;
+    private final int parallaxLayers;
+    private final int particleBudget;
+    private final int maxFps;
+
+    QualityPreset(float decodeScale, boolean opaque565, int parallaxLayers, int particleBudget, int maxFps) {
+        this.decodeScale = decodeScale;
+        this.opaque565 = opaque565;
+        this.parallaxLayers = parallaxLayers;
+        this.particleBudget = particleBudget;
+        this.maxFps = maxFps;
+    }
+
+    // frameP90Nanos is measured with HIGH's settings, so anything that fits it comfortably
+    // gets HIGH and slower devices step down.
+    public static QualityPreset choose(long frameP90Nanos, long headroomBytes, boolean lowRam) {
+        if (lowRam) return LOW;
+        if (frameP90Nanos <= HIGH_FRAME_NANOS && headroomBytes >= HIGH_HEADROOM_BYTES) return HIGH;
+        if (frameP90Nanos <= MEDIUM_FRAME_NANOS && headroomBytes >= MEDIUM_HEADROOM_BYTES) return MEDIUM;
+        return LOW;
+    }
+
+    // Null for an unknown name.
+    public static QualityPreset fromName(String name) {
+        if (name == null) return null;
+        for (QualityPreset preset : values()) {
+            if (preset.name().equalsIgnoreCase(name)) return preset;
+        }
+        return null;
+    }
+
+    // Backgrounds are decoded at this fraction of the screen size and stretched when drawn.
+    public float getDecodeScale() {
+        return decodeScale;
+    }
+
+    // Whether opaque backgrounds are stored as RGB_565 rather than ARGB_8888.
+    public boolean isOpaque565() {
+        return opaque565;
+    }
+
+    // 2 for far and close layers; 1 keeps only the opaque far layer.
+    public int getParallaxLayers() {
+        return parallaxLayers;
+    }
+
+    public int getParticleBudget() {
+        return particleBudget;
+    }
+
+    // Highest frame rate to ask for; 0 for whatever the display offers.
+    public int getMaxFps() {
+        return maxFps;
+    }
+}
@@ -0,0 +1,209 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Bitmap;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+// A Renderer that records commands instead of drawing, for frame tests and render-path
+// benchmarks off-device. Commands go into parallel arrays that are reused from frame to
+// frame (reset() between frames), so recording allocates nothing once it has grown to the
+// frame's size. Bitmaps are recorded as small ids handed out the first time each one is
+// seen (0 for null); texts by reference.
+public class RecordingRenderer implements Renderer {
+    public static final int CLEAR = 1;
+    public static final int BITMAP = 2;
+    public static final int RECT = 3;
+    public static final int ROUND_RECT = 4;
+    public static final int CIRCLE = 5;
+    public static final int TEXT = 6;
+    public static final int POINTS = 7;
+    public static final int LINE = 8;
+
+    private int count = 0;
+    private int[] op;
+    private int[] paint;
+    private int[] bitmap;
+    private int[] src;       // 4 per command: left, top, right, bottom (WHOLE in the first);
+                             // CLEAR keeps its color in the first.
+    private float[] coords;  // 5 per command: left/x, top/y, right, bottom, radius or point count.
+    private Object[] text;   // String or char[].
+    private int[] textStart, textCount;
+
+    private final IdentityHashMap<Bitmap, Integer> bitmapIds = new IdentityHashMap<>();
+
+    public RecordingRenderer() {
+        this(64);
+    }
+
+    public RecordingRenderer(int capacity) {
+        allocate(Math.max(1, capacity));
+    }
+
+    // Starts a new frame; ids handed to bitmaps stay the same.
+    public void reset() {
+        count = 0;
+    }
+
+    private int next(int type, int paintId) {
+        if (count == op.length) allocate(count * 2);
+        int i = count++;
+        op[i] = type;
+        paint[i] = paintId;
+        bitmap[i] = 0;
+        src[i * 4] = WHOLE;
+        text[i] = null;
+        return i;
+    }
+
+    private void set(int i, float a, float b, float c, float d, float e) {
+        int k = i * 5;
+        coords[k] = a;
+        coords[k + 1] = b;
+        coords[k + 2] = c;
+        coords[k + 3] = d;
+        coords[k + 4] = e;
+    }
+
+    @Override
+    public void drawColor(int color) {
+        int i = next(CLEAR, Paints.NONE);
+        src[i * 4] = color;
+        set(i, 0, 0, 0, 0, 0);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bmp, int srcLeft, int srcTop, int srcRight, int srcBottom,
+                           int left, int top, int right, int bottom, int paintId) {
+        int i = next(BITMAP, paintId);
+        bitmap[i] = idOf(bmp);
+        src[i * 4] = srcLeft;
+        src[i * 4 + 1] = srcTop;
+        src[i * 4 + 2] = srcRight;
+        src[i * 4 + 3] = srcBottom;
+        set(i, left, top, right, bottom, 0);
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, int paintId) {
+        set(next(RECT, paintId), left, top, right, bottom, 0);
+    }
+
+    @Override
+    public void drawRoundRect(float left, float top, float right, float bottom, float radius, int paintId) {
+        set(next(ROUND_RECT, paintId), left, top, right, bottom, radius);
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, int paintId) {
+        set(next(CIRCLE, paintId), cx, cy, 0, 0, radius);
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, int paintId) {
+        set(next(LINE, paintId), startX, startY, stopX, stopY, 0);
+    }
+
+    @Override
+    public void drawText(String s, float x, float y, int paintId) {
+        int i = next(TEXT, paintId);
+        text[i] = s;
+        textStart[i] = 0;
+        textCount[i] = s.length();
+        set(i, x, y, 0, 0, 0);
+    }
+
+    @Override
+    public void drawText(char[] chars, int start, int n, float x, float y, int paintId) {
+        int i = next(TEXT, paintId);
+        text[i] = chars;
+        textStart[i] = start;
+        textCount[i] = n;
+        set(i, x, y, 0, 0, 0);
+    }
+
+    @Override
+    public void drawPoints(float[] points, int offset, int n, int paintId) {
+        set(next(POINTS, paintId), 0, 0, 0, 0, n / 2);
+    }
+
+    private int idOf(Bitmap bmp) {
+        if (bmp == null) return 0;
+        Integer id = bitmapIds.get(bmp);
+        if (id == null) {
+            id = bitmapIds.size() + 1;
+            bitmapIds.put(bmp, id);
+        }
+        return id;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    // Commands of one type recorded this frame.
+    public int count(int type) {
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (op[i] == type) n++;
+        }
+        return n;
+    }
+
+    // Index of the first command of a type at or after from, or -1.
+    public int indexOf(int type, int from) {
+        for (int i = from; i < count; i++) {
+            if (op[i] == type) return i;
+        }
+        return -1;
+    }
+
+    public int getOp(int i) {
+        return op[i];
+    }
+
+    public int getPaint(int i) {
+        return paint[i];
+    }
+
+    public int getBitmapId(int i) {
+        return bitmap[i];
+    }
+
+    public int getColor(int i) {
+        return src[i * 4];
+    }
+
+    public boolean isWholeBitmap(int i) {
+        return src[i * 4] == WHOLE;
+    }
+
+    public int getSrc(int i, int edge) {
+        return src[i * 4 + edge];
+    }
+
+    // Left, top, right, bottom (0-3) of a box or the ends of a line; x, y (0-1) of text or a
+    // circle; 4 is the radius or, for points, how many were drawn.
+    public float getCoord(int i, int k) {
+        return coords[i * 5 + k];
+    }
+
+    // Builds a String, so meant for assertions rather than per-frame use.
+    public String getText(int i) {
+        Object t = text[i];
+        if (t == null) return null;
+        if (t instanceof String) return (String) t;
+        return new String((char[]) t, textStart[i], textCount[i]);
+    }
+
+    private void allocate(int capacity) {
+        op = op == null ? new int[capacity] : Arrays.copyOf(op, capacity);
+        paint = paint == null ? new int[capacity] : Arrays.copyOf(paint, capacity);
+        bitmap = bitmap == null ? new int[capacity] : Arrays.copyOf(bitmap, capacity);
+        src = src == null ? new int[capacity * 4] : Arrays.copyOf(src, capacity * 4);
+        coords = coords == null ? new float[capacity * 5] : Arrays.copyOf(coords, capacity * 5);
+        text = text == null ? new Object[capacity] : Arrays.copyOf(text, capacity);
+        textStart = textStart == null ? new int[capacity] : Arrays.copyOf(textStart, capacity);
+        textCount = textCount == null ? new int[capacity] : Arrays.copyOf(textCount, capacity);
+    }
+}
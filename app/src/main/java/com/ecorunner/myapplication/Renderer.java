@@ -0,0 +1,32 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Bitmap;
+
+// What the game draws with. Arguments are primitives plus a Paints id, so a frame can be
+// drawn to a Canvas (CanvasRenderer) or captured as a list of commands (RecordingRenderer)
+// by the same code.
+public interface Renderer {
+    // Pass as srcLeft to draw the whole bitmap.
+    int WHOLE = -1;
+
+    void drawColor(int color);
+
+    // Draws the src region of bitmap (or all of it, with srcLeft == WHOLE) into the dst box.
+    void drawBitmap(Bitmap bitmap, int srcLeft, int srcTop, int srcRight, int srcBottom,
+                    int left, int top, int right, int bottom, int paint);
+
+    void drawRect(float left, float top, float right, float bottom, int paint);
+
+    void drawRoundRect(float left, float top, float right, float bottom, float radius, int paint);
+
+    void drawCircle(float cx, float cy, float radius, int paint);
+
+    void drawLine(float startX, float startY, float stopX, float stopY, int paint);
+
+    void drawText(String text, float x, float y, int paint);
+
+    void drawText(char[] text, int start, int count, float x, float y, int paint);
+
+    // count floats from offset, as x,y pairs.
+    void drawPoints(float[] points, int offset, int count, int paint);
+}
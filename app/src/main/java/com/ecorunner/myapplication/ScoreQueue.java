@@ -0,0 +1,122 @@
+package com.ecorunner.myapplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+// Durable FIFO of leaderboard submissions. The file is a header holding the index of the
+// first unsent record, followed by fixed-size records that are only ever appended. Sent
+// records are acknowledged by moving the head; once everything is sent the file is
+// truncated back to the header. A record cut short by a crash is dropped on open.
+// Not thread-safe: LeaderboardSync owns it on its worker thread.
+public class ScoreQueue {
+    private static final int MAGIC = 0x53435251; // "SCRQ"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 32;
+
+    public static class Entry {
+        public long submitId;
+        public int level;
+        public int score;
+        public int ticks;
+        public long timeMs;
+    }
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private long head;  // First unacknowledged record.
+    private long count; // Records in the file, acknowledged or not.
+
+    public ScoreQueue(File path) throws IOException {
+        file = new RandomAccessFile(path, "rw");
+        channel = file.getChannel();
+        if (channel.size() < HEADER_SIZE || !readHeader()) {
+            head = 0;
+            channel.truncate(0);
+            writeHeader();
+        }
+        count = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+        // Drop a partial trailing record and a head pointing past the end.
+        channel.truncate(HEADER_SIZE + count * RECORD_SIZE);
+        if (head > count) {
+            head = count;
+            writeHeader();
+        }
+    }
+
+    public void append(long submitId, int level, int score, int ticks, long timeMs) throws IOException {
+        record.clear();
+        record.putLong(submitId).putInt(level).putInt(score).putInt(ticks).putInt(0).putLong(timeMs);
+        record.flip();
+        long pos = HEADER_SIZE + count * RECORD_SIZE;
+        while (record.hasRemaining()) pos += channel.write(record, pos);
+        channel.force(false);
+        count++;
+    }
+
+    // Fills out with up to out.length unacknowledged records, oldest first. Returns how many.
+    public int peek(Entry[] out) throws IOException {
+        int n = (int) Math.min(out.length, count - head);
+        for (int i = 0; i < n; i++) {
+            record.clear();
+            long pos = HEADER_SIZE + (head + i) * RECORD_SIZE;
+            while (record.hasRemaining()) {
+                if (channel.read(record, pos + record.position()) < 0) throw new IOException("Queue truncated");
+            }
+            record.flip();
+            Entry e = out[i];
+            e.submitId = record.getLong();
+            e.level = record.getInt();
+            e.score = record.getInt();
+            e.ticks = record.getInt();
+            record.getInt();
+            e.timeMs = record.getLong();
+        }
+        return n;
+    }
+
+    // Marks the oldest n records as sent.
+    public void ack(int n) throws IOException {
+        head = Math.min(count, head + n);
+        if (head == count) {
+            head = 0;
+            count = 0;
+            channel.truncate(HEADER_SIZE);
+        }
+        writeHeader();
+    }
+
+    public int depth() {
+        return (int) (count - head);
+    }
+
+    public void close() throws IOException {
+        channel.close();
+        file.close();
+    }
+
+    private boolean readHeader() throws IOException {
+        header.clear();
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) return false;
+        }
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) return false;
+        head = header.getLong();
+        return head >= 0;
+    }
+
+    private void writeHeader() throws IOException {
+        header.clear();
+        header.putInt(MAGIC).putInt(VERSION).putLong(head);
+        header.flip();
+        long pos = 0;
+        while (header.hasRemaining()) pos += channel.write(header, pos);
+        channel.force(false);
+    }
+}
@@ -0,0 +1,342 @@
+package com.ecorunner.myapplication;
+
+// The rules of a run, one fixed tick at a time, with no Android dependency: the player's and
+// the obstacle's physics in an EntityStore, jumps, platforms, obstacle spawns, scoring, the
+// eco-shield and level completion. Game steps it on the game thread and draws its two entities
+// through Player and Vehicle handles; HeadlessRunner steps the same class on the JVM.
+public class Simulation {
+    public static final int JUMP_FORCE = -60; // Vertical acceleration applied on the tick of a jump.
+    // How long a tap waits for the player to land, and how long after leaving the ground
+    // (or a platform) a tap still jumps: ~100 ms and ~80 ms at 16 ms per tick.
+    public static final int JUMP_BUFFER_TICKS = 6;
+    public static final int COYOTE_TICKS = 5;
+
+    public static final int PLAYER_X = 400;
+    public static final int PLAYER_WIDTH = 10;
+    public static final int PLAYER_HEIGHT = 50;
+    public static final int OBSTACLE_SIZE = 230;
+    public static final long SHIELD_MS = 5000;
+    private static final int SHIELD_POINTS = 5;
+
+    // What happened during a step(), as bits of its result.
+    public static final int TAP_JUMP = 1;       // A buffered tap jumped this tick.
+    public static final int SPAWNED = 2;        // A new obstacle (or shield) is at the right edge.
+    public static final int SHIELD_PICKUP = 4;  // The player ran into an eco-shield.
+    public static final int SHIELD_HIT = 8;     // The shielded player is running through an obstacle.
+    public static final int LOST = 16;          // The player hit an obstacle without a shield, or fell.
+    public static final int COMPLETE = 32;      // The level's target score was reached.
+
+    private final int width;
+    private final int height;
+    private final EntityStore store;
+    private final TimerWheel timers;
+    private final SpawnScheduler spawner;
+    private final int player;
+    private final int obstacle;
+    private Terrain terrain;
+
+    private int level = 1;
+    private int target;
+    private int score = 0;
+    private float scrollSpeed = 0; // Pixels per tick the level moves left.
+    private int speedIncrements = 0;
+
+    private boolean onPlatform = false;
+    private int jumpCount = 0;
+    private final JumpBuffer jumpBuffer = new JumpBuffer(GameThread.TICK_MS, JUMP_BUFFER_TICKS, COYOTE_TICKS);
+
+    private boolean obstacleCleared = false; // Whether the obstacle has already been counted as evaded.
+    // Solid pixels of the obstacle's art at OBSTACLE_SIZE; null tests the hitbox only.
+    private CollisionMask obstacleMask;
+
+    private boolean shieldActive = false;
+    private int shieldTimer = TimerWheel.NONE; // Ends the shield when it fires.
+    private final TimerWheel.Callback shieldExpired = () -> shieldActive = false;
+
+    public Simulation(int width, int height, EntityStore store, TimerWheel timers, SpawnScheduler spawner) {
+        this.width = width;
+        this.height = height;
+        this.store = store;
+        this.timers = timers;
+        this.spawner = spawner;
+        player = store.create(PLAYER_X, 0, PLAYER_WIDTH, PLAYER_HEIGHT);
+        obstacle = store.create(width, 0, OBSTACLE_SIZE, OBSTACLE_SIZE);
+        terrain = Terrain.flat(width, height, store);
+    }
+
+    // Eco points needed to complete each level.
+    public static int targetPointsFor(int level) {
+        switch (level) {
+            case 2:
+                return 20;
+            case 3:
+                return 30;
+            case 4:
+                return 40;
+            case 5:
+                return 45;
+            case 6:
+                return 50;
+            case 7:
+                return 55;
+            case 8:
+                return 60;
+            case 9:
+                return 80;
+            default:
+                return 10;
+        }
+    }
+
+    // Starts the level over: its terrain, the player dropping in just above the ground, a
+    // fresh spawn queue and the first obstacle. A tap still buffered from the last run is
+    // dropped rather than jumping on the first tick of this one. Timers from the previous run
+    // are the caller's to clear, since the wheel is shared with the rest of the game.
+    public void reset(int level) {
+        this.level = level;
+        target = targetPointsFor(level);
+        score = 0;
+        speedIncrements = 0;
+        onPlatform = false;
+        jumpBuffer.reset();
+        shieldActive = false;
+        timers.cancel(shieldTimer);
+        shieldTimer = TimerWheel.NONE;
+
+        terrain = Terrain.flat(width, height, store);
+        int groundY = surfaceOrRoadAt(PLAYER_X + PLAYER_WIDTH / 2);
+        store.setPosition(player, PLAYER_X, groundY - PLAYER_HEIGHT - 20);
+        store.setVelocity(player, 0, 0);
+        store.setAcceleration(player, 0, 0);
+        store.setGravity(player, true);
+
+        spawner.reset(level);
+        spawner.next();
+        spawn();
+    }
+
+    // A tick of the run. tickTimeMs is the tick's place on the clock taps are stamped with.
+    // Returns the events of the tick as a mask of TAP_JUMP, SPAWNED, etc.
+    public int step(long elapsed, long tickTimeMs) {
+        int events = 0;
+        timers.advance(elapsed);
+        if (jumpBuffer.update(tickTimeMs, canJump())) {
+            applyJump();
+            events |= TAP_JUMP;
+        }
+
+        // The feet rest on the ground; one physics pass moves everything, then the player
+        // lands on any platform crossed on the way down.
+        int ground = groundBottom();
+        if (store.getBottom(player) >= ground) {
+            store.setY(player, ground - PLAYER_HEIGHT);
+            store.setVy(player, 0);
+        }
+        int before = store.getBottom(player);
+        store.integrateAll();
+        store.setAcceleration(player, 0, 0);
+        landOnPlatform(before);
+        terrain.scroll(scrollSpeed);
+        // Nothing below a gap catches the player; dropping out of the screen ends the run.
+        if (store.getTop(player) >= height) return events | LOST;
+
+        if (store.getX(obstacle) + OBSTACLE_SIZE < 0) {
+            if (!obstacleCleared) {
+                obstacleCleared = true;
+                if (!isObstacleShield()) score++;
+                spawner.onObstacleEvaded();
+            }
+            if (spawner.poll()) {
+                spawn();
+                events |= SPAWNED;
+            }
+        }
+        // Level 2 speeds up every 5 points.
+        if (level == 2 && score / 5 > speedIncrements) {
+            speedIncrements = score / 5;
+            scrollSpeed += 2;
+            store.setVx(obstacle, store.getVx(obstacle) - 2);
+        }
+
+        if (obstacleHits()) {
+            if (isObstacleShield()) {
+                activateShield(SHIELD_MS);
+                score += SHIELD_POINTS;
+                events |= SHIELD_PICKUP;
+                spawner.next();
+                spawn();
+                events |= SPAWNED;
+            } else if (!shieldActive) {
+                return events | LOST;
+            } else {
+                events |= SHIELD_HIT;
+            }
+        }
+        if (score >= target) events |= COMPLETE;
+        return events;
+    }
+
+    // Hitbox test first; only boxes that overlap go on to the obstacle's collision mask.
+    private boolean obstacleHits() {
+        if (!store.intersects(player, obstacle)) return false;
+        if (obstacleMask == null) return true;
+        return CollisionMask.overlaps(
+                null, store.getLeft(player), store.getTop(player), PLAYER_WIDTH, PLAYER_HEIGHT,
+                obstacleMask, store.getLeft(obstacle), store.getTop(obstacle), OBSTACLE_SIZE, OBSTACLE_SIZE);
+    }
+
+    // Puts the spawn the scheduler just handed out at the right edge. Obstacles can be landed
+    // on; eco-shields are picked up by running into them.
+    private void spawn() {
+        if (isObstacleShield()) {
+            terrain.detach(obstacle);
+        } else {
+            terrain.attach(obstacle);
+        }
+        store.setPosition(obstacle, width, obstacleTopAt(width));
+        store.setVx(obstacle, spawner.getSpeed());
+        obstacleCleared = false;
+        obstacleMask = null;
+    }
+
+    // Obstacles' roofs stand a fortieth of the screen width above the road where they spawn.
+    private int obstacleTopAt(int x) {
+        return surfaceOrRoadAt(x) - width / 40;
+    }
+
+    // The ground at screen x, or the level's usual road height over a gap, so nothing is
+    // placed at Terrain.NONE.
+    private int surfaceOrRoadAt(int x) {
+        int surface = terrain.surfaceHeightAt(x);
+        return surface != Terrain.NONE ? surface : Terrain.groundFor(width, height);
+    }
+
+    // Platforms are caught in the tick the feet pass their top, so the player never sinks into
+    // one. Standing on a platform lands on it again every tick. Landing on one scores a point.
+    private void landOnPlatform(int before) {
+        int top = terrain.platformTopCrossed(store.getLeft(player), store.getRight(player),
+                before, store.getBottom(player));
+        boolean landed = top != Terrain.NONE;
+        if (landed) {
+            store.setY(player, top - PLAYER_HEIGHT);
+            store.setVy(player, 0);
+            if (!onPlatform) score++;
+        }
+        onPlatform = landed;
+    }
+
+    // Where the player's feet rest when running on the ground; Terrain.NONE over a gap.
+    public int groundBottom() {
+        return terrain.surfaceHeightAt((store.getLeft(player) + store.getRight(player)) >> 1);
+    }
+
+    public boolean canJump() {
+        if (onPlatform) return true;
+        int ground = groundBottom();
+        return ground != Terrain.NONE && Math.abs(store.getY(player) + PLAYER_HEIGHT - ground) < 5;
+    }
+
+    // Whether the player's feet are on the ground or a platform, for the running animation.
+    public boolean isSupported() {
+        return store.getBottom(player) >= groundBottom() || onPlatform;
+    }
+
+    // Jumps right away if the player can. The autopilot uses this; taps go through requestJump.
+    public void jump() {
+        if (canJump()) applyJump();
+    }
+
+    // Any thread: a tap at eventTimeMs (uptime). The jump itself happens in a later tick.
+    public void requestJump(long eventTimeMs) {
+        jumpBuffer.press(eventTimeMs);
+    }
+
+    // Lets the pilot make this tick's jump decision from what it can see of the run.
+    public void autoJump(AutoPilot pilot) {
+        if (pilot.shouldJump(store.getX(player), store.getY(player), PLAYER_WIDTH, PLAYER_HEIGHT,
+                store.getVy(player), canJump(), groundBottom(),
+                store.getX(obstacle), store.getY(obstacle), OBSTACLE_SIZE, OBSTACLE_SIZE,
+                store.getVx(obstacle), isObstacleShield())) {
+            jump();
+        }
+    }
+
+    private void applyJump() {
+        store.setAcceleration(player, 0, JUMP_FORCE);
+        onPlatform = false;
+        jumpCount++;
+    }
+
+    // Activate the ECO Shield for a specified duration.
+    public void activateShield(long duration) {
+        timers.cancel(shieldTimer);
+        shieldActive = true;
+        shieldTimer = timers.schedule(duration, shieldExpired);
+    }
+
+    public boolean isShieldActive() {
+        return shieldActive;
+    }
+
+    public boolean isObstacleShield() {
+        return spawner.getType() == SpawnScheduler.SHIELD;
+    }
+
+    public void setObstacleMask(CollisionMask mask) {
+        obstacleMask = mask;
+    }
+
+    public float getScrollSpeed() {
+        return scrollSpeed;
+    }
+
+    public void setScrollSpeed(float speed) {
+        scrollSpeed = speed;
+    }
+
+    public void setTarget(int points) {
+        target = points;
+    }
+
+    public int getTarget() {
+        return target;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    // Jumps taken so far, from taps and the autopilot; lets the game notice new ones.
+    public int getJumpCount() {
+        return jumpCount;
+    }
+
+    // Uptime of the tap behind the most recent buffered jump.
+    public long getJumpPressTime() {
+        return jumpBuffer.getFiredPressMs();
+    }
+
+    public boolean isOnPlatform() {
+        return onPlatform;
+    }
+
+    public int getPlayer() {
+        return player;
+    }
+
+    public int getObstacle() {
+        return obstacle;
+    }
+
+    public EntityStore getStore() {
+        return store;
+    }
+
+    public SpawnScheduler getSpawner() {
+        return spawner;
+    }
+
+    public Terrain getTerrain() {
+        return terrain;
+    }
+}
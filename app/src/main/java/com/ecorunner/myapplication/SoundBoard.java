@@ -0,0 +1,163 @@
+package com.ecorunner.myapplication;
+
+import android.content.Context;
+import android.media.AudioAttributes;
+import android.media.SoundPool;
+import android.util.Log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Sound effects on a SoundPool. Callers never touch the pool directly: play() drops the effect
+// into a lock-free bounded ring and returns, and a dedicated audio thread drains the ring. Effects are preloaded per level while the pre-level dialogue is showing.
+public class SoundBoard {
+    private static final String TAG = "SOUND_BOARD";
+
+    public static final int JUMP = 0;
+    public static final int SHIELD = 1;
+    public static final int LEVEL_COMPLETE = 2;
+    public static final int LOSE = 3;
+    private static final int[] EFFECT_RES = {
+            R.raw.sfx_jump, R.raw.sfx_shield, R.raw.sfx_level_complete, R.raw.sfx_lose
+    };
+
+    private static final int QUEUE_SIZE = 16; // Power of two.
+
+    private Context context;
+    private SoundPool pool;
+    private int[] soundIds = new int[EFFECT_RES.length];
+    private volatile int loadedMask = 0; // Bit per effect, set once SoundPool finished decoding it.
+    private int loadedLevel = 0;
+
+    // Trigger ring. Producers (game and UI threads) claim a slot with a CAS on writeIndex; each
+    // slot's sequence number says whether it is free for a producer or ready for the consumer.
+    private final int[] queueEffect = new int[QUEUE_SIZE];
+    private final long[] queueTime = new long[QUEUE_SIZE];
+    private final AtomicLongArray sequence = new AtomicLongArray(QUEUE_SIZE);
+    private final AtomicLong writeIndex = new AtomicLong();
+    private long readIndex = 0; // Audio thread only.
+    private final AtomicLong dropped = new AtomicLong();
+    private Thread audioThread;
+    private volatile boolean running = true;
+
+    // Trigger-to-play latency, as seen from the audio thread.
+    private static final int[] LATENCY_BUCKETS_MS = {1, 2, 4, 8, 16, 32, 64};
+    private final long[] latencyHistogram = new long[LATENCY_BUCKETS_MS.length + 1];
+    private long latencyCount = 0;
+    private long latencyTotalNanos = 0;
+    private long latencyMaxNanos = 0;
+
+    public SoundBoard(Context context) {
+        this.context = context;
+        for (int i = 0; i < QUEUE_SIZE; i++) sequence.set(i, i);
+        pool = new SoundPool.Builder()
+                .setMaxStreams(4)
+                .setAudioAttributes(new AudioAttributes.Builder()
+                        .setUsage(AudioAttributes.USAGE_GAME)
+                        .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                        .build())
+                .build();
+        pool.setOnLoadCompleteListener((soundPool, sampleId, status) -> {
+            for (int i = 0; i < soundIds.length; i++) {
+                if (soundIds[i] == sampleId && status == 0) markLoaded(i);
+            }
+        });
+
+        audioThread = new Thread(this::drain, "SoundBoard");
+        audioThread.setPriority(Thread.MAX_PRIORITY);
+        audioThread.start();
+    }
+
+    // Starts decoding the level's effects. SoundPool decodes on its own thread, so this returns
+    // immediately; the dialogue countdown gives it time to finish before play starts.
+    public void preloadLevel(int level) {
+        if (loadedLevel != 0) return; // Every level currently shares the same effects.
+        for (int i = 0; i < EFFECT_RES.length; i++) {
+            soundIds[i] = pool.load(context, EFFECT_RES[i], 1);
+        }
+        loadedLevel = level;
+    }
+
+    // Non-blocking. If the ring is full the effect is dropped rather than waiting.
+    public void play(int effect) {
+        long triggered = System.nanoTime();
+        long w;
+        int slot;
+        while (true) {
+            w = writeIndex.get();
+            slot = (int) (w & (QUEUE_SIZE - 1));
+            long diff = sequence.get(slot) - w;
+            if (diff < 0) {
+                dropped.incrementAndGet();
+                return;
+            }
+            if (diff == 0 && writeIndex.compareAndSet(w, w + 1)) break;
+        }
+        queueEffect[slot] = effect;
+        queueTime[slot] = triggered;
+        sequence.lazySet(slot, w + 1); // Publish to the audio thread.
+        LockSupport.unpark(audioThread);
+    }
+
+    private void drain() {
+        while (running) {
+            long r = readIndex;
+            int slot = (int) (r & (QUEUE_SIZE - 1));
+            if (sequence.get(slot) != r + 1) {
+                LockSupport.parkNanos(this, 5000000);
+                continue;
+            }
+            int effect = queueEffect[slot];
+            long triggered = queueTime[slot];
+            sequence.lazySet(slot, r + QUEUE_SIZE); // Hand the slot back to producers.
+            readIndex = r + 1;
+
+            // Effects still decoding are skipped rather than played late.
+            if ((loadedMask & (1 << effect)) != 0) {
+                pool.play(soundIds[effect], 1f, 1f, 1, 0, 1f);
+                recordLatency(System.nanoTime() - triggered);
+            }
+        }
+    }
+
+    private synchronized void markLoaded(int effect) {
+        loadedMask |= 1 << effect;
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latencyCount++;
+        latencyTotalNanos += nanos;
+        if (nanos > latencyMaxNanos) latencyMaxNanos = nanos;
+        int bucket = 0;
+        while (bucket < LATENCY_BUCKETS_MS.length && nanos > LATENCY_BUCKETS_MS[bucket] * 1000000L) bucket++;
+        latencyHistogram[bucket]++;
+    }
+
+    public synchronized String latencySummary() {
+        if (latencyCount == 0) return "no sounds played";
+        StringBuilder sb = new StringBuilder();
+        sb.append("plays=").append(latencyCount)
+                .append(" avg=").append(latencyTotalNanos / latencyCount / 1000).append("us")
+                .append(" max=").append(latencyMaxNanos / 1000).append("us")
+                .append(" dropped=").append(dropped.get())
+                .append(" histogram(ms)=");
+        for (int i = 0; i < latencyHistogram.length; i++) {
+            sb.append(i < LATENCY_BUCKETS_MS.length ? "<=" + LATENCY_BUCKETS_MS[i] : ">" + LATENCY_BUCKETS_MS[i - 1])
+                    .append(':').append(latencyHistogram[i]).append(' ');
+        }
+        return sb.toString();
+    }
+
+    public void release() {
+        running = false;
+        LockSupport.unpark(audioThread);
+        try {
+            audioThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Log.i(TAG, "Trigger-to-play latency: " + latencySummary());
+        pool.release();
+    }
+}
@@ -0,0 +1,214 @@
+package com.ecorunner.myapplication;
+
+import java.util.Random;
+
+// Decides upcoming obstacles ahead of time. A small queue holds the next few spawns (type,
+// delay, speed) rolled from weighted per-level tables, and every queued type is handed to a
+// Warmer as soon as it is rolled, so its bitmap is decoded long before the spawn happens.
+// The eco-shield rules also live here: a guaranteed shield after enough evaded obstacles,
+// and a cooldown during which no shield spawns at all.
+public class SpawnScheduler {
+    public interface Warmer {
+        // Called on the game thread; implementations should hand the work to a background thread.
+        void warm(int type);
+    }
+
+    public static final int SHIELD = R.drawable.ecoshield;
+    public static final int LOOKAHEAD = 3;
+
+    public static final int SHIELD_AFTER_EVADED = 10;  // Evaded obstacles that earn a shield.
+    public static final long SHIELD_COOLDOWN_MS = 15000;
+    private static final float BASE_SPEED = -30;       // Matches Vehicle's default vx.
+
+    // Weighted spawn tables, one row per level. The shield keeps a 10% share on every level.
+    private static final int[][] TYPES = {
+            {R.drawable.trashpilesl1, R.drawable.wastefulappl11, R.drawable.carbonmonster, SHIELD},
+            {R.drawable.smokel2, R.drawable.garbageheapsl2, SHIELD},
+            {R.drawable.energywasterl3, R.drawable.trashcanl3, SHIELD},
+            {R.drawable.scalel4, R.drawable.documentl4, R.drawable.piggybankl4, SHIELD},
+            {R.drawable.cuttingtreesl5, R.drawable.waterwastel5, SHIELD},
+            {R.drawable.spillwastel6, R.drawable.smogl6, R.drawable.gasl6, R.drawable.greenhousel6, SHIELD},
+            {R.drawable.floodl7, R.drawable.canl7, SHIELD},
+            {R.drawable.scrolll8, R.drawable.solarpanell8, SHIELD},
+            {R.drawable.cutl9, R.drawable.whipl9, R.drawable.firel9, SHIELD},
+    };
+    private static final int[][] WEIGHTS = {
+            {30, 30, 30, 10},
+            {45, 45, 10},
+            {45, 45, 10},
+            {30, 30, 30, 10},
+            {45, 45, 10},
+            {45, 45, 45, 45, 20},
+            {45, 45, 10},
+            {45, 45, 10},
+            {30, 30, 30, 10},
+    };
+
+    private final Random random;
+    private final Warmer warmer;
+    private int level = 1;
+    // Applied to spawns as they are rolled; endless mode tightens these over time.
+    private float spawnSpeed = BASE_SPEED;
+    private int spawnDelayTicks = 0;
+
+    // Ring buffer of upcoming spawns; always kept full.
+    private final int[] queueType = new int[LOOKAHEAD];
+    private final int[] queueDelay = new int[LOOKAHEAD]; // Ticks to wait after the previous obstacle clears.
+    private final float[] queueSpeed = new float[LOOKAHEAD];
+    private int head = 0;
+
+    // The spawn most recently taken off the queue.
+    private int type;
+    private float speed;
+
+    private int obstaclesEvadedCount = 0;
+    private final TimerWheel timers;
+    private int ecoShieldSpawnCooldown = TimerWheel.NONE;
+    private boolean shieldCoolingDown = false; // No shield may spawn until the cooldown fires.
+    private final TimerWheel.Callback cooldownOver = () -> shieldCoolingDown = false;
+
+    public SpawnScheduler(Random random, Warmer warmer, TimerWheel timers) {
+        this.random = random;
+        this.warmer = warmer;
+        this.timers = timers;
+    }
+
+    public void reset(int level) {
+        this.level = (level >= 1 && level <= TYPES.length) ? level : 1;
+        spawnSpeed = BASE_SPEED;
+        spawnDelayTicks = 0;
+        obstaclesEvadedCount = 0;
+        timers.cancel(ecoShieldSpawnCooldown);
+        ecoShieldSpawnCooldown = TimerWheel.NONE;
+        shieldCoolingDown = false;
+        head = 0;
+        for (int i = 0; i < LOOKAHEAD; i++) roll(i);
+    }
+
+    // Switches to another level's table without touching the shield state. Spawns already
+    // queued keep their types.
+    public void setLevel(int level) {
+        this.level = (level >= 1 && level <= TYPES.length) ? level : 1;
+    }
+
+    public void setSpawnSpeed(float speed) {
+        spawnSpeed = speed;
+    }
+
+    public void setSpawnDelayTicks(int ticks) {
+        spawnDelayTicks = ticks;
+    }
+
+    public void onObstacleEvaded() {
+        obstaclesEvadedCount++;
+    }
+
+    // Call once per tick while waiting for the next obstacle. Returns true when it is due;
+    // getType()/getSpeed() then describe it.
+    public boolean poll() {
+        if (queueDelay[head] > 0) {
+            queueDelay[head]--;
+            return false;
+        }
+        take();
+        return true;
+    }
+
+    // Takes the next spawn immediately, ignoring its delay.
+    public void next() {
+        take();
+    }
+
+    private void take() {
+        if (obstaclesEvadedCount >= SHIELD_AFTER_EVADED && !shieldCoolingDown) {
+            // Guaranteed shield; the queued spawn stays at the head for next time.
+            type = SHIELD;
+            speed = spawnSpeed;
+        } else {
+            type = queueType[head];
+            speed = queueSpeed[head];
+            if (type == SHIELD && shieldCoolingDown) {
+                type = rollObstacle();
+                warmer.warm(type);
+            }
+            roll(head);
+            head = (head + 1) % LOOKAHEAD;
+        }
+        if (type == SHIELD) {
+            obstaclesEvadedCount = 0;
+            timers.cancel(ecoShieldSpawnCooldown);
+            ecoShieldSpawnCooldown = timers.schedule(SHIELD_COOLDOWN_MS, cooldownOver);
+            shieldCoolingDown = true;
+        }
+    }
+
+    private void roll(int slot) {
+        int[] weights = WEIGHTS[level - 1];
+        int total = 0;
+        for (int w : weights) total += w;
+        int r = random.nextInt(total);
+        int i = 0;
+        while (r >= weights[i]) r -= weights[i++];
+        queueType[slot] = TYPES[level - 1][i];
+        queueDelay[slot] = spawnDelayTicks;
+        queueSpeed[slot] = spawnSpeed;
+        warmer.warm(queueType[slot]);
+    }
+
+    // Rolls from the table with the shield left out.
+    private int rollObstacle() {
+        int[] types = TYPES[level - 1];
+        int[] weights = WEIGHTS[level - 1];
+        int total = 0;
+        for (int i = 0; i < types.length; i++) if (types[i] != SHIELD) total += weights[i];
+        int r = random.nextInt(total);
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] == SHIELD) continue;
+            if (r < weights[i]) return types[i];
+            r -= weights[i];
+        }
+        return types[0];
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    // Build-independent code for an obstacle type: its level row * 16 + its column in that
+    // row's table, or 0 for the shield. Resource ids change between builds; these do not.
+    public static int obstacleCode(int type) {
+        if (type == SHIELD) return 0;
+        for (int row = 0; row < TYPES.length; row++) {
+            for (int col = 0; col < TYPES[row].length; col++) {
+                if (TYPES[row][col] == type) return (row + 1) * 16 + col;
+            }
+        }
+        return -1;
+    }
+
+    // Inverse of obstacleCode; 0 for unknown codes.
+    public static int typeForCode(int code) {
+        if (code == 0) return SHIELD;
+        int row = code / 16 - 1;
+        int col = code % 16;
+        if (row < 0 || row >= TYPES.length || col >= TYPES[row].length) return 0;
+        return TYPES[row][col];
+    }
+
+    public float getSpeed() {
+        return speed;
+    }
+
+    // Type of the i-th queued spawn (0 = next).
+    public int peek(int i) {
+        return queueType[(head + i) % LOOKAHEAD];
+    }
+
+    public long getShieldCooldown() {
+        return timers.remainingMs(ecoShieldSpawnCooldown);
+    }
+
+    public int getObstaclesEvadedCount() {
+        return obstaclesEvadedCount;
+    }
+}
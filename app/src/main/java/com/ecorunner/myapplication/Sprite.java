@@ -1,138 +1,148 @@
 package com.ecorunner.myapplication;
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.Path;
 import android.graphics.Rect;
 
+// Handle over an entry in the EntityStore; position, velocity and hitbox live in the store.
 public class Sprite {
     public enum SpriteState {
         IDLE, JUMP, FLY, LAND
     }
     public Bitmap image;
-    public Context context;
-    private Rect hitbox;
     public Rect screen;
     private SpriteState spriteState;
+    // Optional animation; when set, it picks the image every tick.
+    protected Animator animator;
 
-    private int width;
-    private int height;
-    private double x;
-    private double y;
+    protected final EntityStore store;
+    protected final int id;
+    // Canvas-facing copy of the store's hitbox, refreshed by getHitbox().
+    private final Rect hitbox = new Rect();
 
-    public double vx;
-    public double vy;
-    public double ax;
-    public double ay;
+    // Debug drawing is rare, so every sprite shares these.
+    public static final int HITBOX_PAINT = Paints.define(Color.MAGENTA, 0, 10, Paints.STROKE);
+    private static final int VECTOR_PAINT = Paints.define(Color.GREEN, 0, 8, Paints.STROKE);
 
-    public final double FRIC = 3;
-    public final double GRAV = 4;
-    public boolean affectedByGrav = false;
-
-    Paint noAliasPaint = new Paint();
-    Paint borderPaint = new Paint();
-    Paint vectorPaint = new Paint();
-
-    public Sprite(Bitmap image, Context context, Rect hitbox, Rect screen) {
+    public Sprite(Bitmap image, Context context, Rect hitbox, Rect screen, EntityStore store) {
         this.image = image;
-        this.context = context;
-        this.hitbox = hitbox;
         this.screen = screen;
         spriteState = SpriteState.IDLE;
 
-        this.width = hitbox.width();
-        this.height = hitbox.height();
-        this.x = hitbox.left;
-        this.y = hitbox.top;
-
-        this.vx = 0;
-        this.vy = 0;
-        this.ax = 0;
-        this.ay = 0;
-
-        noAliasPaint.setAntiAlias(false);
-        noAliasPaint.setFilterBitmap(false);
-        noAliasPaint.setDither(false);
-        noAliasPaint.setColor(Color.GREEN);
-
-        borderPaint.setStrokeWidth(10);
-        borderPaint.setStyle(Paint.Style.STROKE);
+        this.store = store;
+        this.id = store.create(hitbox.left, hitbox.top, hitbox.width(), hitbox.height());
+    }
 
-        vectorPaint.setStyle(Paint.Style.STROKE);
-        vectorPaint.setStrokeWidth(8);
-        vectorPaint.setColor(Color.GREEN);
+    // Handle over an entity created elsewhere, e.g. one the Simulation moves. It stays with
+    // its owner, so release() must not be called on such a sprite.
+    public Sprite(Bitmap image, Rect screen, EntityStore store, int id) {
+        this.image = image;
+        this.screen = screen;
+        spriteState = SpriteState.IDLE;
+        this.store = store;
+        this.id = id;
     }
 
+    // Advances the animation. Positions move for every sprite at once, in the store's
+    // integrateAll() pass that the Simulation runs each tick.
     public void update(long elapsed) {
-        vx += ax;
-        vy += ay;
-
-        if(this.affectedByGrav) vy += GRAV;
-        setX(this.getX() + vx);
-        setY(this.getY() + vy);
+        if (animator != null) {
+            animator.tick();
+            image = animator.getFrame();
+        }
     }
 
-    public void draw(Canvas canvas, long elevation) {
+    public void draw(Renderer renderer, long elevation) {
         if(image != null) {
-            this.setY(this.getY());
-            canvas.drawBitmap(image, null, getHitbox(), null);
+            Rect box = getHitbox();
+            Rect region = animator != null ? animator.getRegion() : null;
+            if (region == null) {
+                renderer.drawBitmap(image, Renderer.WHOLE, 0, 0, 0, box.left, box.top, box.right, box.bottom, Paints.NONE);
+            } else {
+                renderer.drawBitmap(image, region.left, region.top, region.right, region.bottom,
+                        box.left, box.top, box.right, box.bottom, Paints.NONE);
+            }
         } else {
-            drawHitbox(canvas, elevation, Color.MAGENTA);
+            drawHitbox(renderer, elevation, HITBOX_PAINT);
         }
     }
 
-    public void drawHitbox(Canvas canvas, long elevation, int color) {
-        borderPaint.setColor(color);
-        this.setY(this.getY());
-        canvas.drawRect(hitbox, borderPaint);
+    // Queues the current image into the hitbox. Sprites without an image add nothing.
+    public void collect(DrawList list, int z) {
+        if (image == null) return;
+        Rect box = getHitbox();
+        list.add(z, image, animator != null ? animator.getRegion() : null,
+                box.left, box.top, box.right, box.bottom, Paints.NONE);
     }
 
-    public void drawVecs(Canvas canvas, long elevation, int scalar) {
-        Path path = new Path();
-        path.moveTo(this.getHitbox().centerX(), this.getHitbox().centerY());
-        path.lineTo(this.getHitbox().centerX() + (int) vx * scalar,
-                this.getHitbox().centerY() + (int) vy * scalar);
-        path.close();
-        canvas.drawPath(path, vectorPaint);
+    public void drawHitbox(Renderer renderer, long elevation, int paint) {
+        Rect box = getHitbox();
+        renderer.drawRect(box.left, box.top, box.right, box.bottom, paint);
+    }
+
+    public void drawVecs(Renderer renderer, long elevation, int scalar) {
+        Rect box = getHitbox();
+        renderer.drawLine(box.centerX(), box.centerY(), box.centerX() + (int) getVx() * scalar,
+                box.centerY() + (int) getVy() * scalar, VECTOR_PAINT);
+    }
+
+    // Returns this sprite's entity id to the store. The sprite must not be used afterwards.
+    public void release() {
+        store.release(id);
     }
 
     public Rect getHitbox() {
+        hitbox.left = store.getLeft(id);
+        hitbox.top = store.getTop(id);
+        hitbox.right = store.getRight(id);
+        hitbox.bottom = store.getBottom(id);
         return hitbox;
     }
 
-    public int getHeight() {return this.height;}
+    public int getId() {return this.id;}
+
+    public int getHeight() {return store.getHeight(id);}
 
-    public int getWidth() {return this.width;}
+    public int getWidth() {return store.getWidth(id);}
 
-    public double getX() {return this.x;}
+    public double getX() {return store.getX(id);}
 
-    public double getY() {return this.y;}
+    public double getY() {return store.getY(id);}
 
-    public double getRight() {return this.x + this.getWidth();}
+    public double getRight() {return store.getX(id) + store.getWidth(id);}
 
-    public double getBottom() {return this.y + this.getHeight();}
+    public double getBottom() {return store.getY(id) + store.getHeight(id);}
 
     public void setX(double x) {
-        this.x = x;
-        this.getHitbox().set(
-                (int) x,
-                (int) y,
-                (int) x + this.getWidth(),
-                (int) y + this.getHeight()
-        );
+        store.setX(id, x);
     }
 
     public void setY(double y) {
-        this.y = y;
-        this.getHitbox().set(
-                (int) x,
-                (int) y,
-                (int) x + this.getWidth(),
-                (int) y + this.getHeight()
-        );
+        store.setY(id, y);
+    }
+
+    public void setPosition(double x, double y) {
+        store.setPosition(id, x, y);
+    }
+
+    public double getVx() {return store.getVx(id);}
+
+    public double getVy() {return store.getVy(id);}
+
+    public void setVx(double vx) {
+        store.setVx(id, vx);
+    }
+
+    public void setVy(double vy) {
+        store.setVy(id, vy);
+    }
+
+    public void setAcceleration(double ax, double ay) {
+        store.setAcceleration(id, ax, ay);
+    }
+
+    public void setAffectedByGrav(boolean affected) {
+        store.setGravity(id, affected);
     }
 
     public void setImage(Bitmap image) {
@@ -142,4 +152,21 @@ public class Sprite {
     public Bitmap getImage() {
         return this.image;
     }
-}
\ No newline at end of file
+
+    public void setAnimator(Animator animator) {
+        this.animator = animator;
+        if (animator != null) this.image = animator.getFrame();
+    }
+
+    public Animator getAnimator() {
+        return animator;
+    }
+
+    public SpriteState getSpriteState() {
+        return spriteState;
+    }
+
+    public void setSpriteState(SpriteState spriteState) {
+        this.spriteState = spriteState;
+    }
+}
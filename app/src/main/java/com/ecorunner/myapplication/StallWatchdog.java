@@ -0,0 +1,165 @@
+package com.ecorunner.myapplication;
+
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Watches the game thread for stalled frames and counts blocking work (decodes, file reads
+// and writes) done on the game or UI thread. GameThread brackets every frame with
+// beginFrame/endFrame; a watchdog thread that sees a frame run past the threshold captures
+// the game thread's stack at that moment. Blocking primitives call noteBlocking. Each call
+// site is logged the first time it is seen and counted after that; stop() logs the totals.
+public class StallWatchdog {
+    private static final String TAG = "STALL_WATCHDOG";
+    private static final String APP_PACKAGE = "com.ecorunner.myapplication.";
+    private static final int STACK_LINES = 12;
+
+    // The running watchdog, for the static noteBlocking hook. Null when none is running.
+    private static volatile StallWatchdog active;
+
+    // Where reports go: logcat in the app, a list in tests. Priority is a Log level.
+    public interface Output {
+        void print(int priority, String message);
+    }
+
+    private final Output output;
+    private final long thresholdNanos;
+    private final long pollMs;
+    private volatile Thread gameThread;
+    private volatile Thread uiThread;
+    private Thread watcher;
+    private volatile boolean running = false;
+
+    // Written by the game thread, read by the watcher.
+    private volatile long frameStart = 0;
+    private volatile long frameSeq = 0;
+    private long capturedSeq = -1;
+    private int longFrames = 0;
+
+    // Call site -> {count, worst ms}. Guarded by itself.
+    private final HashMap<String, long[]> sites = new HashMap<>();
+
+    public StallWatchdog(long thresholdMs) {
+        this(thresholdMs, (priority, message) -> Log.println(priority, TAG, message));
+    }
+
+    public StallWatchdog(long thresholdMs, Output output) {
+        this.output = output;
+        this.thresholdNanos = thresholdMs * 1_000_000L;
+        this.pollMs = Math.max(1, thresholdMs / 2);
+    }
+
+    // Called on the game thread before its first frame.
+    public void start(Thread gameThread) {
+        Looper main = Looper.getMainLooper();
+        start(gameThread, main != null ? main.getThread() : null);
+    }
+
+    void start(Thread gameThread, Thread uiThread) {
+        this.gameThread = gameThread;
+        this.uiThread = uiThread;
+        running = true;
+        watcher = new Thread(this::watch, "StallWatchdog");
+        watcher.setDaemon(true);
+        watcher.start();
+        active = this;
+    }
+
+    public void beginFrame() {
+        frameStart = System.nanoTime();
+    }
+
+    public void endFrame() {
+        long duration = System.nanoTime() - frameStart;
+        frameStart = 0;
+        frameSeq++;
+        if (duration > thresholdNanos) longFrames++;
+    }
+
+    public void stop() {
+        if (active == this) active = null;
+        running = false;
+        if (watcher != null) watcher.interrupt();
+        output.print(Log.INFO, report());
+    }
+
+    // Hook for blocking primitives. Counts the call if it runs on the game or UI thread.
+    public static void noteBlocking(String what) {
+        StallWatchdog w = active;
+        if (w == null) return;
+        Thread t = Thread.currentThread();
+        if (t != w.gameThread && t != w.uiThread) return;
+        // [0] is this method, [1] the primitive, [2] the code that called it.
+        StackTraceElement[] stack = new Throwable().getStackTrace();
+        String site = what + " on " + t.getName() + " from "
+                + (stack.length > 2 ? stack[2] : stack[stack.length - 1]);
+        if (w.record(site, 0)) w.output.print(Log.WARN, "Blocking call: " + site);
+    }
+
+    private void watch() {
+        while (running) {
+            try {
+                Thread.sleep(pollMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long start = frameStart;
+            long seq = frameSeq;
+            if (start == 0 || seq == capturedSeq) continue;
+            long stalled = System.nanoTime() - start;
+            if (stalled < thresholdNanos) continue;
+            capturedSeq = seq;
+            StackTraceElement[] stack = gameThread.getStackTrace();
+            String site = "Stall in " + appFrame(stack);
+            if (record(site, stalled / 1_000_000L)) {
+                StringBuilder sb = new StringBuilder(site).append(" (").append(stalled / 1_000_000L).append("ms)");
+                for (int i = 0; i < Math.min(STACK_LINES, stack.length); i++) {
+                    sb.append("\n    at ").append(stack[i]);
+                }
+                output.print(Log.WARN, sb.toString());
+            }
+        }
+    }
+
+    // The innermost frame in our own code, which is where a fix would go.
+    private static String appFrame(StackTraceElement[] stack) {
+        for (StackTraceElement e : stack) {
+            if (e.getClassName().startsWith(APP_PACKAGE) && !e.getClassName().endsWith("StallWatchdog")) {
+                return e.toString();
+            }
+        }
+        return stack.length > 0 ? stack[0].toString() : "unknown";
+    }
+
+    // Returns true the first time a site is seen.
+    private boolean record(String site, long ms) {
+        synchronized (sites) {
+            long[] entry = sites.get(site);
+            boolean first = entry == null;
+            if (first) {
+                entry = new long[2];
+                sites.put(site, entry);
+            }
+            entry[0]++;
+            entry[1] = Math.max(entry[1], ms);
+            return first;
+        }
+    }
+
+    public int getLongFrames() {
+        return longFrames;
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder("Long frames: ").append(longFrames);
+        synchronized (sites) {
+            for (Map.Entry<String, long[]> e : sites.entrySet()) {
+                sb.append("\n  ").append(e.getValue()[0]).append("x ").append(e.getKey());
+                if (e.getValue()[1] > 0) sb.append(" (worst ").append(e.getValue()[1]).append("ms)");
+            }
+        }
+        return sb.toString();
+    }
+}
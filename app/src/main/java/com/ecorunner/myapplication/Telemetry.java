@@ -0,0 +1,109 @@
+package com.ecorunner.myapplication;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+// Gameplay events in a fixed 16-byte binary record, appended to one log file across
+// sessions. record() copies the event into a preallocated buffer and returns; a background
+// thread swaps buffers and appends the full one to the file every FLUSH_MS or when the
+// buffer is half full. If a buffer fills before it can be flushed, further events are
+// dropped and counted rather than blocking the game. TelemetryReader reads the file back.
+//
+// Record (little-endian): type u8, level u8, obstacle code u16 (SpawnScheduler.obstacleCode),
+// tick i32 (ticks since the run started), score i32, time i32 (epoch seconds).
+public class Telemetry {
+    public static final int RECORD_SIZE = 16;
+
+    public static final int RUN_START = 1;
+    public static final int DEATH = 2;
+    public static final int SHIELD_PICKUP = 3;
+    public static final int LEVEL_COMPLETE = 4;
+
+    private static final long FLUSH_MS = 2000;
+
+    private final File file;
+    private final int capacity;
+    private ByteBuffer active;
+    private ByteBuffer flushing;
+    private final Object lock = new Object();
+    private final Thread writer;
+    private volatile boolean running = true;
+    private long dropped = 0;
+    private volatile long written = 0;
+
+    public Telemetry(File file, int capacityEvents) {
+        this.file = file;
+        this.capacity = capacityEvents;
+        active = ByteBuffer.allocate(capacityEvents * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        flushing = ByteBuffer.allocate(capacityEvents * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        writer = new Thread(this::run, "Telemetry");
+        writer.setPriority(Thread.MIN_PRIORITY);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public void record(int type, int level, int obstacleCode, int tick, int score) {
+        synchronized (lock) {
+            if (active.remaining() < RECORD_SIZE) {
+                dropped++;
+                return;
+            }
+            active.put((byte) type).put((byte) level).putShort((short) obstacleCode)
+                    .putInt(tick).putInt(score).putInt((int) (System.currentTimeMillis() / 1000));
+            if (active.position() >= capacity * RECORD_SIZE / 2) lock.notifyAll();
+        }
+    }
+
+    // Stops the writer after a final flush.
+    public void close() {
+        running = false;
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        try {
+            writer.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try (FileOutputStream out = new FileOutputStream(file, true);
+             FileChannel channel = out.getChannel()) {
+            while (true) {
+                boolean last = !running;
+                ByteBuffer full;
+                synchronized (lock) {
+                    if (running && active.position() < capacity * RECORD_SIZE / 2) {
+                        lock.wait(FLUSH_MS);
+                    }
+                    full = active;
+                    active = flushing;
+                    flushing = full;
+                    active.clear();
+                }
+                full.flip();
+                while (full.hasRemaining()) channel.write(full);
+                written += full.limit() / RECORD_SIZE;
+                full.clear();
+                if (last) break;
+            }
+        } catch (IOException | InterruptedException e) {
+            // Telemetry is best effort; the game carries on without it.
+        }
+    }
+
+    public long getDropped() {
+        synchronized (lock) {
+            return dropped;
+        }
+    }
+
+    public long getWritten() {
+        return written;
+    }
+}
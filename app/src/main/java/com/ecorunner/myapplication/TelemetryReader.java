@@ -0,0 +1,94 @@
+package com.ecorunner.myapplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Reads Telemetry logs on the JVM (pulled off a device with adb) and aggregates them:
+// deaths per level and obstacle, run lengths, level completions and shield pickups.
+// TelemetryReport in the unit test sources is the command line front end.
+public class TelemetryReader {
+    public static final int LEVELS = 9;
+
+    public int events = 0;
+    public int runs = 0;
+    public final int[] deathsPerLevel = new int[LEVELS + 1];
+    public final int[] completionsPerLevel = new int[LEVELS + 1];
+    public final int[] shieldsPerLevel = new int[LEVELS + 1];
+    // "level:obstacle code" -> deaths, sorted for stable reports.
+    public final TreeMap<String, Integer> deathsByObstacle = new TreeMap<>();
+    private long endedRunTicks = 0;
+    private int endedRuns = 0;
+
+    // Adds every complete record in the file; a torn record at the end is ignored.
+    public void read(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            while (map.remaining() >= Telemetry.RECORD_SIZE) {
+                int type = map.get() & 0xff;
+                int level = map.get() & 0xff;
+                int obstacle = map.getShort() & 0xffff;
+                int tick = map.getInt();
+                map.getInt(); // Score.
+                map.getInt(); // Time.
+                add(type, level, obstacle, tick);
+            }
+        }
+    }
+
+    void add(int type, int level, int obstacle, int tick) {
+        events++;
+        int l = level >= 0 && level <= LEVELS ? level : 0;
+        switch (type) {
+            case Telemetry.RUN_START:
+                runs++;
+                break;
+            case Telemetry.DEATH:
+                deathsPerLevel[l]++;
+                deathsByObstacle.merge(level + ":" + obstacle, 1, Integer::sum);
+                endedRuns++;
+                endedRunTicks += tick;
+                break;
+            case Telemetry.LEVEL_COMPLETE:
+                completionsPerLevel[l]++;
+                endedRuns++;
+                endedRunTicks += tick;
+                break;
+            case Telemetry.SHIELD_PICKUP:
+                shieldsPerLevel[l]++;
+                break;
+        }
+    }
+
+    // Mean ticks from run start to death or completion.
+    public double meanRunTicks() {
+        return endedRuns == 0 ? 0 : endedRunTicks / (double) endedRuns;
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("events=").append(events).append(" runs=").append(runs)
+                .append(" mean run=").append((int) meanRunTicks()).append(" ticks\n");
+        for (int level = 1; level <= LEVELS; level++) {
+            sb.append("level ").append(level)
+                    .append(": deaths=").append(deathsPerLevel[level])
+                    .append(" completed=").append(completionsPerLevel[level])
+                    .append(" shields=").append(shieldsPerLevel[level]).append('\n');
+        }
+        for (Map.Entry<String, Integer> e : deathsByObstacle.entrySet()) {
+            String[] key = e.getKey().split(":");
+            int code = Integer.parseInt(key[1]);
+            sb.append("deaths on level ").append(key[0]).append(" by obstacle ")
+                    .append(code / 16).append('/').append(code % 16)
+                    .append(": ").append(e.getValue()).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,170 @@
+package com.ecorunner.myapplication;
+
+import java.util.Arrays;
+
+// What the player can stand on, in screen pixels (y grows down, so a surface's height is the y
+// of its top edge):
+// - ground: a run of segments sorted by where they start, each flat until the next one; a
+//   segment at NONE is a gap;
+// - static platforms: spans with a top edge, sorted by left edge;
+// - moving platforms: the top edge of an EntityStore entity, e.g. the current obstacle.
+// Ground and static platforms are laid out in level coordinates and scroll left with the
+// scenery. Lookups binary-search the sorted arrays, so they cost O(log n) in the size of the
+// level; only the few moving platforms are checked one by one.
+public class Terrain {
+    // Height of "no surface"; below every real one.
+    public static final int NONE = Integer.MAX_VALUE;
+
+    private final EntityStore store;
+
+    private int[] groundX = new int[4];
+    private int[] groundTop = new int[4];
+    private int groundCount = 0;
+
+    private int[] platformLeft = new int[4];
+    private int[] platformRight = new int[4];
+    private int[] platformTop = new int[4];
+    private int platformCount = 0;
+    private int widestPlatform = 0;
+
+    private int[] moving = new int[2];
+    private int movingCount = 0;
+
+    private double scroll = 0; // How far the level has moved left, in pixels.
+
+    public Terrain(EntityStore store) {
+        this.store = store;
+    }
+
+    // Where the player's feet rest on a flat level.
+    public static int groundFor(int screenWidth, int screenHeight) {
+        return screenHeight - screenWidth / 10;
+    }
+
+    // One flat road segment, the ground of every level. Nothing draws terrain and the scenery
+    // art is a continuous road, so gaps or platforms would be invisible; a level with its own
+    // shape needs art for it, and then builds its terrain with addGround, addGap and addPlatform.
+    public static Terrain flat(int screenWidth, int screenHeight, EntityStore store) {
+        Terrain terrain = new Terrain(store);
+        terrain.addGround(Integer.MIN_VALUE, groundFor(screenWidth, screenHeight));
+        return terrain;
+    }
+
+    // Ground from startX (level coordinates) to the next segment. Segments are added left to right.
+    public void addGround(int startX, int top) {
+        if (groundCount > 0 && startX <= groundX[groundCount - 1]) {
+            throw new IllegalArgumentException("Ground segments out of order at " + startX);
+        }
+        if (groundCount == groundX.length) {
+            groundX = Arrays.copyOf(groundX, groundCount * 2);
+            groundTop = Arrays.copyOf(groundTop, groundCount * 2);
+        }
+        groundX[groundCount] = startX;
+        groundTop[groundCount] = top;
+        groundCount++;
+    }
+
+    public void addGap(int startX) {
+        addGround(startX, NONE);
+    }
+
+    // A platform from left to right (level coordinates) with its top at top.
+    public void addPlatform(int left, int right, int top) {
+        if (platformCount == platformLeft.length) {
+            platformLeft = Arrays.copyOf(platformLeft, platformCount * 2);
+            platformRight = Arrays.copyOf(platformRight, platformCount * 2);
+            platformTop = Arrays.copyOf(platformTop, platformCount * 2);
+        }
+        // Insert in order of left edge; levels are built once, so the shuffle does not matter.
+        int i = platformCount++;
+        while (i > 0 && platformLeft[i - 1] > left) {
+            platformLeft[i] = platformLeft[i - 1];
+            platformRight[i] = platformRight[i - 1];
+            platformTop[i] = platformTop[i - 1];
+            i--;
+        }
+        platformLeft[i] = left;
+        platformRight[i] = right;
+        platformTop[i] = top;
+        widestPlatform = Math.max(widestPlatform, right - left);
+    }
+
+    // Makes the entity's top edge a platform until detached. Attaching twice is harmless.
+    public void attach(int entity) {
+        for (int i = 0; i < movingCount; i++) {
+            if (moving[i] == entity) return;
+        }
+        if (movingCount == moving.length) moving = Arrays.copyOf(moving, movingCount * 2);
+        moving[movingCount++] = entity;
+    }
+
+    public void detach(int entity) {
+        for (int i = 0; i < movingCount; i++) {
+            if (moving[i] == entity) {
+                moving[i] = moving[--movingCount];
+                return;
+            }
+        }
+    }
+
+    // Once per tick, by the distance the scenery moved.
+    public void scroll(double dx) {
+        scroll += dx;
+    }
+
+    // Height of the ground at screen x, or NONE over a gap.
+    public int surfaceHeightAt(int x) {
+        long levelX = x + (long) scroll;
+        // Last segment starting at or before levelX.
+        int lo = 0, hi = groundCount - 1, found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (groundX[mid] <= levelX) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found < 0 ? NONE : groundTop[found];
+    }
+
+    // The highest platform top in [fromBottom, toBottom] under any of [left, right) (screen
+    // coordinates), or NONE: where feet that moved from fromBottom to toBottom this tick land.
+    public int platformTopCrossed(int left, int right, int fromBottom, int toBottom) {
+        int best = NONE;
+        int offset = (int) scroll;
+        // Platforms that can reach the span start no further left than the widest one is wide.
+        int levelLeft = left + offset;
+        int levelRight = right + offset;
+        int i = lastStartingBefore(levelRight);
+        for (; i >= 0 && platformLeft[i] >= levelLeft - widestPlatform; i--) {
+            if (platformRight[i] <= levelLeft) continue;
+            int top = platformTop[i];
+            if (top >= fromBottom && top <= toBottom && top < best) best = top;
+        }
+        for (int m = 0; m < movingCount; m++) {
+            int id = moving[m];
+            if (!store.isAlive(id)) continue;
+            if (store.getRight(id) <= left || store.getLeft(id) >= right) continue;
+            int top = store.getTop(id);
+            if (top >= fromBottom && top <= toBottom && top < best) best = top;
+        }
+        return best;
+    }
+
+    // Index of the last platform whose left edge is before x, or -1.
+    private int lastStartingBefore(int x) {
+        int lo = 0, hi = platformCount - 1, found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (platformLeft[mid] < x) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,185 @@
+package com.ecorunner.myapplication;
+
+import java.util.Arrays;
+
+// Hashed timer wheel for game-time countdowns (shield, shield spawn cooldown, dialogue).
+// advance() is called once per simulation tick with the game time that passed; the wheel
+// steps in fixed ticks of tickMs and only visits the one slot each step lands on, so the
+// per-tick cost depends on how many timers share a slot, not on how many are running.
+//
+// Timers live in preallocated parallel arrays and are addressed by int handles, so
+// scheduling and cancelling never allocate. A handle carries a generation, which makes
+// cancelling a timer that already fired (or was reused) a harmless no-op.
+public class TimerWheel {
+    public interface Callback {
+        void onTimer();
+    }
+
+    // Never returned by schedule(); use it for "no timer".
+    public static final int NONE = 0;
+
+    private final int tickMs;
+    private final int mask;
+    private final int[] slotHead;
+
+    // Timer pool.
+    private final int[] next;
+    private final int[] prev;
+    private final int[] slot;      // -1 while free or waiting to fire.
+    private final int[] generation;
+    private final long[] deadlineMs;
+    private final long[] fireTick;
+    private final Callback[] callbacks;
+    private int freeHead;
+    private int active = 0;
+
+    // Timers that came due on the current step, fired after the slot has been walked.
+    private final int[] due;
+    private int dueCount;
+
+    private long tick = 0;
+    private long pendingMs = 0; // Game time advanced but not yet a whole tick.
+
+    // slots is rounded up to a power of two.
+    public TimerWheel(int tickMs, int slots, int capacity) {
+        if (capacity >= 0xffff) throw new IllegalArgumentException("Capacity too large: " + capacity);
+        this.tickMs = tickMs;
+        int size = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+        mask = size - 1;
+        slotHead = new int[size];
+        Arrays.fill(slotHead, -1);
+        next = new int[capacity];
+        prev = new int[capacity];
+        slot = new int[capacity];
+        generation = new int[capacity];
+        deadlineMs = new long[capacity];
+        fireTick = new long[capacity];
+        callbacks = new Callback[capacity];
+        due = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            next[i] = i + 1 < capacity ? i + 1 : -1;
+            slot[i] = -1;
+        }
+        freeHead = capacity > 0 ? 0 : -1;
+    }
+
+    // Calls callback once delayMs of game time has passed, on the first tick at or after it.
+    public int schedule(long delayMs, Callback callback) {
+        if (freeHead < 0) throw new IllegalStateException("No free timers (" + next.length + ")");
+        int i = freeHead;
+        freeHead = next[i];
+        long now = nowMs();
+        // Saturates, so Long.MAX_VALUE means "never" instead of wrapping round into the past.
+        long deadline = delayMs > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + Math.max(0, delayMs);
+        long at = Math.max(tick + 1, deadline / tickMs + (deadline % tickMs != 0 ? 1 : 0));
+        deadlineMs[i] = deadline;
+        fireTick[i] = at;
+        callbacks[i] = callback;
+        link(i, (int) (at & mask));
+        active++;
+        return handle(i);
+    }
+
+    // Returns false if the timer had already fired or been cancelled.
+    public boolean cancel(int handle) {
+        int i = indexOf(handle);
+        if (i < 0) return false;
+        if (slot[i] >= 0) unlink(i);
+        free(i);
+        return true;
+    }
+
+    public boolean isPending(int handle) {
+        return indexOf(handle) >= 0;
+    }
+
+    // Game time left before the timer is due; 0 once it has fired or been cancelled.
+    public long remainingMs(int handle) {
+        int i = indexOf(handle);
+        return i < 0 ? 0 : Math.max(0, deadlineMs[i] - nowMs());
+    }
+
+    public void advance(long elapsedMs) {
+        pendingMs += elapsedMs;
+        while (pendingMs >= tickMs) {
+            pendingMs -= tickMs;
+            step();
+        }
+    }
+
+    private void step() {
+        tick++;
+        int s = (int) (tick & mask);
+        dueCount = 0;
+        for (int i = slotHead[s]; i >= 0; ) {
+            int following = next[i];
+            // Timers more than one lap out share the slot and wait for a later pass.
+            if (fireTick[i] <= tick) {
+                unlink(i);
+                due[dueCount++] = handle(i);
+            }
+            i = following;
+        }
+        // A callback may cancel or schedule timers, including ones still waiting in due[].
+        for (int d = 0; d < dueCount; d++) {
+            int i = indexOf(due[d]);
+            if (i < 0) continue;
+            Callback callback = callbacks[i];
+            free(i);
+            callback.onTimer();
+        }
+    }
+
+    // Cancels every timer. Outstanding handles become stale.
+    public void clear() {
+        for (int s = 0; s <= mask; s++) {
+            while (slotHead[s] >= 0) {
+                int i = slotHead[s];
+                unlink(i);
+                free(i);
+            }
+        }
+    }
+
+    public int getActiveCount() {
+        return active;
+    }
+
+    private long nowMs() {
+        return tick * tickMs + pendingMs;
+    }
+
+    private int handle(int i) {
+        return (generation[i] << 16) | (i + 1);
+    }
+
+    private int indexOf(int handle) {
+        int i = (handle & 0xffff) - 1;
+        if (i < 0 || i >= next.length || callbacks[i] == null) return -1;
+        return generation[i] == handle >>> 16 ? i : -1;
+    }
+
+    private void link(int i, int s) {
+        slot[i] = s;
+        prev[i] = -1;
+        next[i] = slotHead[s];
+        if (slotHead[s] >= 0) prev[slotHead[s]] = i;
+        slotHead[s] = i;
+    }
+
+    private void unlink(int i) {
+        int s = slot[i];
+        if (prev[i] >= 0) next[prev[i]] = next[i];
+        else slotHead[s] = next[i];
+        if (next[i] >= 0) prev[next[i]] = prev[i];
+        slot[i] = -1;
+    }
+
+    private void free(int i) {
+        callbacks[i] = null;
+        generation[i] = (generation[i] + 1) & 0x7fff;
+        next[i] = freeHead;
+        freeHead = i;
+        active--;
+    }
+}
@@ -1,28 +1,17 @@
 package com.ecorunner.myapplication;
 
-import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.Rect;
 
+// The obstacle the player runs at. Where it is and how fast it moves is the Simulation's
+// business; this only draws the art of whatever was spawned last.
 public class Vehicle extends Sprite {
 
-    public int roadHeight; // Represents the ground level
-
-    public Vehicle(Bitmap image, Context context, Rect hitbox, Rect screen, int roadHeight) {
-        super(image, context, hitbox, screen);
-        this.roadHeight = roadHeight;
-        this.vx = -30; // Set horizontal speed (adjust as needed)
-        // Position the obstacle off-screen to the right.
-        this.setX(screen.right);
-        // Position the obstacle so its top aligns with the ground level.
-        this.setY(roadHeight);
+    public Vehicle(Bitmap image, Rect screen, EntityStore store, int id) {
+        super(image, screen, store, id);
     }
 
     public static Rect generate(Rect screen) {
         return new Rect(0, 0, 300, 140);
     }
-
-    public boolean isOffScreen() {
-        return this.getRight() < screen.left;
-    }
 }
@@ -0,0 +1,37 @@
+package com.ecorunner.myapplication;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AutoPilotTest {
+    // Ten simulated minutes per level is far more than any level needs.
+    private static final int MAX_TICKS = 10 * 60 * 1000 / HeadlessRunner.TICK_MS;
+
+    @Test
+    public void clearsAllNineLevels() {
+        for (long seed = 1; seed <= 5; seed++) {
+            HeadlessRunner runner = new HeadlessRunner(seed);
+            for (int level = 1; level <= 9; level++) {
+                HeadlessRunner.Result result = runner.play(level, MAX_TICKS);
+                assertTrue("seed " + seed + " lost level " + level + " at score " + result.score,
+                        result.completed);
+                assertTrue(result.jumps > 0);
+            }
+        }
+    }
+
+    @Test
+    public void waitsWhileObstacleIsFarAway() {
+        AutoPilot pilot = new AutoPilot();
+        assertFalse(pilot.shouldJump(400, 838, 10, 50, 0, true, 888,
+                1920, 840, 230, 230, -30, false));
+    }
+
+    @Test
+    public void runsIntoShields() {
+        AutoPilot pilot = new AutoPilot();
+        assertFalse(pilot.shouldJump(400, 838, 10, 50, 0, true, 888,
+                450, 840, 230, 230, -30, true));
+    }
+}
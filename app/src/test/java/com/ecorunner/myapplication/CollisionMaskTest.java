@@ -0,0 +1,75 @@
+package com.ecorunner.myapplication;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CollisionMaskTest {
+    private static final int SOLID = 0xff000000;
+
+    // A filled circle on a transparent square, like obstacle art with empty corners.
+    private static CollisionMask circle(int size) {
+        int[] argb = new int[size * size];
+        int r = size / 2;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int dx = x - r, dy = y - r;
+                if (dx * dx + dy * dy <= r * r) argb[y * size + x] = SOLID;
+            }
+        }
+        return CollisionMask.fromArgb(argb, size, size, size, size);
+    }
+
+    @Test
+    public void transparentCornerDoesNotHit() {
+        CollisionMask obstacle = circle(230);
+        // A 10x50 player box overlapping only the top-left corner of the obstacle's box.
+        assertFalse(CollisionMask.overlaps(null, 1000, 1000, 10, 50, obstacle, 1005, 1040, 230, 230));
+        // The same box over the middle of the circle.
+        assertTrue(CollisionMask.overlaps(null, 1110, 1100, 10, 50, obstacle, 1005, 1040, 230, 230));
+    }
+
+    @Test
+    public void scalesSourceToDrawnSize() {
+        int[] argb = new int[4 * 2];
+        argb[1] = SOLID; // Source pixel (1, 0) covers drawn columns 25..49 of rows 0..49.
+        CollisionMask mask = CollisionMask.fromArgb(argb, 4, 2, 100, 100);
+        assertTrue(mask.isSolid(25, 0));
+        assertTrue(mask.isSolid(49, 49));
+        assertFalse(mask.isSolid(50, 0));
+        assertFalse(mask.isSolid(25, 50));
+        assertEquals(25 * 50, mask.countSolid());
+    }
+
+    @Test
+    public void matchesPixelByPixelCheck() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            CollisionMask a = randomMask(random, 1 + random.nextInt(150), 1 + random.nextInt(40));
+            CollisionMask b = randomMask(random, 1 + random.nextInt(150), 1 + random.nextInt(40));
+            int bx = random.nextInt(300) - 150;
+            int by = random.nextInt(80) - 40;
+            assertEquals(bruteForce(a, b, bx, by),
+                    CollisionMask.overlaps(a, 0, 0, a.width, a.height, b, bx, by, b.width, b.height));
+        }
+    }
+
+    private static CollisionMask randomMask(Random random, int w, int h) {
+        int[] argb = new int[w * h];
+        for (int i = 0; i < argb.length; i++) {
+            if (random.nextInt(50) == 0) argb[i] = SOLID;
+        }
+        return CollisionMask.fromArgb(argb, w, h, w, h);
+    }
+
+    private static boolean bruteForce(CollisionMask a, CollisionMask b, int bx, int by) {
+        for (int y = 0; y < a.height; y++) {
+            for (int x = 0; x < a.width; x++) {
+                if (a.isSolid(x, y) && b.isSolid(x - bx, y - by)) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,108 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+import org.junit.Test;
+
+import static com.ecorunner.myapplication.TestGraphics.bitmap;
+import static com.ecorunner.myapplication.TestGraphics.rect;
+import static org.junit.Assert.*;
+
+public class DrawListTest {
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+
+    @Test
+    public void obstacleAtTheRightEdgeIsCulled() throws Exception {
+        Rect screen = rect(0, 0, WIDTH, HEIGHT);
+        DrawList list = new DrawList(screen, 4);
+        EntityStore store = new EntityStore(2);
+        int id = store.create(0, 0, Simulation.OBSTACLE_SIZE, Simulation.OBSTACLE_SIZE);
+        Vehicle obstacle = new Vehicle(bitmap(), screen, store, id);
+        RecordingRenderer frame = new RecordingRenderer();
+
+        // Where Simulation spawns it: its left edge on the screen's right edge.
+        store.setPosition(id, WIDTH, 600);
+        obstacle.collect(list, DrawList.LAYER_OBSTACLE);
+        assertEquals(0, list.flush(frame));
+        assertEquals(1, list.getCulledCount());
+        assertEquals(0, frame.getCount());
+
+        // One pixel further in and it is drawn.
+        store.setPosition(id, WIDTH - 1, 600);
+        obstacle.collect(list, DrawList.LAYER_OBSTACLE);
+        assertEquals(1, list.flush(frame));
+        assertEquals(0, list.getCulledCount());
+        assertEquals(RecordingRenderer.BITMAP, frame.getOp(0));
+        assertEquals(WIDTH - 1, frame.getCoord(0, 0), 0);
+        assertEquals(WIDTH - 1 + Simulation.OBSTACLE_SIZE, frame.getCoord(0, 2), 0);
+    }
+
+    @Test
+    public void backgroundTilesOutsideTheViewportAreCulled() throws Exception {
+        DrawList list = new DrawList(rect(0, 0, WIDTH, HEIGHT), 4);
+        Bitmap tile = bitmap();
+        RecordingRenderer frame = new RecordingRenderer();
+
+        // A tile scrolled off the left with its right edge on the screen's, one past the right
+        // edge, one below the screen, and the one on screen.
+        assertFalse(list.add(DrawList.LAYER_BACKGROUND, tile, null, -WIDTH, 0, 0, HEIGHT, Paints.NONE));
+        assertFalse(list.add(DrawList.LAYER_BACKGROUND, tile, null, WIDTH, 0, 2 * WIDTH, HEIGHT, Paints.NONE));
+        assertFalse(list.add(DrawList.LAYER_BACKGROUND, tile, null, 0, HEIGHT, WIDTH, 2 * HEIGHT, Paints.NONE));
+        assertTrue(list.add(DrawList.LAYER_BACKGROUND, tile, null, -100, 0, WIDTH - 100, HEIGHT, Paints.NONE));
+        // Nothing to draw is neither drawn nor counted as culled.
+        assertFalse(list.add(DrawList.LAYER_BACKGROUND, null, null, 0, 0, WIDTH, HEIGHT, Paints.NONE));
+
+        assertEquals(1, list.flush(frame));
+        assertEquals(3, list.getCulledCount());
+        assertEquals(1, frame.getCount());
+        assertTrue(frame.isWholeBitmap(0));
+        assertEquals(-100, frame.getCoord(0, 0), 0);
+
+        // Counts start over with each frame.
+        list.flush(frame);
+        assertEquals(0, list.getDrawnCount());
+        assertEquals(0, list.getCulledCount());
+    }
+
+    @Test
+    public void flushOrdersByLayerThenBitmapThenInsertion() throws Exception {
+        DrawList list = new DrawList(rect(0, 0, WIDTH, HEIGHT), 2); // Grows while adding.
+        Bitmap a = bitmap();
+        Bitmap b = bitmap();
+        Bitmap c = bitmap();
+        RecordingRenderer frame = new RecordingRenderer();
+
+        // The left edge of each draw records the order it was added in.
+        Bitmap[] images = {a, b, a, c, b, c, a, b};
+        int[] layers = {DrawList.LAYER_PLAYER, DrawList.LAYER_BACKGROUND, DrawList.LAYER_OBSTACLE,
+                DrawList.LAYER_BACKGROUND, DrawList.LAYER_BACKGROUND, DrawList.LAYER_OBSTACLE,
+                DrawList.LAYER_OBSTACLE, DrawList.LAYER_BACKGROUND + 1};
+        for (int i = 0; i < images.length; i++) {
+            assertTrue(list.add(layers[i], images[i], null, i, 0, i + 10, 10, Paints.NONE));
+        }
+        assertEquals(images.length, list.flush(frame));
+
+        int[] expectedLayers = {DrawList.LAYER_BACKGROUND, DrawList.LAYER_BACKGROUND, DrawList.LAYER_BACKGROUND,
+                DrawList.LAYER_BACKGROUND + 1, DrawList.LAYER_OBSTACLE, DrawList.LAYER_OBSTACLE,
+                DrawList.LAYER_OBSTACLE, DrawList.LAYER_PLAYER};
+        for (int k = 0; k < images.length; k++) {
+            int added = (int) frame.getCoord(k, 0);
+            assertEquals("draw " + k, expectedLayers[k], layers[added]);
+            if (k == 0) continue;
+            int previous = (int) frame.getCoord(k - 1, 0);
+            if (layers[previous] != layers[added]) continue;
+            // Within a layer, draws of one bitmap are back to back and keep the order they
+            // were added in.
+            if (images[previous] == images[added]) {
+                assertTrue("draw " + k, previous < added);
+            } else {
+                for (int j = k + 1; j < images.length; j++) {
+                    int later = (int) frame.getCoord(j, 0);
+                    if (layers[later] == layers[added]) assertFalse("draw " + j, images[previous] == images[later]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.ecorunner.myapplication;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+// Drives the endless-mode difficulty and spawn logic through an hour of simulated ticks and
+// checks that it neither allocates nor lets speed-related state grow without bound. The
+// on-device counterpart, which watches heap and native bitmap memory, is EndlessMemorySoakTest.
+public class EndlessSoakTest {
+    private static final int TICKS_PER_SECOND = 60;
+    private static final int SESSION_TICKS = 60 * 60 * TICKS_PER_SECOND;
+    private static final int TICKS_PER_OBSTACLE = 75;
+
+    @Test
+    public void oneHourSessionStaysBoundedAndAllocationFree() {
+        EndlessDifficulty difficulty = new EndlessDifficulty();
+        TimerWheel timers = new TimerWheel(1000 / TICKS_PER_SECOND, 64, 8);
+        SpawnScheduler spawner = new SpawnScheduler(new Random(7), type -> { }, timers);
+        spawner.reset(1);
+
+        // One short warm-up pass so class loading and JIT don't count as allocations.
+        int score = simulate(difficulty, spawner, timers, 0, TICKS_PER_SECOND * 10);
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        score = simulate(difficulty, spawner, timers, score, SESSION_TICKS);
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+
+        assertTrue("score should keep climbing", score > 2000);
+        assertEquals(0, allocated, 1024);
+        assertTrue(difficulty.getBackgroundSpeed() <= 40);
+        assertTrue(difficulty.getObstacleSpeed() >= -75);
+        assertTrue(difficulty.getSpawnDelayTicks() >= 0);
+        assertTrue(difficulty.getLevel() >= 1 && difficulty.getLevel() <= EndlessDifficulty.LEVEL_COUNT);
+        assertTrue(spawner.getShieldCooldown() <= SpawnScheduler.SHIELD_COOLDOWN_MS);
+    }
+
+    @Test
+    public void sceneryRotatesThroughEveryLevel() {
+        EndlessDifficulty difficulty = new EndlessDifficulty();
+        boolean[] seen = new boolean[EndlessDifficulty.LEVEL_COUNT + 1];
+        for (int score = 0; score < EndlessDifficulty.ROUND_POINTS * 20; score++) {
+            difficulty.setScore(score);
+            seen[difficulty.getLevel()] = true;
+        }
+        for (int level = 1; level <= EndlessDifficulty.LEVEL_COUNT; level++) assertTrue(seen[level]);
+    }
+
+    private static int simulate(EndlessDifficulty difficulty, SpawnScheduler spawner, TimerWheel timers,
+                                int score, int ticks) {
+        int sinceObstacle = 0;
+        boolean waiting = false;
+        for (int tick = 0; tick < ticks; tick++) {
+            timers.advance(1000 / TICKS_PER_SECOND);
+            if (waiting) {
+                if (spawner.poll()) waiting = false;
+                continue;
+            }
+            if (++sinceObstacle >= TICKS_PER_OBSTACLE) {
+                sinceObstacle = 0;
+                score++;
+                spawner.onObstacleEvaded();
+                difficulty.setScore(score);
+                spawner.setLevel(difficulty.getLevel());
+                spawner.setSpawnSpeed(difficulty.getObstacleSpeed());
+                spawner.setSpawnDelayTicks(difficulty.getSpawnDelayTicks());
+                waiting = true;
+            }
+        }
+        return score;
+    }
+}
@@ -0,0 +1,75 @@
+package com.ecorunner.myapplication;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EntityStoreTest {
+    @Test
+    public void releasedIdsAreReused() {
+        EntityStore store = new EntityStore(2);
+        int a = store.create(0, 0, 10, 10);
+        int b = store.create(0, 0, 10, 10);
+        store.release(a);
+        assertEquals(a, store.create(5, 5, 1, 1));
+        assertEquals(2, store.getActiveCount());
+        assertTrue(store.isAlive(b));
+    }
+
+    @Test
+    public void growsPastInitialCapacity() {
+        EntityStore store = new EntityStore(1);
+        for (int i = 0; i < 100; i++) store.create(i, i, 1, 1);
+        assertEquals(100, store.getActiveCount());
+        assertEquals(99, store.getX(99), 0);
+    }
+
+    @Test
+    public void integrateMatchesSpritePhysics() {
+        EntityStore store = new EntityStore(4);
+        int id = store.create(100, 200, 10, 50);
+        store.setGravity(id, true);
+        store.setVx(id, -30);
+        store.setAcceleration(id, 0, -60);
+        store.integrate(id);
+        // vy = -60 + GRAV, position moves by the new velocity.
+        assertEquals(-56, store.getVy(id), 0);
+        assertEquals(70, store.getX(id), 0);
+        assertEquals(144, store.getY(id), 0);
+        assertEquals(70, store.getLeft(id));
+        assertEquals(194, store.getBottom(id));
+    }
+
+    @Test
+    public void integrateAllAgreesWithIntegrate() {
+        EntityStore a = new EntityStore(8);
+        EntityStore b = new EntityStore(8);
+        for (int i = 0; i < 8; i++) {
+            for (EntityStore s : new EntityStore[]{a, b}) {
+                int id = s.create(i * 10, i * 3, 5, 7);
+                s.setGravity(id, i % 2 == 0);
+                s.setVelocity(id, -i, i);
+                s.setAcceleration(id, 0.5, -0.25);
+            }
+        }
+        for (int step = 0; step < 30; step++) {
+            a.integrateAll();
+            for (int id = 0; id < 8; id++) b.integrate(id);
+        }
+        for (int id = 0; id < 8; id++) {
+            assertEquals(b.getX(id), a.getX(id), 1e-9);
+            assertEquals(b.getY(id), a.getY(id), 1e-9);
+            assertEquals(b.getRight(id), a.getRight(id));
+        }
+    }
+
+    @Test
+    public void intersectsMatchesRectSemantics() {
+        EntityStore store = new EntityStore(4);
+        int a = store.create(0, 0, 10, 10);
+        int b = store.create(10, 0, 10, 10); // Touching edges do not intersect.
+        int c = store.create(9, 9, 10, 10);
+        assertFalse(store.intersects(a, b));
+        assertTrue(store.intersects(a, c));
+    }
+}
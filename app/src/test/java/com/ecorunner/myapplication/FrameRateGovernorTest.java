@@ -0,0 +1,88 @@
+package com.ecorunner.myapplication;
+
+import android.os.PowerManager;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FrameRateGovernorTest {
+    private static final long MS = 1_000_000L;
+
+    private final List<Integer> requested = new ArrayList<>();
+    private Metrics metrics;
+    private FrameRateGovernor governor;
+    private long now = 0;
+
+    @Before
+    public void setUp() {
+        metrics = new Metrics();
+        governor = new FrameRateGovernor(new float[]{60f, 120f, 90f, 59.94f}, metrics, requested::add);
+    }
+
+    private int frames(Game.GameState state, int count, long workNanos) {
+        int fps = 0;
+        for (int i = 0; i < count; i++) fps = governor.onFrame(state, workNanos, now += 8);
+        return fps;
+    }
+
+    @Test
+    public void ladderIsDistinctRatesHighestFirst() {
+        assertArrayEquals(new int[]{120, 90, 60, FrameRateGovernor.LOW_FPS}, governor.getLadder());
+        assertArrayEquals(new int[]{FrameRateGovernor.LOW_FPS},
+                FrameRateGovernor.ladder(new float[]{24f}));
+    }
+
+    @Test
+    public void fullRateWhileRunningAndLowRateOnOtherScreens() {
+        assertEquals(FrameRateGovernor.LOW_FPS, frames(Game.GameState.START, 5, 2 * MS));
+        assertEquals(120, frames(Game.GameState.RUNNING, 5, 2 * MS));
+        assertEquals(FrameRateGovernor.LOW_FPS, frames(Game.GameState.LOST, 5, 2 * MS));
+        assertEquals(120, frames(Game.GameState.RUNNING, 5, 2 * MS));
+        // Only changes reach the display and the metrics.
+        assertEquals(4, requested.size());
+        assertEquals(120, metrics.getFrameRate());
+    }
+
+    @Test
+    public void thermalPressureCapsTheRate() {
+        frames(Game.GameState.RUNNING, 5, 2 * MS);
+        governor.setThermalStatus(PowerManager.THERMAL_STATUS_MODERATE);
+        assertEquals(60, frames(Game.GameState.RUNNING, 1, 2 * MS));
+        governor.setThermalStatus(PowerManager.THERMAL_STATUS_SEVERE);
+        assertEquals(FrameRateGovernor.LOW_FPS, frames(Game.GameState.RUNNING, 1, 2 * MS));
+        governor.setThermalStatus(PowerManager.THERMAL_STATUS_NONE);
+        assertEquals(120, frames(Game.GameState.RUNNING, 1, 2 * MS));
+        assertTrue(metrics.rateSummary().contains("thermal status 3"));
+    }
+
+    @Test
+    public void sustainedOverBudgetStepsDownAndHeadroomStepsBackUp() {
+        // 10 ms of work misses a 120 Hz budget (8.3 ms) but fits 90 Hz (11.1 ms).
+        assertEquals(120, frames(Game.GameState.RUNNING, 60, 10 * MS));
+        assertEquals(90, frames(Game.GameState.RUNNING, 60, 10 * MS));
+        // A single over-budget window doesn't step down again.
+        assertEquals(90, frames(Game.GameState.RUNNING, 60, 12 * MS));
+        // A long stretch of light frames earns the top rate back, but not a short one.
+        assertEquals(90, frames(Game.GameState.RUNNING, 60 * 9, 2 * MS));
+        assertEquals(120, frames(Game.GameState.RUNNING, 60, 2 * MS));
+        assertEquals(List.of(120, 90, 120), requested);
+    }
+
+    @Test
+    public void qualityPresetCapsTheTopRate() {
+        governor.setMaxFps(QualityPreset.MEDIUM.getMaxFps());
+        assertEquals(60, frames(Game.GameState.RUNNING, 60 * 20, 2 * MS));
+        // Frame-time step downs still go below the cap, and recover back only to it.
+        assertEquals(FrameRateGovernor.LOW_FPS, frames(Game.GameState.RUNNING, 60 * 2, 16 * MS));
+        assertEquals(60, frames(Game.GameState.RUNNING, 60 * 10, 2 * MS));
+        assertEquals(60, frames(Game.GameState.RUNNING, 60 * 20, 2 * MS));
+        governor.setMaxFps(QualityPreset.HIGH.getMaxFps());
+        assertEquals(60, frames(Game.GameState.RUNNING, 1, 2 * MS));
+        assertEquals(List.of(60, FrameRateGovernor.LOW_FPS, 60), requested);
+    }
+}
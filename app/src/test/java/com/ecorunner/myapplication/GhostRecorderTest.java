@@ -0,0 +1,148 @@
+package com.ecorunner.myapplication;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class GhostRecorderTest {
+    private static final int GROUND_Y = 900;
+
+    // Two minutes of running with a jump every second or so, using the game's jump physics.
+    private static int[] simulateRun(int ticks, boolean[] jumps) {
+        int[] ys = new int[ticks];
+        double y = GROUND_Y, vy = 0;
+        for (int t = 0; t < ticks; t++) {
+            boolean grounded = y >= GROUND_Y;
+            if (grounded) {
+                y = GROUND_Y;
+                vy = 0;
+            }
+            jumps[t] = grounded && t % 70 == 0;
+            vy += (jumps[t] ? -60 : 0) + EntityStore.GRAV;
+            y = Math.min(GROUND_Y, y + vy);
+            ys[t] = (int) y;
+        }
+        return ys;
+    }
+
+    @Test
+    public void playbackMatchesRecording() {
+        int ticks = 2 * 60 * 60;
+        boolean[] jumps = new boolean[ticks];
+        int[] ys = simulateRun(ticks, jumps);
+
+        GhostRecorder recorder = new GhostRecorder(4096);
+        recorder.reset(GROUND_Y);
+        for (int t = 0; t < ticks; t++) recorder.record(ys[t], jumps[t]);
+        byte[] stream = recorder.finish();
+
+        GhostTrack track = new GhostTrack(ByteBuffer.wrap(stream), GROUND_Y, recorder.getTicks());
+        for (int t = 0; t < ticks; t++) {
+            assertTrue(track.advance());
+            assertEquals(ys[t], track.getY());
+            assertEquals(jumps[t], track.jumpedThisTick());
+        }
+        assertFalse(track.advance());
+        // A two-minute run should stay in the low kilobytes.
+        assertTrue("stream was " + stream.length + " bytes", stream.length < 4096);
+    }
+
+    @Test
+    public void recordingDoesNotAllocate() {
+        GhostRecorder recorder = new GhostRecorder(16 * 1024);
+        recorder.reset(GROUND_Y);
+        for (int t = 0; t < 1000; t++) recorder.record(GROUND_Y - (t % 40), t % 40 == 0);
+        recorder.reset(GROUND_Y);
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int t = 0; t < 7200; t++) recorder.record(GROUND_Y - (t % 40), t % 40 == 0);
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        assertEquals(0, allocated, 256);
+    }
+
+    @Test
+    public void fullBufferStopsRecordingButKeepsCountingTicks() {
+        GhostRecorder recorder = new GhostRecorder(64);
+        recorder.reset(GROUND_Y);
+        for (int t = 0; t < 1000; t++) recorder.record(GROUND_Y - (t % 7) * 5, t % 3 == 0);
+        assertTrue(recorder.isFull());
+        assertEquals(1000, recorder.getTicks());
+        assertTrue(recorder.finish().length <= 64);
+
+        recorder.reset(GROUND_Y);
+        assertFalse(recorder.isFull());
+        assertEquals(0, recorder.getTicks());
+    }
+
+    @Test
+    public void fileRoundTripKeepsHeaderAndStream() throws Exception {
+        GhostRecorder recorder = new GhostRecorder(1024);
+        recorder.reset(GROUND_Y);
+        for (int t = 0; t < 500; t++) recorder.record(GROUND_Y - (t % 25) * 3, t % 25 == 0);
+        byte[] stream = recorder.finish();
+
+        File dir = new File(System.getProperty("java.io.tmpdir"), "ghost-test-" + System.nanoTime());
+        assertTrue(dir.mkdirs());
+        File file = GhostFile.fileFor(dir, 3);
+        GhostFile.write(file, 3, 30, GROUND_Y, recorder.getTicks(), stream);
+
+        GhostFile read = GhostFile.read(file);
+        assertNotNull(read);
+        assertEquals(3, read.level);
+        assertEquals(30, read.score);
+        assertEquals(500, read.ticks);
+        GhostTrack track = read.track();
+        int t = 0;
+        while (track.advance()) {
+            assertEquals(GROUND_Y - (t % 25) * 3, track.getY());
+            t++;
+        }
+        assertEquals(500, t);
+
+        assertTrue(GhostFile.isBetter(31, 900, read));
+        assertTrue(GhostFile.isBetter(30, 499, read));
+        assertFalse(GhostFile.isBetter(30, 500, read));
+        file.delete();
+        dir.delete();
+    }
+
+    @Test
+    public void truncatedFileEndsPlaybackEarly() throws Exception {
+        GhostRecorder recorder = new GhostRecorder(1024);
+        recorder.reset(GROUND_Y);
+        for (int t = 0; t < 500; t++) recorder.record(GROUND_Y - (t % 25) * 3, t % 25 == 0);
+        byte[] stream = recorder.finish();
+
+        File dir = new File(System.getProperty("java.io.tmpdir"), "ghost-test-" + System.nanoTime());
+        assertTrue(dir.mkdirs());
+        File file = GhostFile.fileFor(dir, 2);
+        // The header still claims all 500 ticks; half the stream is there, ending mid-varint.
+        byte[] half = Arrays.copyOf(stream, stream.length / 2);
+        half[half.length - 1] |= (byte) 0x80;
+        GhostFile.write(file, 2, 20, GROUND_Y, recorder.getTicks(), half);
+
+        GhostTrack track = GhostFile.read(file).track();
+        int t = 0;
+        while (track.advance()) {
+            assertEquals(GROUND_Y - (t % 25) * 3, track.getY());
+            t++;
+        }
+        assertTrue("played " + t + " ticks", t > 0 && t < 500);
+        assertTrue(track.isFinished());
+        assertFalse(track.advance());
+
+        // Cut at a token boundary, the stream simply runs out.
+        GhostTrack empty = new GhostTrack(ByteBuffer.allocate(0), GROUND_Y, 500);
+        assertFalse(empty.advance());
+        assertTrue(empty.isFinished());
+        file.delete();
+        dir.delete();
+    }
+}
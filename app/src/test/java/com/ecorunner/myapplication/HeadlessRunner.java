@@ -0,0 +1,49 @@
+package com.ecorunner.myapplication;
+
+import java.util.Random;
+
+// Plays levels without a surface or Android objects: the same Simulation that Game steps,
+// with spawns from SpawnScheduler and every jump made by the AutoPilot. Obstacle art is never
+// decoded, so collisions are hitbox only.
+public class HeadlessRunner {
+    public static final int TICK_MS = GameThread.TICK_MS;
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+
+    public static class Result {
+        public boolean completed;
+        public int score;
+        public int ticks;
+        public int jumps;
+    }
+
+    private final TimerWheel timers = new TimerWheel(TICK_MS, 64, 8);
+    private final Simulation sim;
+
+    public HeadlessRunner(long seed) {
+        SpawnScheduler spawner = new SpawnScheduler(new Random(seed), type -> { }, timers);
+        sim = new Simulation(WIDTH, HEIGHT, new EntityStore(4), timers, spawner);
+    }
+
+    // Runs one level until it is completed, lost, or maxTicks pass.
+    public Result play(int level, int maxTicks) {
+        AutoPilot pilot = new AutoPilot();
+        timers.clear();
+        sim.reset(level);
+
+        Result result = new Result();
+        for (int tick = 0; tick < maxTicks; tick++) {
+            result.ticks = tick;
+            sim.autoJump(pilot);
+            int events = sim.step(TICK_MS, (long) tick * TICK_MS);
+            if ((events & Simulation.LOST) != 0) break;
+            if ((events & Simulation.COMPLETE) != 0) {
+                result.completed = true;
+                break;
+            }
+        }
+        result.score = sim.getScore();
+        result.jumps = pilot.getJumps();
+        return result;
+    }
+}
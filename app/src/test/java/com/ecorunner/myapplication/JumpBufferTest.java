@@ -0,0 +1,112 @@
+package com.ecorunner.myapplication;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class JumpBufferTest {
+    private static final int TICK_MS = GameThread.TICK_MS;
+    private static final long START_MS = 100_000; // Uptime when the first tick runs.
+    private static final int[] FRAME_RATES = {24, 30, 45, 60, 90, 120, 144};
+
+    // Ticks the way GameThread does, tickCount ticks in frames of 1000/fps ms. The tap at
+    // tapMs is delivered by the UI thread before the first frame that starts at or after it.
+    // The player is airborne from tick 0 until landingTick, and on the ground from then on
+    // (or, with walkOffTick >= 0, on the ground until walkOffTick and airborne afterwards).
+    // Returns the tick that jumped, or -1.
+    private static int run(int fps, long tapMs, int landingTick, int walkOffTick, int tickCount) {
+        JumpBuffer buffer = new JumpBuffer(TICK_MS, Simulation.JUMP_BUFFER_TICKS, Simulation.COYOTE_TICKS);
+        double frameMs = 1000.0 / fps;
+        long lag = 0;
+        long lastTime = START_MS - TICK_MS;
+        boolean delivered = false;
+        int tick = 0;
+        for (int frame = 0; tick < tickCount; frame++) {
+            long now = START_MS - TICK_MS + (long) Math.floor(frame * frameMs);
+            if (!delivered && now >= tapMs) {
+                buffer.press(tapMs);
+                delivered = true;
+            }
+            lag += now - lastTime;
+            lastTime = now;
+            while (lag >= TICK_MS && tick < tickCount) {
+                lag -= TICK_MS;
+                long tickTime = now - lag;
+                boolean supported = walkOffTick >= 0 ? tick < walkOffTick : tick >= landingTick;
+                if (buffer.update(tickTime, supported)) return tick;
+                tick++;
+            }
+        }
+        return -1;
+    }
+
+    private static long tickTime(int tick) {
+        return START_MS + (long) tick * TICK_MS;
+    }
+
+    @Test
+    public void tapShortlyBeforeLandingJumpsOnTheLandingTickAtAnyFrameRate() {
+        int landing = 40;
+        for (int fps : FRAME_RATES) {
+            for (int early = 0; early <= Simulation.JUMP_BUFFER_TICKS * TICK_MS; early += 4) {
+                assertEquals(fps + " fps, tap " + early + " ms early",
+                        landing, run(fps, tickTime(landing) - early, landing, -1, 100));
+            }
+        }
+    }
+
+    @Test
+    public void tapTooLongBeforeLandingIsDropped() {
+        int landing = 40;
+        for (int fps : FRAME_RATES) {
+            long tap = tickTime(landing) - Simulation.JUMP_BUFFER_TICKS * TICK_MS - 1;
+            assertEquals(fps + " fps", -1, run(fps, tap, landing, -1, 100));
+        }
+    }
+
+    @Test
+    public void tapOnTheGroundJumpsOnTheNextTick() {
+        for (int fps : FRAME_RATES) {
+            // Between ticks 10 and 11: tick 11 is the first one at or after the tap.
+            assertEquals(fps + " fps", 11, run(fps, tickTime(10) + 5, 0, -1, 100));
+        }
+    }
+
+    @Test
+    public void coyoteTimeAllowsAJumpJustAfterWalkingOff() {
+        int walkOff = 30;
+        for (int fps : FRAME_RATES) {
+            for (int late = 0; late < Simulation.COYOTE_TICKS; late++) {
+                int tick = walkOff + late;
+                assertEquals(fps + " fps, " + late + " ticks late", tick, run(fps, tickTime(tick), 0, walkOff, 100));
+            }
+            int tooLate = walkOff + Simulation.COYOTE_TICKS;
+            assertEquals(fps + " fps", -1, run(fps, tickTime(tooLate), 0, walkOff, 100));
+        }
+    }
+
+    @Test
+    public void oneTapGivesOneJump() {
+        JumpBuffer buffer = new JumpBuffer(TICK_MS, Simulation.JUMP_BUFFER_TICKS, Simulation.COYOTE_TICKS);
+        buffer.press(tickTime(0));
+        int jumps = 0;
+        for (int tick = 0; tick < 20; tick++) {
+            if (buffer.update(tickTime(tick), true)) jumps++;
+        }
+        assertEquals(1, jumps);
+        assertEquals(tickTime(0), buffer.getFiredPressMs());
+    }
+
+    @Test
+    public void resetDropsAWaitingTap() {
+        JumpBuffer buffer = new JumpBuffer(TICK_MS, Simulation.JUMP_BUFFER_TICKS, Simulation.COYOTE_TICKS);
+        buffer.press(tickTime(0));
+        buffer.reset();
+        for (int tick = 0; tick < 20; tick++) {
+            assertFalse("tick " + tick, buffer.update(tickTime(tick), true));
+        }
+        // Taps after the reset still jump.
+        buffer.press(tickTime(20));
+        assertTrue(buffer.update(tickTime(20), true));
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecorunner.myapplication;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class JumpLatencyTrackerTest {
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void recordsOnFirstFrameShowingMovement() {
+        JumpLatencyTracker tracker = new JumpLatencyTracker();
+        tracker.onJumpInput(100 * MS);
+        tracker.onForceApplied(108 * MS, 500);
+        // Frame posted before the player moved is not the one that shows the jump.
+        tracker.onFramePosted(110 * MS, 500);
+        assertEquals(0, tracker.getInputToPost().getCount());
+        tracker.onFramePosted(126 * MS, 460);
+        assertEquals(1, tracker.getInputToPost().getCount());
+        assertEquals(26 * MS, tracker.getInputToPost().percentile(50));
+        // Later frames of the same jump are not counted again.
+        tracker.onForceApplied(130 * MS, 460);
+        tracker.onFramePosted(142 * MS, 420);
+        assertEquals(1, tracker.getInputToPost().getCount());
+    }
+
+    @Test
+    public void percentilesOverRing() {
+        LatencyStats stats = new LatencyStats(100);
+        for (int i = 1; i <= 200; i++) stats.record(i);
+        assertEquals(200, stats.getCount());
+        assertEquals(200, stats.getMax());
+        // Only the last 100 samples (101..200) are kept.
+        assertEquals(150, stats.percentile(50));
+        assertEquals(199, stats.percentile(99));
+        assertEquals(101, stats.percentile(0));
+    }
+}
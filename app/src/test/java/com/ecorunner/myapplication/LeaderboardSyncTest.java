@@ -0,0 +1,157 @@
+package com.ecorunner.myapplication;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class LeaderboardSyncTest {
+    private static final Pattern ID = Pattern.compile("\"id\":\"([0-9a-f]+)\"");
+
+    private HttpServer server;
+    private File dir;
+    private final List<String> bodies = new ArrayList<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("leaderboard").toFile();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/scores", exchange -> {
+            String body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            int code = failuresLeft.getAndDecrement() > 0 ? 503 : 200;
+            synchronized (bodies) {
+                bodies.add(body);
+            }
+            exchange.sendResponseHeaders(code, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        for (File f : dir.listFiles()) f.delete();
+        dir.delete();
+    }
+
+    private LeaderboardClient client() throws IOException {
+        return new LeaderboardClient(new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/scores"));
+    }
+
+    private static void awaitEmpty(LeaderboardSync sync) throws InterruptedException {
+        for (int i = 0; i < 500 && (sync.getQueueDepth() > 0 || sync.getBatches() == 0); i++) Thread.sleep(10);
+        assertEquals(0, sync.getQueueDepth());
+    }
+
+    @Test
+    public void queueSurvivesReopenAndDropsTornRecord() throws IOException {
+        File file = new File(dir, "q");
+        ScoreQueue queue = new ScoreQueue(file);
+        queue.append(1, 1, 10, 900, 1000);
+        queue.append(2, 2, 20, 1800, 2000);
+        queue.append(3, 3, 30, 2700, 3000);
+        queue.ack(1);
+        queue.close();
+        // Half a record at the end, as a crash mid-append would leave.
+        Files.write(file.toPath(), new byte[ScoreQueue.RECORD_SIZE / 2], java.nio.file.StandardOpenOption.APPEND);
+
+        queue = new ScoreQueue(file);
+        assertEquals(2, queue.depth());
+        ScoreQueue.Entry[] out = {new ScoreQueue.Entry(), new ScoreQueue.Entry(), new ScoreQueue.Entry()};
+        assertEquals(2, queue.peek(out));
+        assertEquals(2, out[0].submitId);
+        assertEquals(20, out[0].score);
+        assertEquals(3, out[1].level);
+        queue.ack(2);
+        assertEquals(0, queue.depth());
+        queue.close();
+    }
+
+    @Test
+    public void uploadsInBatchesKeepingEachLevelsBest() throws Exception {
+        LeaderboardSync sync = new LeaderboardSync(new File(dir, "q"), null, 10);
+        // With no endpoint nothing leaves the device.
+        for (int i = 0; i < 45; i++) sync.submit(1 + i % 9, 10 + i, 900);
+        sync.release();
+        sync.join(); // The queue file is closed before it is opened again.
+
+        sync = new LeaderboardSync(new File(dir, "q"), client(), 10);
+        sync.submit(1, 5, 900); // Worse than queued level 1 scores.
+        awaitEmpty(sync);
+        sync.release();
+
+        // 46 scores in three batches (20, 20, 6); each batch sends one score per level present.
+        assertEquals(3, bodies.size());
+        assertEquals(46, sync.getUploaded() + sync.getSkipped());
+        assertTrue(bodies.get(0).contains("\"level\":1,\"score\":28,"));
+        assertFalse(bodies.get(0).contains("\"score\":10,"));
+        assertFalse(bodies.get(2).contains("\"score\":5,"));
+        assertTrue(sync.getThroughput() > 0);
+    }
+
+    @Test
+    public void retriesReuseSubmitIds() throws Exception {
+        failuresLeft.set(2);
+        LeaderboardSync sync = new LeaderboardSync(new File(dir, "q"), client(), 10);
+        sync.submit(4, 40, 3000);
+        sync.submit(5, 45, 3500);
+        awaitEmpty(sync);
+        sync.release();
+
+        assertEquals(3, bodies.size());
+        assertEquals(2, sync.getFailures());
+        HashSet<String> first = ids(bodies.get(0));
+        assertEquals(2, first.size());
+        assertEquals(first, ids(bodies.get(1)));
+        assertEquals(first, ids(bodies.get(2)));
+    }
+
+    private static HashSet<String> ids(String body) {
+        HashSet<String> ids = new HashSet<>();
+        Matcher m = ID.matcher(body);
+        while (m.find()) ids.add(m.group(1));
+        return ids;
+    }
+
+    @Test
+    public void queueFileErrorsAreRetriedWithBackoff() throws Exception {
+        // The queue cannot be opened until its directory exists.
+        File missing = new File(dir, "later");
+        LeaderboardSync sync = new LeaderboardSync(new File(missing, "q"), client(), 10);
+        sync.submit(2, 25, 1200);
+        for (int i = 0; i < 500 && sync.getFailures() < 2; i++) Thread.sleep(10);
+        assertTrue(sync.getFailures() >= 2);
+        assertEquals(0, sync.getBatches());
+
+        assertTrue(missing.mkdir());
+        awaitEmpty(sync);
+        sync.release();
+        sync.join();
+        assertEquals(1, sync.getUploaded());
+        assertTrue(bodies.get(0).contains("\"level\":2,\"score\":25,"));
+        for (File f : missing.listFiles()) f.delete();
+        missing.delete();
+    }
+}
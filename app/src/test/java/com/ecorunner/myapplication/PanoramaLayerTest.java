@@ -0,0 +1,173 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.ecorunner.myapplication.TestGraphics.bitmap;
+import static com.ecorunner.myapplication.TestGraphics.rect;
+import static org.junit.Assert.*;
+
+public class PanoramaLayerTest {
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+    private static final int PREFETCH = 2;
+
+    // A panorama 40 strips of 256 source pixels wide, at screen height so strips draw 256 wide.
+    private static class FakeSource implements PanoramaLayer.StripSource {
+        final List<Integer> decodedLefts = new ArrayList<>();
+        final Set<Bitmap> live = new HashSet<>();
+        int freed = 0;
+        boolean closed = false;
+
+        @Override
+        public int getWidth() {
+            return 40 * 256;
+        }
+
+        @Override
+        public int getHeight() {
+            return HEIGHT;
+        }
+
+        @Override
+        public Bitmap decode(int left, int right) {
+            assertEquals(256, right - left);
+            decodedLefts.add(left);
+            try {
+                Bitmap strip = bitmap();
+                live.add(strip);
+                return strip;
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        @Override
+        public void free(Bitmap strip) {
+            assertTrue(live.remove(strip));
+            freed++;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private final Rect screen = rect(0, 0, WIDTH, HEIGHT);
+    private final FakeSource source = new FakeSource();
+    // Decodes wait here until the test runs them, as they would on the worker.
+    private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+    private final DrawList list = new DrawList(screen, 16);
+    private final RecordingRenderer frame = new RecordingRenderer();
+
+    private PanoramaLayer layer() {
+        return new PanoramaLayer(source, 1f, screen, false, PREFETCH, queue::add);
+    }
+
+    private void runWorker() {
+        while (!queue.isEmpty()) queue.poll().run();
+    }
+
+    private int draw(PanoramaLayer layer) {
+        frame.reset();
+        int drawn = layer.draw(list, DrawList.LAYER_BACKGROUND, screen);
+        list.flush(frame);
+        return drawn;
+    }
+
+    private float leftmost() {
+        float left = Float.MAX_VALUE;
+        for (int i = 0; i < frame.getCount(); i++) left = Math.min(left, frame.getCoord(i, 0));
+        return left;
+    }
+
+    @Test
+    public void firstScreenIsDecodedUpFrontAndPrefetchGoesToTheWorker() {
+        PanoramaLayer layer = layer();
+        // 1920 / 256 rounds up to 8 strips, plus one for the strip scrolling in.
+        assertEquals(9, layer.getVisibleCount());
+        assertEquals(9 + PREFETCH, layer.getSlotCount());
+        assertEquals(9, source.decodedLefts.size());
+        assertEquals(PREFETCH, queue.size());
+        assertEquals(8, draw(layer));
+
+        runWorker();
+        assertEquals(9 + PREFETCH, source.decodedLefts.size());
+        assertEquals(9 * 256, (int) source.decodedLefts.get(9));
+        assertEquals(layer.getSlotCount(), layer.getDecodedCount());
+    }
+
+    @Test
+    public void stripsBehindAreEvictedAndTheOnesAheadRequested() {
+        PanoramaLayer layer = layer();
+        runWorker();
+
+        // Three strips and a bit scroll off the left edge.
+        layer.update(3 * 256 + 100);
+        assertEquals(3, source.freed);
+        assertEquals(3, queue.size());
+        runWorker();
+        assertEquals((9 + PREFETCH + 2) * 256, (int) source.decodedLefts.get(source.decodedLefts.size() - 1));
+        assertEquals(layer.getSlotCount(), layer.getDecodedCount());
+        assertEquals(layer.getSlotCount(), source.live.size());
+
+        // The leftmost strip drawn is the fourth, part of it off screen.
+        assertEquals(8, draw(layer));
+        assertEquals(-100, leftmost(), 0);
+    }
+
+    @Test
+    public void memoryStaysBoundedAndThePanoramaRepeats() {
+        PanoramaLayer layer = layer();
+        for (int tick = 0; tick < 1000; tick++) {
+            layer.update(97);
+            if (tick % 3 == 0) runWorker();
+            assertTrue(source.live.size() <= layer.getSlotCount());
+        }
+        runWorker();
+        assertEquals(layer.getSlotCount(), source.live.size());
+        // 97 000 pixels is past the 10 240 of the panorama several times; strips wrap around.
+        for (int left : source.decodedLefts) assertTrue(left >= 0 && left < 40 * 256);
+        assertTrue(source.decodedLefts.size() > 97_000 / 256);
+    }
+
+    @Test
+    public void missingStripsAreSkippedAndStaleDecodesDropped() {
+        PanoramaLayer layer = layer();
+        runWorker();
+        // A jump of several screens leaves every slot waiting on the worker.
+        layer.update(3 * WIDTH);
+        assertEquals(0, draw(layer));
+        assertEquals(layer.getSlotCount(), queue.size());
+        // Moving on again before the worker runs makes the queued strips stale; they are
+        // skipped without decoding.
+        int decoded = source.decodedLefts.size();
+        layer.update(3 * WIDTH);
+        assertEquals(2 * layer.getSlotCount(), queue.size());
+        runWorker();
+        assertEquals(decoded + layer.getSlotCount(), source.decodedLefts.size());
+        assertEquals(layer.getSlotCount(), source.live.size());
+        assertEquals(8, draw(layer));
+    }
+
+    @Test
+    public void releaseFreesEveryStripAndClosesTheSourceAfterQueuedDecodes() {
+        PanoramaLayer layer = layer();
+        layer.release();
+        assertTrue(source.live.isEmpty());
+        assertFalse(source.closed);
+        runWorker();
+        assertTrue(source.closed);
+        assertEquals(9, source.decodedLefts.size());
+        assertEquals(0, draw(layer));
+    }
+}
@@ -0,0 +1,48 @@
+package com.ecorunner.myapplication;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class QualityPresetTest {
+    private static final long MS = 1_000_000L;
+    private static final long MB = 1024L * 1024;
+
+    @Test
+    public void fastDevicesWithRoomGetHigh() {
+        assertEquals(QualityPreset.HIGH, QualityPreset.choose(4 * MS, 256 * MB, false));
+        assertEquals(QualityPreset.HIGH, QualityPreset.choose(QualityPreset.HIGH_FRAME_NANOS,
+                QualityPreset.HIGH_HEADROOM_BYTES, false));
+    }
+
+    @Test
+    public void frameTimeAndHeadroomEachStepDown() {
+        assertEquals(QualityPreset.MEDIUM, QualityPreset.choose(9 * MS, 256 * MB, false));
+        assertEquals(QualityPreset.MEDIUM, QualityPreset.choose(4 * MS, 64 * MB, false));
+        assertEquals(QualityPreset.LOW, QualityPreset.choose(20 * MS, 256 * MB, false));
+        assertEquals(QualityPreset.LOW, QualityPreset.choose(4 * MS, 32 * MB, false));
+    }
+
+    @Test
+    public void lowRamDevicesAlwaysGetLow() {
+        assertEquals(QualityPreset.LOW, QualityPreset.choose(2 * MS, 512 * MB, true));
+    }
+
+    @Test
+    public void presetsStepDownInCost() {
+        assertTrue(QualityPreset.LOW.getDecodeScale() < QualityPreset.MEDIUM.getDecodeScale());
+        assertTrue(QualityPreset.LOW.getParallaxLayers() < QualityPreset.HIGH.getParallaxLayers());
+        assertTrue(QualityPreset.LOW.getParticleBudget() < QualityPreset.MEDIUM.getParticleBudget());
+        assertTrue(QualityPreset.MEDIUM.isOpaque565());
+        assertFalse(QualityPreset.HIGH.isOpaque565());
+        assertEquals(0, QualityPreset.HIGH.getMaxFps());
+    }
+
+    @Test
+    public void namesFromTheDebugOverride() {
+        assertEquals(QualityPreset.LOW, QualityPreset.fromName("low"));
+        assertEquals(QualityPreset.HIGH, QualityPreset.fromName("HIGH"));
+        assertNull(QualityPreset.fromName("auto"));
+        assertNull(QualityPreset.fromName(null));
+    }
+}
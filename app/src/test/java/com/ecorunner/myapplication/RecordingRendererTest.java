@@ -0,0 +1,90 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Color;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class RecordingRendererTest {
+    private static final int RED = Paints.fill(Color.RED);
+    private static final int LABEL = Paints.text(Color.WHITE, 36, Paints.CENTER);
+
+    @Test
+    public void recordsCommandsInOrder() {
+        RecordingRenderer r = new RecordingRenderer(2);
+        r.drawColor(Color.BLACK);
+        r.drawRect(1, 2, 3, 4, RED);
+        r.drawBitmap(null, Renderer.WHOLE, 0, 0, 0, 10, 20, 30, 40, Paints.NONE);
+        r.drawText("LEVEL 1", 50, 60, LABEL);
+        r.drawCircle(5, 6, 7, RED);
+
+        assertEquals(5, r.getCount());
+        assertEquals(RecordingRenderer.CLEAR, r.getOp(0));
+        assertEquals(Color.BLACK, r.getColor(0));
+        assertEquals(RecordingRenderer.RECT, r.getOp(1));
+        assertEquals(RED, r.getPaint(1));
+        assertEquals(3, r.getCoord(1, 2), 0);
+        assertEquals(2, r.indexOf(RecordingRenderer.BITMAP, 0));
+        assertTrue(r.isWholeBitmap(2));
+        assertEquals(0, r.getBitmapId(2));
+        assertEquals(40, r.getCoord(2, 3), 0);
+        assertEquals("LEVEL 1", r.getText(3));
+        assertEquals(LABEL, r.getPaint(3));
+        assertEquals(7, r.getCoord(4, 4), 0);
+        assertEquals(2, r.count(RecordingRenderer.RECT) + r.count(RecordingRenderer.CIRCLE));
+        assertEquals(-1, r.indexOf(RecordingRenderer.POINTS, 0));
+    }
+
+    @Test
+    public void recordsSlicesOfCharTextAndPointCounts() {
+        RecordingRenderer r = new RecordingRenderer();
+        char[] score = "Score: 12".toCharArray();
+        r.drawText(score, 0, 9, 100, 100, LABEL);
+        r.drawPoints(new float[8], 0, 6, RED);
+        assertEquals("Score: 12", r.getText(0));
+        assertEquals(3, r.getCoord(1, 4), 0);
+        assertEquals(Color.RED, Paints.color(RED));
+        assertEquals(36, Paints.textSize(LABEL), 0);
+        assertEquals(Paints.CENTER, Paints.flags(LABEL));
+    }
+
+    @Test
+    public void resetStartsANewFrame() {
+        RecordingRenderer r = new RecordingRenderer();
+        r.drawRect(0, 0, 1, 1, RED);
+        r.reset();
+        assertEquals(0, r.getCount());
+        r.drawText("A", 0, 0, LABEL);
+        assertEquals(1, r.getCount());
+        assertEquals(RecordingRenderer.TEXT, r.getOp(0));
+    }
+
+    @Test
+    public void recordingAllocatesNothingOnceGrown() {
+        RecordingRenderer r = new RecordingRenderer(4);
+        char[] score = "Score: 0".toCharArray();
+        float[] points = new float[64];
+        for (int i = 0; i < 1000; i++) frame(r, score, points); // Grows the buffers and warms up.
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int i = 0; i < 1000; i++) frame(r, score, points);
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        assertEquals(0, allocated, 1024);
+        assertEquals(203, r.getCount());
+    }
+
+    private void frame(RecordingRenderer r, char[] score, float[] points) {
+        r.reset();
+        r.drawColor(Color.WHITE);
+        for (int i = 0; i < 200; i++) {
+            r.drawBitmap(null, 0, 0, 64, 64, i, 0, i + 64, 64, Paints.NONE);
+        }
+        r.drawText(score, 0, score.length, 960, 100, LABEL);
+        r.drawPoints(points, 0, points.length, RED);
+    }
+}
@@ -0,0 +1,96 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Rect;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static com.ecorunner.myapplication.TestGraphics.bitmap;
+import static com.ecorunner.myapplication.TestGraphics.rect;
+import static org.junit.Assert.*;
+
+// The world pass of a RUNNING frame on the JVM: the Simulation steps as it does in Game, the
+// obstacle goes through the DrawList and the particles are drawn on top, all recorded. The
+// rest of the frame (scenery, player art, HUD, dialogue, level select and end screens) needs
+// Context or Rect methods that only exist on a device; GameFrameTest covers it there.
+public class RunningFrameTest {
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+    private static final int TICK_MS = GameThread.TICK_MS;
+    private static final int PARTICLE_TICKS = 30; // A burst every half second keeps particles on screen.
+
+    private final Rect screen = rect(0, 0, WIDTH, HEIGHT);
+    private final TimerWheel timers = new TimerWheel(TICK_MS, 64, 8);
+    private final Simulation sim = new Simulation(WIDTH, HEIGHT, new EntityStore(4), timers,
+            new SpawnScheduler(new Random(3), type -> { }, timers));
+    private final AutoPilot pilot = new AutoPilot();
+    private final DrawList list = new DrawList(screen, 16);
+    private final ParticleSystem particles = new ParticleSystem(256, Float.MAX_VALUE);
+    private final RecordingRenderer frame = new RecordingRenderer();
+    private final Vehicle obstacle;
+    private int tick = 0;
+
+    public RunningFrameTest() throws Exception {
+        obstacle = new Vehicle(bitmap(), screen, sim.getStore(), sim.getObstacle());
+        sim.reset(1);
+    }
+
+    // One game-thread tick and the frame drawn after it. Returns the step's events.
+    private int tickAndDraw() {
+        sim.autoJump(pilot);
+        int events = sim.step(TICK_MS, (long) tick * TICK_MS);
+        particles.update();
+        if (tick++ % PARTICLE_TICKS == 0) {
+            EntityStore store = sim.getStore();
+            int player = sim.getPlayer();
+            particles.emitShieldPickup((float) store.getX(player), (float) store.getY(player));
+        }
+        frame.reset();
+        obstacle.collect(list, DrawList.LAYER_OBSTACLE);
+        list.flush(frame);
+        particles.draw(frame);
+        return events;
+    }
+
+    @Test
+    public void obstacleIsDrawnBeneathTheParticles() {
+        EntityStore store = sim.getStore();
+        int id = sim.getObstacle();
+        // The first obstacle spawns on the right edge and is on screen after its first move.
+        assertEquals(WIDTH, store.getLeft(id));
+        tickAndDraw();
+        assertTrue(store.getLeft(id) < WIDTH);
+
+        assertEquals(RecordingRenderer.BITMAP, frame.getOp(0));
+        assertEquals(1, frame.count(RecordingRenderer.BITMAP));
+        assertEquals(store.getLeft(id), frame.getCoord(0, 0), 0);
+        assertEquals(store.getBottom(id), frame.getCoord(0, 3), 0);
+        int points = frame.indexOf(RecordingRenderer.POINTS, 0);
+        assertTrue(points > 0);
+        // One batch per particle colour at most.
+        assertEquals(frame.getCount() - 1, frame.count(RecordingRenderer.POINTS));
+    }
+
+    @Test
+    public void runningFramesAllocateNothing() {
+        // An endless shielded run, so the level never ends (or resets) while measuring.
+        sim.setTarget(Integer.MAX_VALUE);
+        sim.activateShield(Long.MAX_VALUE);
+        for (int i = 0; i < 2000; i++) assertEquals(0, tickAndDraw() & Simulation.LOST);
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        int drawn = 0;
+        for (int i = 0; i < 6000; i++) {
+            tickAndDraw();
+            drawn += frame.getCount();
+        }
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        assertEquals(0, allocated, 1024);
+        assertTrue(drawn > 6000);
+        assertTrue(sim.getScore() > 0);
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecorunner.myapplication;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SimulationTest {
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+    private static final int TICK_MS = GameThread.TICK_MS;
+
+    private final TimerWheel timers = new TimerWheel(TICK_MS, 64, 8);
+    private final Simulation sim = new Simulation(WIDTH, HEIGHT, new EntityStore(4), timers,
+            new SpawnScheduler(new Random(5), type -> { }, timers));
+
+    // Shielded, so only a fall can end the run.
+    private void start() {
+        sim.reset(1);
+        sim.activateShield(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void fallingIntoAGapLoses() {
+        start();
+        int road = Terrain.groundFor(WIDTH, HEIGHT);
+        sim.getTerrain().addGap(Simulation.PLAYER_X - 100);
+        sim.getTerrain().addGround(Simulation.PLAYER_X + 1000, road);
+        assertEquals(Terrain.NONE, sim.groundBottom());
+        assertFalse(sim.canJump());
+
+        EntityStore store = sim.getStore();
+        int lostAt = -1;
+        for (int tick = 0; tick < 600 && lostAt < 0; tick++) {
+            if ((sim.step(TICK_MS, (long) tick * TICK_MS) & Simulation.LOST) != 0) lostAt = tick;
+            assertTrue(store.getTop(sim.getPlayer()) <= HEIGHT + 200);
+        }
+        assertTrue(lostAt > 0);
+        assertTrue(store.getTop(sim.getPlayer()) >= HEIGHT);
+    }
+
+    @Test
+    public void obstacleSpawnedOverAGapStandsAtRoadHeight() {
+        start();
+        int road = Terrain.groundFor(WIDTH, HEIGHT);
+        // The right edge, where obstacles spawn, is over a gap; the scenery does not scroll.
+        sim.getTerrain().addGap(WIDTH - 10);
+        int obstacle = sim.getObstacle();
+
+        boolean spawned = false;
+        for (int tick = 0; tick < 5000 && !spawned; tick++) {
+            int events = sim.step(TICK_MS, (long) tick * TICK_MS);
+            assertEquals("tick " + tick, 0, events & Simulation.LOST);
+            spawned = (events & Simulation.SPAWNED) != 0;
+        }
+        assertTrue(spawned);
+        assertEquals(WIDTH, sim.getStore().getLeft(obstacle));
+        assertEquals(road - WIDTH / 40, sim.getStore().getTop(obstacle));
+    }
+}
@@ -0,0 +1,74 @@
+package com.ecorunner.myapplication;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SpawnSchedulerTest {
+    private List<Integer> warmed;
+    private TimerWheel timers;
+    private SpawnScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        warmed = new ArrayList<>();
+        timers = new TimerWheel(HeadlessRunner.TICK_MS, 64, 8);
+        scheduler = new SpawnScheduler(new Random(42), warmed::add, timers);
+        scheduler.reset(1);
+    }
+
+    @Test
+    public void queuedSpawnsAreWarmedBeforeTheyAreTaken() {
+        assertEquals(SpawnScheduler.LOOKAHEAD, warmed.size());
+        for (int i = 0; i < 50; i++) {
+            int upcoming = scheduler.peek(0);
+            assertTrue(warmed.contains(upcoming));
+            scheduler.next();
+            // A queued shield is swapped for an obstacle while the shield cooldown runs.
+            if (upcoming != SpawnScheduler.SHIELD) assertEquals(upcoming, scheduler.getType());
+            assertTrue(warmed.contains(scheduler.getType()));
+        }
+    }
+
+    @Test
+    public void shieldIsGuaranteedAfterEnoughEvadedObstacles() {
+        for (int i = 0; i < SpawnScheduler.SHIELD_AFTER_EVADED; i++) scheduler.onObstacleEvaded();
+        scheduler.next();
+        assertEquals(SpawnScheduler.SHIELD, scheduler.getType());
+        assertEquals(0, scheduler.getObstaclesEvadedCount());
+        assertEquals(SpawnScheduler.SHIELD_COOLDOWN_MS, scheduler.getShieldCooldown());
+    }
+
+    @Test
+    public void noShieldSpawnsDuringCooldown() {
+        for (int i = 0; i < SpawnScheduler.SHIELD_AFTER_EVADED; i++) scheduler.onObstacleEvaded();
+        scheduler.next();
+        for (int i = 0; i < 500; i++) {
+            scheduler.onObstacleEvaded();
+            scheduler.next();
+            assertNotEquals(SpawnScheduler.SHIELD, scheduler.getType());
+        }
+        for (long t = 0; t < SpawnScheduler.SHIELD_COOLDOWN_MS; t += HeadlessRunner.TICK_MS) {
+            timers.advance(HeadlessRunner.TICK_MS);
+        }
+        assertEquals(0, scheduler.getShieldCooldown());
+        scheduler.next();
+        assertEquals(SpawnScheduler.SHIELD, scheduler.getType());
+    }
+
+    @Test
+    public void tablesOnlyProduceTheLevelsObstacles() {
+        scheduler.reset(2);
+        for (int i = 0; i < 200; i++) {
+            scheduler.next();
+            int type = scheduler.getType();
+            assertTrue(type == R.drawable.smokel2 || type == R.drawable.garbageheapsl2
+                    || type == SpawnScheduler.SHIELD);
+        }
+    }
+}
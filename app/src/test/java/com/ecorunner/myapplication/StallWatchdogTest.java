@@ -0,0 +1,107 @@
+package com.ecorunner.myapplication;
+
+import android.util.Log;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class StallWatchdogTest {
+    private static final long THRESHOLD_MS = 40;
+    // The innermost frame of ours during the stall is the one to fix.
+    private static final String STALL_SITE = StallWatchdogTest.class.getName() + ".slowFrameWork(";
+
+    private final List<String> warnings = new ArrayList<>();
+    private final List<String> infos = new ArrayList<>();
+
+    private StallWatchdog watchdog() {
+        return new StallWatchdog(THRESHOLD_MS, (priority, message) -> {
+            synchronized (warnings) {
+                (priority == Log.WARN ? warnings : infos).add(message);
+            }
+        });
+    }
+
+    // Stands in for a frame that blocks well past the threshold.
+    private static void slowFrameWork() throws InterruptedException {
+        Thread.sleep(THRESHOLD_MS * 6);
+    }
+
+    // A blocking primitive; the site reported is whoever called it.
+    private static void readSomething() {
+        StallWatchdog.noteBlocking("test read");
+    }
+
+    private List<String> warnings() {
+        synchronized (warnings) {
+            return new ArrayList<>(warnings);
+        }
+    }
+
+    @Test
+    public void stalledFrameReportsItsCallSiteOnce() throws InterruptedException {
+        StallWatchdog watchdog = watchdog();
+        watchdog.start(Thread.currentThread(), null);
+        try {
+            for (int frame = 0; frame < 2; frame++) {
+                watchdog.beginFrame();
+                slowFrameWork();
+                watchdog.endFrame();
+            }
+            // A quick frame is neither long nor captured.
+            watchdog.beginFrame();
+            watchdog.endFrame();
+        } finally {
+            watchdog.stop();
+        }
+
+        // The watcher polls several times during each stall but logs the site only once.
+        List<String> seen = warnings();
+        assertEquals(seen.toString(), 1, seen.size());
+        assertTrue(seen.get(0), seen.get(0).startsWith("Stall in "));
+        assertTrue(seen.get(0), seen.get(0).contains(STALL_SITE));
+        assertTrue(seen.get(0), seen.get(0).contains("\n    at "));
+        assertEquals(2, watchdog.getLongFrames());
+
+        // stop() logs the totals: both stalls counted against the one site.
+        assertEquals(1, infos.size());
+        String report = infos.get(0);
+        assertTrue(report, report.startsWith("Long frames: 2"));
+        assertTrue(report, report.contains("\n  2x Stall in "));
+        assertTrue(report, report.contains(STALL_SITE));
+    }
+
+    @Test
+    public void blockingCallsAreCountedPerSiteOnTheWatchedThreadsOnly() throws InterruptedException {
+        StallWatchdog watchdog = watchdog();
+        watchdog.start(Thread.currentThread(), null);
+        try {
+            for (int i = 0; i < 3; i++) readSomething();
+            Thread other = new Thread(StallWatchdogTest::readSomething);
+            other.start();
+            other.join();
+        } finally {
+            watchdog.stop();
+        }
+
+        List<String> seen = warnings();
+        assertEquals(seen.toString(), 1, seen.size());
+        assertTrue(seen.get(0), seen.get(0).startsWith("Blocking call: test read on "
+                + Thread.currentThread().getName() + " from "));
+        assertTrue(seen.get(0), seen.get(0).contains(".blockingCallsAreCountedPerSiteOnTheWatchedThreadsOnly("));
+        assertTrue(infos.get(0), infos.get(0).contains("\n  3x test read on "));
+        assertEquals(0, watchdog.getLongFrames());
+    }
+
+    @Test
+    public void nothingIsCountedOnceStopped() {
+        StallWatchdog watchdog = watchdog();
+        watchdog.start(Thread.currentThread(), null);
+        watchdog.stop();
+        readSomething();
+        assertTrue(warnings().isEmpty());
+    }
+}
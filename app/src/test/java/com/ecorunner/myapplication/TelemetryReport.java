@@ -0,0 +1,15 @@
+package com.ecorunner.myapplication;
+
+import java.io.File;
+import java.io.IOException;
+
+// Prints a TelemetryReader report for logs pulled off a device, from the unit test classpath
+// so the app itself carries no console tool.
+// Usage: java com.ecorunner.myapplication.TelemetryReport telemetry.bin [more.bin ...]
+public class TelemetryReport {
+    public static void main(String[] args) throws IOException {
+        TelemetryReader reader = new TelemetryReader();
+        for (String path : args) reader.read(new File(path));
+        System.out.print(reader.report());
+    }
+}
@@ -0,0 +1,69 @@
+package com.ecorunner.myapplication;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class TelemetryTest {
+
+    private static File tempLog() throws IOException {
+        File dir = Files.createTempDirectory("telemetry").toFile();
+        return new File(dir, "telemetry.bin");
+    }
+
+    @Test
+    public void eventsRoundTripThroughTheReader() throws IOException {
+        File file = tempLog();
+        int fireTruck = SpawnScheduler.obstacleCode(SpawnScheduler.typeForCode(0x12));
+        Telemetry telemetry = new Telemetry(file, 64);
+        telemetry.record(Telemetry.RUN_START, 2, 0, 0, 0);
+        telemetry.record(Telemetry.SHIELD_PICKUP, 2, 0, 100, 3);
+        telemetry.record(Telemetry.DEATH, 2, fireTruck, 300, 5);
+        telemetry.record(Telemetry.RUN_START, 2, 0, 0, 0);
+        telemetry.record(Telemetry.LEVEL_COMPLETE, 2, 0, 500, 10);
+        telemetry.close();
+        assertEquals(5, telemetry.getWritten());
+        assertEquals(5 * Telemetry.RECORD_SIZE, file.length());
+
+        TelemetryReader reader = new TelemetryReader();
+        reader.read(file);
+        assertEquals(5, reader.events);
+        assertEquals(2, reader.runs);
+        assertEquals(1, reader.deathsPerLevel[2]);
+        assertEquals(1, reader.completionsPerLevel[2]);
+        assertEquals(1, reader.shieldsPerLevel[2]);
+        assertEquals(Integer.valueOf(1), reader.deathsByObstacle.get("2:" + fireTruck));
+        assertEquals(400.0, reader.meanRunTicks(), 0.001);
+    }
+
+    @Test
+    public void sessionsAppendToTheSameLog() throws IOException {
+        File file = tempLog();
+        for (int session = 0; session < 3; session++) {
+            Telemetry telemetry = new Telemetry(file, 16);
+            telemetry.record(Telemetry.RUN_START, 1, 0, 0, 0);
+            telemetry.record(Telemetry.DEATH, 1, 0x11, 50, 1);
+            telemetry.close();
+        }
+        TelemetryReader reader = new TelemetryReader();
+        reader.read(file);
+        assertEquals(3, reader.runs);
+        assertEquals(3, reader.deathsPerLevel[1]);
+    }
+
+    @Test
+    public void overflowDropsEventsInsteadOfBlocking() throws IOException {
+        File file = tempLog();
+        Telemetry telemetry = new Telemetry(file, 4);
+        int total = 10_000;
+        for (int i = 0; i < total; i++) telemetry.record(Telemetry.RUN_START, 1, 0, i, 0);
+        telemetry.close();
+        // Whatever the writer kept up with is on disk; the rest was counted, not lost silently.
+        assertEquals(total, telemetry.getWritten() + telemetry.getDropped());
+        assertEquals(telemetry.getWritten() * Telemetry.RECORD_SIZE, file.length());
+    }
+}
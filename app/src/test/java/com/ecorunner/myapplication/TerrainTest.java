@@ -0,0 +1,91 @@
+package com.ecorunner.myapplication;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TerrainTest {
+    private final EntityStore store = new EntityStore(4);
+
+    @Test
+    public void groundSegmentsAndGaps() {
+        Terrain terrain = new Terrain(store);
+        terrain.addGround(0, 900);
+        terrain.addGround(500, 850);
+        terrain.addGap(800);
+        terrain.addGround(1000, 900);
+
+        assertEquals(Terrain.NONE, terrain.surfaceHeightAt(-1));
+        assertEquals(900, terrain.surfaceHeightAt(0));
+        assertEquals(900, terrain.surfaceHeightAt(499));
+        assertEquals(850, terrain.surfaceHeightAt(500));
+        assertEquals(Terrain.NONE, terrain.surfaceHeightAt(900));
+        assertEquals(900, terrain.surfaceHeightAt(5000));
+
+        // The level moves left under the screen.
+        terrain.scroll(600);
+        assertEquals(Terrain.NONE, terrain.surfaceHeightAt(300));
+        assertEquals(900, terrain.surfaceHeightAt(400));
+    }
+
+    @Test
+    public void flatLevelsMatchTheRunningSurface() {
+        Terrain terrain = Terrain.flat(1920, 1080, store);
+        assertEquals(1080 - 1920 / 10, terrain.surfaceHeightAt(Integer.MIN_VALUE / 2));
+        terrain.scroll(1e6);
+        assertEquals(Terrain.groundFor(1920, 1080), terrain.surfaceHeightAt(400));
+    }
+
+    @Test
+    public void groundMustBeAddedLeftToRight() {
+        Terrain terrain = new Terrain(store);
+        terrain.addGround(100, 900);
+        try {
+            terrain.addGround(100, 800);
+            fail("Expected out-of-order ground to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertEquals(900, terrain.surfaceHeightAt(100));
+        }
+    }
+
+    @Test
+    public void feetLandOnTheFirstPlatformTopTheyCross() {
+        Terrain terrain = new Terrain(store);
+        terrain.addPlatform(300, 700, 600); // Wide and added first, sorted in later.
+        terrain.addPlatform(100, 200, 500);
+        terrain.addPlatform(350, 420, 550);
+
+        // Falling from 540 to 620 over x 400..410 crosses 550 first, then 600.
+        assertEquals(550, terrain.platformTopCrossed(400, 410, 540, 620));
+        assertEquals(600, terrain.platformTopCrossed(430, 440, 540, 620));
+        // Rising, or not reaching a top, lands nowhere.
+        assertEquals(Terrain.NONE, terrain.platformTopCrossed(430, 440, 620, 540));
+        assertEquals(Terrain.NONE, terrain.platformTopCrossed(430, 440, 560, 590));
+        // Standing exactly on a top stays on it.
+        assertEquals(500, terrain.platformTopCrossed(150, 160, 500, 504));
+        // Edges: right and left are exclusive.
+        assertEquals(Terrain.NONE, terrain.platformTopCrossed(700, 710, 590, 610));
+        assertEquals(600, terrain.platformTopCrossed(695, 705, 590, 610));
+
+        terrain.scroll(300);
+        assertEquals(600, terrain.platformTopCrossed(0, 10, 590, 610));
+        assertEquals(Terrain.NONE, terrain.platformTopCrossed(400, 410, 590, 610));
+    }
+
+    @Test
+    public void movingPlatformsFollowTheirEntity() {
+        Terrain terrain = new Terrain(store);
+        int van = store.create(1000, 840, 230, 230);
+        store.setVx(van, -30);
+        terrain.attach(van);
+        terrain.attach(van);
+
+        assertEquals(Terrain.NONE, terrain.platformTopCrossed(400, 410, 820, 860));
+        for (int t = 0; t < 20; t++) store.integrate(van);
+        assertEquals(840, terrain.platformTopCrossed(400, 410, 820, 860));
+
+        terrain.detach(van);
+        assertEquals(Terrain.NONE, terrain.platformTopCrossed(400, 410, 820, 860));
+        store.release(van);
+    }
+}
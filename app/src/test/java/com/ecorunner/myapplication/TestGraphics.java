@@ -0,0 +1,37 @@
+package com.ecorunner.myapplication;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+import java.lang.reflect.Constructor;
+
+// android.graphics objects for JVM tests, where android.jar's constructors do nothing and its
+// methods throw.
+public class TestGraphics {
+    // Rect's constructors do nothing outside a device, so the fields are set by hand.
+    public static Rect rect(int left, int top, int right, int bottom) {
+        Rect r = new Rect();
+        r.left = left;
+        r.top = top;
+        r.right = right;
+        r.bottom = bottom;
+        return r;
+    }
+
+    // Bitmap has no public constructor; outside a device its hidden one does nothing, which is
+    // all DrawList and RecordingRenderer need of a bitmap: something to compare by identity.
+    public static Bitmap bitmap() throws Exception {
+        Constructor<?> c = Bitmap.class.getDeclaredConstructors()[0];
+        c.setAccessible(true);
+        Class<?>[] types = c.getParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] == boolean.class) args[i] = false;
+            else if (types[i] == long.class) args[i] = 0L;
+            else if (types[i] == int.class) args[i] = 0;
+            else if (types[i] == float.class) args[i] = 0f;
+            else if (types[i].isPrimitive()) args[i] = (byte) 0;
+        }
+        return (Bitmap) c.newInstance(args);
+    }
+}
@@ -0,0 +1,129 @@
+package com.ecorunner.myapplication;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class TimerWheelTest {
+    private static final int TICK_MS = 16;
+
+    private int fired;
+    private final TimerWheel.Callback count = () -> fired++;
+
+    @Test
+    public void firesOnTheFirstTickAtOrAfterTheDeadline() {
+        TimerWheel timers = new TimerWheel(TICK_MS, 8, 4);
+        int handle = timers.schedule(100, count);
+        assertEquals(100, timers.remainingMs(handle));
+        timers.advance(96); // Six ticks, 4 ms short.
+        assertEquals(0, fired);
+        assertEquals(4, timers.remainingMs(handle));
+        timers.advance(TICK_MS);
+        assertEquals(1, fired);
+        assertFalse(timers.isPending(handle));
+        assertEquals(0, timers.remainingMs(handle));
+        assertEquals(0, timers.getActiveCount());
+    }
+
+    @Test
+    public void timersSeveralLapsOutWaitForTheirTurn() {
+        // 8 slots of 16 ms: 1 s is almost eight laps round the wheel.
+        TimerWheel timers = new TimerWheel(TICK_MS, 8, 4);
+        timers.schedule(1000, count);
+        timers.schedule(TICK_MS, count);
+        for (int t = TICK_MS; t < 1000; t += TICK_MS) timers.advance(TICK_MS);
+        assertEquals(1, fired);
+        timers.advance(TICK_MS);
+        assertEquals(2, fired);
+    }
+
+    @Test
+    public void longestDelayNeverFires() {
+        TimerWheel timers = new TimerWheel(TICK_MS, 8, 4);
+        timers.advance(1000);
+        int handle = timers.schedule(Long.MAX_VALUE, count);
+        for (int i = 0; i < 1000; i++) timers.advance(60_000);
+        assertEquals(0, fired);
+        assertTrue(timers.isPending(handle));
+        assertTrue(timers.remainingMs(handle) > Long.MAX_VALUE / 2);
+    }
+
+    @Test
+    public void cancelledAndStaleHandlesDoNothing() {
+        TimerWheel timers = new TimerWheel(TICK_MS, 8, 2);
+        int first = timers.schedule(50, count);
+        assertTrue(timers.cancel(first));
+        assertFalse(timers.cancel(first));
+        // The freed timer is reused; the old handle must not reach the new one.
+        int second = timers.schedule(50, count);
+        assertFalse(timers.cancel(first));
+        assertTrue(timers.isPending(second));
+        assertFalse(timers.cancel(TimerWheel.NONE));
+        timers.advance(64);
+        assertEquals(1, fired);
+    }
+
+    @Test
+    public void callbacksMayRescheduleAndCancel() {
+        TimerWheel timers = new TimerWheel(TICK_MS, 8, 4);
+        int[] handles = new int[2];
+        // Both come due on the same tick; whichever fires first cancels the other.
+        handles[0] = timers.schedule(TICK_MS, () -> {
+            fired++;
+            timers.cancel(handles[1]);
+        });
+        handles[1] = timers.schedule(TICK_MS, () -> {
+            fired++;
+            timers.cancel(handles[0]);
+        });
+        timers.advance(TICK_MS);
+        assertEquals(1, fired);
+
+        TimerWheel.Callback rearm = new TimerWheel.Callback() {
+            @Override
+            public void onTimer() {
+                if (++fired < 4) timers.schedule(TICK_MS, this);
+            }
+        };
+        timers.schedule(TICK_MS, rearm);
+        for (int i = 0; i < 10; i++) timers.advance(TICK_MS);
+        assertEquals(4, fired);
+        assertEquals(0, timers.getActiveCount());
+    }
+
+    @Test
+    public void clearCancelsEverything() {
+        TimerWheel timers = new TimerWheel(TICK_MS, 8, 4);
+        int handle = timers.schedule(20, count);
+        timers.schedule(500, count);
+        timers.clear();
+        assertEquals(0, timers.getActiveCount());
+        assertFalse(timers.isPending(handle));
+        timers.advance(1000);
+        assertEquals(0, fired);
+    }
+
+    @Test
+    public void schedulingAndTickingDoNotAllocate() {
+        TimerWheel timers = new TimerWheel(TICK_MS, 64, 64);
+        int[] handles = new int[64];
+        churn(timers, handles); // Warm-up.
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        churn(timers, handles);
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        assertEquals(0, allocated, 1024);
+    }
+
+    private void churn(TimerWheel timers, int[] handles) {
+        for (int round = 0; round < 1000; round++) {
+            for (int i = 0; i < handles.length; i++) handles[i] = timers.schedule(i * 37 % 2000, count);
+            for (int i = 0; i < handles.length; i += 2) timers.cancel(handles[i]);
+            timers.advance(2000);
+        }
+    }
+}